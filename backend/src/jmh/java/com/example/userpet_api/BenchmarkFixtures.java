@@ -0,0 +1,90 @@
+package com.example.userpet_api;
+
+import com.example.userpet_api.model.UserWithPet;
+import com.example.userpet_api.service.RandomUserJsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic payloads in the upstream response formats (src/test/resources/fixtures), cut to the
+ * sizes a benchmark needs. Generated rather than captured, so their values are realistic in shape only.
+ */
+public final class BenchmarkFixtures {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * The RandomUser-format fixture trimmed to its first {@code count} results.
+     */
+    public static byte[] randomUserResponse(int count) {
+        try {
+            ObjectNode root = (ObjectNode) MAPPER.readTree(fixture("randomuser-1000.json"));
+            ArrayNode results = (ArrayNode) root.path("results");
+            ArrayNode trimmed = MAPPER.createArrayNode();
+            for (int i = 0; i < count && i < results.size(); i++) {
+                trimmed.add(results.get(i));
+            }
+            root.set("results", trimmed);
+            return MAPPER.writeValueAsBytes(root);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static List<UserWithPet> users(int count) {
+        try {
+            return new RandomUserJsonParser().parse(new ByteArrayInputStream(randomUserResponse(count))).getUsers();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * {@code count} image URLs, cycling through the Dog CEO-format fixture.
+     */
+    public static List<String> dogImages(int count) {
+        try {
+            JsonNode message = MAPPER.readTree(fixture("dogceo-50.json")).path("message");
+            List<String> images = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                images.add(message.get(i % message.size()).asText());
+            }
+            return images;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Users paired with images, as the controller returns them.
+     */
+    public static List<UserWithPet> usersWithPets(int count) {
+        List<UserWithPet> users = users(count);
+        List<String> images = dogImages(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setPetImage(images.get(i));
+        }
+        return users;
+    }
+
+    private static byte[] fixture(String name) throws IOException {
+        try (InputStream in = BenchmarkFixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IOException("Missing fixture " + name);
+            }
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.userpet_api.config;
+
+import com.example.userpet_api.simulator.UpstreamSimulator;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upstream HTTP clients against a local {@link UpstreamSimulator}, with 16 threads each fetching
+ * 50 Dog CEO image URLs. Sample time gives the latency percentiles; {@code connections} is the
+ * number of TCP connections the simulator saw opened during the iteration.
+ *
+ * <p>{@code URL_CONNECTION} is the plain {@code new RestTemplate()} the services used before the
+ * shared client, without a per-host cap or timeouts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 8, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+// Without TCP_NODELAY the JDK server's separate header and body writes wait on delayed ACKs (~40 ms)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class UpstreamHttpClientBenchmark {
+
+    public enum Client { URL_CONNECTION, APACHE, JDK }
+
+    @Param({"URL_CONNECTION", "APACHE", "JDK"})
+    private Client client;
+
+    // Fixed Dog CEO latency; at 0 the run is bound by the CPU each client spends per call
+    @Param({"0", "20"})
+    private int latencyMillis;
+
+    private UpstreamSimulator simulator;
+    private RestTemplate restTemplate;
+    private URI uri;
+
+    @Setup
+    public void setUp() throws IOException {
+        simulator = UpstreamSimulator.start(0, UpstreamSimulator.Behaviour.instant(),
+            UpstreamSimulator.Behaviour.builder().medianLatency(Duration.ofMillis(latencyMillis)).build());
+        uri = URI.create(simulator.getBaseUrl() + UpstreamSimulator.DOG_IMAGE_PATH + 50);
+        if (client == Client.URL_CONNECTION) {
+            restTemplate = new RestTemplate();
+        } else {
+            UpstreamHttpProperties properties = new UpstreamHttpProperties();
+            properties.setClient(UpstreamHttpProperties.Client.valueOf(client.name()));
+            restTemplate = UpstreamHttpClientConfig.createRestTemplate(properties);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        simulator.close();
+    }
+
+    @Benchmark
+    public String fetch(Connections connections) {
+        return restTemplate.getForObject(uri, String.class);
+    }
+
+    /**
+     * Connections opened during the iteration. Only the first thread reports them, since JMH sums
+     * counters over all threads.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Connections {
+        private UpstreamSimulator simulator;
+        private boolean reporting;
+        private int openedBefore;
+
+        @Setup
+        public void setUp(UpstreamHttpClientBenchmark benchmark, ThreadParams thread) {
+            simulator = benchmark.simulator;
+            reporting = thread.getThreadIndex() == 0;
+        }
+
+        @Setup(Level.Iteration)
+        public void startIteration() {
+            openedBefore = simulator.getConnections();
+        }
+
+        public long connections() {
+            return reporting ? simulator.getConnections() - openedBefore : 0;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.userpet_api.controller;
+
+import com.example.userpet_api.BenchmarkFixtures;
+import com.example.userpet_api.model.UserWithPet;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code /api/users-with-pet} response body with and without a {@code fields} projection.
+ * {@code all} is the full response written by Jackson's bean serializer; the other values go
+ * through {@link FieldProjection}, the first of them selecting every field the fixtures fill in,
+ * so it isolates the projected writer's own cost. {@code bytes} is the response size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FieldProjectionBenchmark {
+
+    @Param({"50", "500"})
+    private int users;
+
+    @Param({"all", "id,gender,country,name,email,dob,phone,petImage", "name,dob.age,petImage", "name,petImage"})
+    private String fields;
+
+    private ObjectMapper objectMapper;
+    private List<UserWithPet> response;
+    private FieldProjection projection;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder().build();
+        response = BenchmarkFixtures.usersWithPets(users);
+        projection = "all".equals(fields) ? null : FieldProjection.parse(fields);
+    }
+
+    @Benchmark
+    public byte[] serialize(ResponseSize size) {
+        byte[] json = UserWithPetController.serialize(projection, response, objectMapper);
+        size.written += json.length;
+        size.responses++;
+        return json;
+    }
+
+    /**
+     * Response bytes per operation. JMH adds event counters up over the measurement iterations,
+     * so each iteration reports its share of the per-operation size.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ResponseSize {
+        private long written;
+        private long responses;
+        private int iterations;
+
+        @Setup
+        public void setUp(BenchmarkParams params) {
+            iterations = params.getMeasurement().getCount();
+        }
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            written = 0;
+            responses = 0;
+        }
+
+        public double bytes() {
+            return responses == 0 ? 0 : (double) written / responses / iterations;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.userpet_api.controller;
+
+import com.example.userpet_api.BenchmarkFixtures;
+import com.example.userpet_api.model.UserWithPet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing the controller's response list with the web layer's Jackson 3 mapper, as one
+ * JSON array and as the NDJSON stream written by {@link UserStreamWriter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSerializationBenchmark {
+
+    @Param({"50", "500", "1000"})
+    private int users;
+
+    private ObjectMapper objectMapper;
+    private List<UserWithPet> response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder().build();
+        response = BenchmarkFixtures.usersWithPets(users);
+    }
+
+    @Benchmark
+    public byte[] jsonArray() {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public void ndjsonStream() throws IOException {
+        UserStreamWriter writer = new UserStreamWriter(OutputStream.nullOutputStream(), objectMapper,
+            UserStreamWriter.Format.NDJSON, 25);
+        response.forEach(writer::write);
+        writer.finish();
+    }
+}
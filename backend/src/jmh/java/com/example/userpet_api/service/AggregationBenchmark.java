@@ -0,0 +1,53 @@
+package com.example.userpet_api.service;
+
+import com.example.userpet_api.BenchmarkFixtures;
+import com.example.userpet_api.config.AggregatorProperties;
+import com.example.userpet_api.metrics.UserPetMetrics;
+import com.example.userpet_api.model.UserWithPet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pairing already fetched users with images, without the upstream calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AggregationBenchmark {
+
+    @Param({"50", "500", "1000"})
+    private int users;
+
+    private UserWithPetAggregatorService aggregator;
+    private List<UserWithPet> fetchedUsers;
+    private List<String> images;
+
+    @Setup
+    public void setUp() {
+        // Upstream services and executor are never touched by aggregateUsersWithImages
+        aggregator = new UserWithPetAggregatorService(null, null, null, new AggregatorProperties(),
+            UserPetMetrics.standalone(), ImageProxyService.disabled(), ThumbnailService.disabled());
+        fetchedUsers = BenchmarkFixtures.users(users);
+        images = BenchmarkFixtures.dogImages(users);
+    }
+
+    @Benchmark
+    public List<UserWithPet> aggregateUsersWithImages() {
+        return aggregator.aggregateUsersWithImages(fetchedUsers, images);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.userpet_api.service;
+
+import com.example.userpet_api.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RandomUser response to {@code UserWithPet} mapping, from the bytes the upstream sends.
+ * {@code tree} includes decoding the body to a String, as {@code getForObject(url, String.class)} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RandomUserMappingBenchmark {
+
+    @Param({"50", "500", "1000"})
+    private int users;
+
+    private byte[] body;
+    private RandomUserServiceImpl service;
+    private RandomUserJsonParser parser;
+
+    @Setup
+    public void setUp() {
+        body = BenchmarkFixtures.randomUserResponse(users);
+        service = new RandomUserServiceImpl();
+        parser = new RandomUserJsonParser();
+    }
+
+    @Benchmark
+    public ParsedUsers tree() throws IOException {
+        return service.parseTree(new String(body, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public ParsedUsers streaming() throws IOException {
+        return parser.parse(new ByteArrayInputStream(body));
+    }
+}
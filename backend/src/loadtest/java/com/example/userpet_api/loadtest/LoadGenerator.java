@@ -0,0 +1,213 @@
+package com.example.userpet_api.loadtest;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends GET requests to one URL and measures how long each took.
+ *
+ * <p>With {@code rate} unset the generator runs a closed loop: {@code concurrency} clients each
+ * send the next request as soon as the previous one returns. With {@code rate} set, requests
+ * start on a fixed schedule whether or not earlier ones have returned, and latency is measured
+ * from the scheduled start. A stalled service then shows up as queueing in the percentiles
+ * instead of as fewer, faster-looking requests.
+ */
+public final class LoadGenerator {
+
+    @Value
+    @Builder
+    public static class Settings {
+        URI target;
+        // Clients in closed-loop mode; the bound on requests in flight in open-loop mode
+        @Builder.Default
+        int concurrency = 16;
+        // Requests per second for an open loop; 0 runs a closed loop
+        @Builder.Default
+        double rate = 0;
+        // Requests during the warmup are sent but not recorded
+        @Builder.Default
+        Duration warmup = Duration.ofSeconds(5);
+        @Builder.Default
+        Duration duration = Duration.ofSeconds(30);
+        @Builder.Default
+        Duration requestTimeout = Duration.ofSeconds(10);
+    }
+
+    private final Settings settings;
+    private final HttpClient client;
+    private final HttpRequest request;
+    private final Recorder recorder = new Recorder();
+
+    public LoadGenerator(Settings settings) {
+        this.settings = settings;
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+        this.request = HttpRequest.newBuilder(settings.getTarget())
+            .timeout(settings.getRequestTimeout())
+            .GET()
+            .build();
+    }
+
+    public Report run() throws InterruptedException {
+        long start = System.nanoTime();
+        long recordFrom = start + settings.getWarmup().toNanos();
+        long end = recordFrom + settings.getDuration().toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(settings.getConcurrency(), runnable -> {
+            Thread thread = new Thread(runnable, "load-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            if (settings.getRate() > 0) {
+                openLoop(clients, start, recordFrom, end);
+            } else {
+                for (int i = 0; i < settings.getConcurrency(); i++) {
+                    clients.execute(() -> closedLoop(recordFrom, end));
+                }
+            }
+        } finally {
+            clients.shutdown();
+            // Closed-loop clients only stop at end, and the last request of each may then take up
+            // to the request timeout; returning earlier would report while clients still send
+            long deadline = end + settings.getRequestTimeout().toNanos() + TimeUnit.SECONDS.toNanos(1);
+            if (!clients.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                clients.shutdownNow();
+            }
+        }
+        // The window that actually ran, which is shorter than duration if the run was cut short
+        long stopped = Math.min(System.nanoTime(), end);
+        return recorder.report(settings, Duration.ofNanos(Math.max(0, stopped - recordFrom)));
+    }
+
+    private void closedLoop(long recordFrom, long end) {
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            send(now, recordFrom);
+        }
+    }
+
+    private void openLoop(ExecutorService clients, long start, long recordFrom, long end) {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / settings.getRate());
+        for (long scheduled = start; scheduled < end; scheduled += interval) {
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long intendedStart = scheduled;
+            // Queues behind busy clients; the time spent queued counts towards the latency
+            clients.execute(() -> send(intendedStart, recordFrom));
+        }
+    }
+
+    private void send(long intendedStart, long recordFrom) {
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            status = Report.IO_ERROR;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (intendedStart >= recordFrom) {
+            recorder.record(System.nanoTime() - intendedStart, status);
+        }
+    }
+
+    private static final class Recorder {
+        private long[] latencies = new long[1 << 16];
+        private int count;
+        private final Map<Integer, Long> statuses = new TreeMap<>();
+
+        synchronized void record(long latencyNanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            statuses.merge(status, 1L, Long::sum);
+        }
+
+        synchronized Report report(Settings settings, Duration measured) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return new Report(settings, measured, sorted, new TreeMap<>(statuses));
+        }
+    }
+
+    /**
+     * Results of one run. Status {@link #IO_ERROR} counts requests that got no response.
+     */
+    @Value
+    public static class Report {
+        public static final int IO_ERROR = -1;
+
+        Settings settings;
+        Duration measured;
+        long[] sortedLatencies;
+        Map<Integer, Long> statuses;
+
+        public long getRequests() {
+            return sortedLatencies.length;
+        }
+
+        public double getThroughput() {
+            return measured.isZero() ? 0 : getRequests() / (measured.toNanos() / 1e9);
+        }
+
+        // Requests answered with anything but 2xx, or not answered at all
+        public long getErrors() {
+            return statuses.entrySet().stream()
+                .filter(status -> status.getKey() < 200 || status.getKey() >= 300)
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+        }
+
+        public Duration percentile(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return Duration.ZERO;
+            }
+            int index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+            return Duration.ofNanos(sortedLatencies[Math.max(0, Math.min(sortedLatencies.length - 1, index))]);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("Target      %s%n", settings.getTarget()));
+            out.append(String.format("Mode        %s%n", settings.getRate() > 0
+                ? String.format("open loop, %.0f req/s, up to %d in flight", settings.getRate(), settings.getConcurrency())
+                : String.format("closed loop, %d clients", settings.getConcurrency())));
+            out.append(String.format("Requests    %d in %.1fs%n", getRequests(), measured.toNanos() / 1e9));
+            out.append(String.format("Throughput  %.1f req/s%n", getThroughput()));
+            out.append("Latency    ");
+            for (double percentile : new double[]{50, 90, 99, 99.9, 100}) {
+                out.append(String.format(" %s=%.1fms", percentile == 100 ? "max" : "p" + trim(percentile),
+                    percentile(percentile).toNanos() / 1e6));
+            }
+            out.append(String.format("%nStatuses   "));
+            statuses.forEach((status, count) ->
+                out.append(' ').append(status == IO_ERROR ? "io-error" : status).append('=').append(count));
+            return out.append(String.format("%n")).toString();
+        }
+
+        private static String trim(double value) {
+            return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.userpet_api.loadtest;
+
+import com.example.userpet_api.UserpetApiApplication;
+import com.example.userpet_api.simulator.UpstreamSimulator;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Starts the upstream simulator and the service on free ports, points the service at the
+ * simulator and load-tests one endpoint. Everything runs in this JVM, so results compare
+ * configurations on the same machine rather than measure production capacity.
+ *
+ * <p>Options, all {@code --name=value}:
+ * <ul>
+ *   <li>{@code path}: request path and query, default {@code /api/users-with-pet?results=50}</li>
+ *   <li>{@code concurrency}, {@code rate}, {@code warmup}, {@code duration}: see {@link LoadGenerator.Settings}</li>
+ *   <li>{@code latency}, {@code p99}, {@code error-rate}, {@code padding}: simulated upstream behaviour</li>
+ *   <li>{@code url}: load-test an already running service instead; nothing is started</li>
+ * </ul>
+ * Options starting with {@code userpet.}, {@code server.} or {@code spring.} are passed to the
+ * service, for example {@code --userpet.response-cache.enabled=true}.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        Map<String, String> serviceProperties = new LinkedHashMap<>();
+        parseArgs(args, options, serviceProperties);
+
+        if (options.containsKey("url")) {
+            URI target = URI.create(options.get("url"));
+            report(new LoadGenerator(settings(options).target(target).build()).run(), null);
+            return;
+        }
+        run(options, serviceProperties);
+    }
+
+    /**
+     * Splits {@code --name=value} arguments into load test options and service properties.
+     */
+    static void parseArgs(String[] args, Map<String, String> options, Map<String, String> serviceProperties) {
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            if (name.startsWith("userpet.") || name.startsWith("server.") || name.startsWith("spring.")) {
+                serviceProperties.put(name, arg.substring(arg.indexOf('=') + 1));
+            } else {
+                options.put(name, arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+    }
+
+    /**
+     * Starts the simulator and the service with {@code serviceProperties}, runs the load and
+     * prints the report. Both are stopped before returning.
+     */
+    static LoadGenerator.Report run(Map<String, String> options, Map<String, String> serviceProperties)
+            throws Exception {
+        // A devtools restart would run main again and start a second simulator
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        UpstreamSimulator.Behaviour behaviour = UpstreamSimulator.Behaviour.builder()
+            .medianLatency(UpstreamSimulator.parseDuration(options.getOrDefault("latency", "80ms")))
+            .p99Latency(UpstreamSimulator.parseDuration(options.getOrDefault("p99", "400ms")))
+            .errorRate(Double.parseDouble(options.getOrDefault("error-rate", "0")))
+            .userPaddingBytes(Integer.parseInt(options.getOrDefault("padding", "0")))
+            .build();
+        String path = options.getOrDefault("path", "/api/users-with-pet?results=50");
+        try (UpstreamSimulator simulator = UpstreamSimulator.start(0, behaviour, behaviour)) {
+            Map<String, String> properties = new LinkedHashMap<>();
+            properties.put("server.port", "0");
+            properties.put("userpet.random-user.base-url", simulator.getBaseUrl());
+            properties.put("userpet.dog-images.fetch.base-url", simulator.getBaseUrl());
+            // Repeating a property on the command line joins the values, so overrides replace them here
+            properties.putAll(serviceProperties);
+            String[] applicationArgs = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+            try (ConfigurableApplicationContext context =
+                     SpringApplication.run(UserpetApiApplication.class, applicationArgs)) {
+                String port = context.getEnvironment().getProperty("local.server.port");
+                URI target = URI.create("http://127.0.0.1:" + port + path);
+                LoadGenerator.Report report = new LoadGenerator(settings(options).target(target).build()).run();
+                report(report, simulator);
+                return report;
+            }
+        }
+    }
+
+    private static LoadGenerator.Settings.SettingsBuilder settings(Map<String, String> options) {
+        return LoadGenerator.Settings.builder()
+            .concurrency(Integer.parseInt(options.getOrDefault("concurrency", "16")))
+            .rate(Double.parseDouble(options.getOrDefault("rate", "0")))
+            .warmup(UpstreamSimulator.parseDuration(options.getOrDefault("warmup", "5s")))
+            .duration(UpstreamSimulator.parseDuration(options.getOrDefault("duration", "30s")));
+    }
+
+    private static void report(LoadGenerator.Report report, UpstreamSimulator simulator) {
+        System.out.println();
+        System.out.print(report);
+        if (simulator != null) {
+            System.out.printf("Upstream    randomuser=%d dog.ceo=%d calls (including warmup)%n",
+                simulator.getRandomUserRequests(), simulator.getDogCeoRequests());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.userpet_api.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs the same load against the service twice, once on platform threads and once with the
+ * {@code virtual} profile, and prints both reports. By default the simulated upstreams are slow
+ * and there are more clients than Tomcat has request threads, which is where the two differ: on
+ * platform threads requests queue for one of the 200 threads, on virtual threads they do not.
+ *
+ * <p>Takes the options of {@link LoadTest}, plus {@code modes} (default
+ * {@code platform,virtual}) to choose which runs to make and in which order. Both runs turn off
+ * the bulkhead, the user cache and request coalescing, and allow enough upstream connections,
+ * so the thread model is the only limit left.
+ */
+public final class ThreadModelBenchmark {
+
+    private ThreadModelBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        options.put("concurrency", "400");
+        options.put("latency", "500ms");
+        options.put("p99", "2s");
+        options.put("warmup", "10s");
+        Map<String, String> serviceProperties = new LinkedHashMap<>();
+        serviceProperties.put("userpet.bulkhead.enabled", "false");
+        serviceProperties.put("userpet.cache.users.enabled", "false");
+        serviceProperties.put("userpet.aggregator.coalesce", "false");
+        serviceProperties.put("userpet.upstream.http.max-connections-per-host", "1000");
+        serviceProperties.put("userpet.upstream.http.max-connections-total", "2000");
+        serviceProperties.put("logging.level.com.example.userpet_api", "INFO");
+        LoadTest.parseArgs(args, options, serviceProperties);
+
+        if (Runtime.version().feature() < 21) {
+            System.out.printf("Java %d has no virtual threads: the virtual run falls back to platform threads%n",
+                Runtime.version().feature());
+        }
+        Map<String, LoadGenerator.Report> reports = new LinkedHashMap<>();
+        for (String mode : options.getOrDefault("modes", "platform,virtual").split(",")) {
+            Map<String, String> properties = new LinkedHashMap<>(serviceProperties);
+            switch (mode.trim()) {
+                case "platform":
+                    properties.put("spring.threads.virtual.enabled", "false");
+                    properties.put("userpet.upstream.executor.strategy", "CACHED");
+                    break;
+                case "virtual":
+                    properties.put("spring.profiles.active", "virtual");
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown mode " + mode + "; expected platform or virtual");
+            }
+            System.out.printf("%n=== %s threads ===%n", mode.trim());
+            reports.put(mode.trim(), LoadTest.run(options, properties));
+        }
+
+        System.out.printf("%n%-10s %10s %10s %10s %10s %8s%n", "Mode", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        reports.forEach((mode, report) -> System.out.printf("%-10s %10.1f %10.1f %10.1f %10.1f %8d%n",
+            mode, report.getThroughput(), millis(report.percentile(50)), millis(report.percentile(99)),
+            millis(report.percentile(100)), report.getErrors()));
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1e6;
+    }
+}
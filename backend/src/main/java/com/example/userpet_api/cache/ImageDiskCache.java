@@ -0,0 +1,280 @@
+package com.example.userpet_api.cache;
+
+import com.example.userpet_api.config.ImageProxyProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded cache of image files on local disk. Each image is stored under its upstream path
+ * below the cache directory, written to a temporary file first and moved into place, so a file
+ * that exists is always complete.
+ *
+ * <p>The index of cached files is kept in memory in access order. When the total size exceeds
+ * {@code max-cache-size}, the least recently served files are deleted. On startup the index is
+ * rebuilt from the directory, oldest files first, so a restart keeps the cache warm.
+ */
+@Component
+@Slf4j
+public class ImageDiskCache {
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final ImageProxyProperties properties;
+    private final Path directory;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Access-ordered, so iteration starts with the least recently served image
+    private final LinkedHashMap<String, CachedImage> index = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ImageDiskCache(ImageProxyProperties properties) {
+        this.properties = properties;
+        this.directory = properties.getDirectory().toAbsolutePath().normalize();
+    }
+
+    /**
+     * Rebuilds the index from the files already in the cache directory.
+     */
+    @PostConstruct
+    public void load() {
+        if (!properties.isEnabled() || !Files.isDirectory(directory)) {
+            return;
+        }
+        List<CachedImage> found = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.filter(Files::isRegularFile).forEach(file -> {
+                try {
+                    if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                        // Left behind by a write that did not finish
+                        Files.deleteIfExists(file);
+                        return;
+                    }
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    found.add(new CachedImage(directory.relativize(file).toString().replace('\\', '/'), file,
+                        attributes.size(), attributes.lastModifiedTime().toMillis()));
+                } catch (IOException e) {
+                    log.debug("Skipping cached image {}: {}", file, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Could not read image cache directory {}, starting empty: {}", directory, e.getMessage());
+            return;
+        }
+        found.sort(Comparator.comparingLong(CachedImage::getLastModified));
+        List<Path> evicted;
+        lock.lock();
+        try {
+            found.forEach(this::index);
+            evicted = evictIfNeeded(null);
+        } finally {
+            lock.unlock();
+        }
+        delete(evicted);
+        log.info("Loaded {} cached images ({} bytes) from {}", size(), getTotalBytes(), directory);
+    }
+
+    /**
+     * Returns the cached image stored under {@code key}, or {@code null} when it is not cached.
+     */
+    public CachedImage get(String key) {
+        CachedImage image;
+        lock.lock();
+        try {
+            image = index.get(key);
+        } finally {
+            lock.unlock();
+        }
+        if (image == null || !Files.isRegularFile(image.getFile())) {
+            if (image != null) {
+                remove(image);
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return image;
+    }
+
+    /**
+     * Whether {@code key} is indexed. Unlike {@link #get}, this does not touch the file, the
+     * access order or the hit and miss counts.
+     */
+    public boolean contains(String key) {
+        lock.lock();
+        try {
+            return index.containsKey(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores {@code body} under {@code key}, replacing any earlier copy, and evicts older images
+     * if the cache is now over its size limit.
+     *
+     * @throws IOException when the body cannot be written or exceeds {@code max-image-size}
+     */
+    public CachedImage put(String key, InputStream body) throws IOException {
+        Path file = resolve(key);
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), ".", TEMP_SUFFIX);
+        long size = 0;
+        try {
+            long maxSize = properties.getMaxImageSize().toBytes();
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxSize) {
+                        throw new IOException("Image " + key + " is larger than " + properties.getMaxImageSize());
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        CachedImage image = new CachedImage(key, file, size, Files.getLastModifiedTime(file).toMillis());
+        List<Path> evicted;
+        lock.lock();
+        try {
+            index(image);
+            evicted = evictIfNeeded(key);
+        } finally {
+            lock.unlock();
+        }
+        delete(evicted);
+        return image;
+    }
+
+    /**
+     * The file for {@code key} below the cache directory.
+     *
+     * @throws IllegalArgumentException when {@code key} would resolve outside the directory
+     */
+    Path resolve(String key) {
+        Path file = directory.resolve(key).normalize();
+        if (!file.startsWith(directory) || file.equals(directory)) {
+            throw new IllegalArgumentException("Invalid image key: " + key);
+        }
+        return file;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public long getTotalBytes() {
+        lock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void index(CachedImage image) {
+        CachedImage previous = index.put(image.getKey(), image);
+        if (previous != null) {
+            totalBytes -= previous.getSize();
+        }
+        totalBytes += image.getSize();
+    }
+
+    private void remove(CachedImage image) {
+        lock.lock();
+        try {
+            if (index.remove(image.getKey(), image)) {
+                totalBytes -= image.getSize();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Unlinks the least recently served entries; the caller deletes the files outside the lock
+    private List<Path> evictIfNeeded(String keep) {
+        List<Path> evicted = new ArrayList<>();
+        long maxBytes = properties.getMaxCacheSize().toBytes();
+        Iterator<Map.Entry<String, CachedImage>> eldest = index.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            CachedImage image = eldest.next().getValue();
+            if (image.getKey().equals(keep)) {
+                continue;
+            }
+            eldest.remove();
+            totalBytes -= image.getSize();
+            evictions.incrementAndGet();
+            evicted.add(image.getFile());
+        }
+        return evicted;
+    }
+
+    // A response already streaming an evicted file keeps reading it: the open file outlives the delete
+    private static void delete(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete evicted image {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A complete image file in the cache.
+     */
+    @Value
+    public static class CachedImage {
+        String key;
+        Path file;
+        long size;
+        long lastModified;
+
+        // Strong validator from size and write time, like most static file servers use
+        public String getEtag() {
+            return "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.userpet_api.cache;
+
+import com.example.userpet_api.config.Constants;
+import com.example.userpet_api.config.UserCacheProperties;
+import com.example.userpet_api.model.UserWithPet;
+import com.example.userpet_api.query.IndexedUsers;
+import com.example.userpet_api.query.UserIndex;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache of RandomUser results.
+ *
+ * <p>With a fixed seed, the first {@code n} users of a larger result set are exactly the users a
+ * request for {@code n} would return. Each (seed, nationality) key therefore keeps only the largest
+ * result fetched so far and serves every smaller count as a prefix of it.
+ *
+ * <p>Once a {@link Refresher} is registered, entries are also kept fresh in the background:
+ * <ul>
+ *   <li>An expired entry is still served for up to {@code max-staleness} past its TTL, and the
+ *   first request to find it starts a single background refresh. No request waits for upstream
+ *   unless the entry is missing or older than that bound.</li>
+ *   <li>Entries read since their last fetch are refreshed {@code refresh-ahead} before they
+ *   expire, so frequently used entries normally never go stale.</li>
+ *   <li>A failed refresh keeps the stale entry; the next request past the TTL tries again.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class RandomUserCache {
+    private final UserCacheProperties properties;
+    private final Clock clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+    private ScheduledExecutorService refreshExecutor;
+    private volatile Refresher refresher;
+
+    @Autowired
+    public RandomUserCache(UserCacheProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    RandomUserCache(UserCacheProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts refreshing entries in the background with {@code refresher}. Without a refresher,
+     * expired entries are simply not served.
+     */
+    public synchronized void startRefreshing(Refresher refresher) {
+        if (!properties.isEnabled() || this.refresher != null) {
+            return;
+        }
+        refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Written last: get() only reaches the executor once it sees the refresher
+        this.refresher = refresher;
+        long aheadMillis = properties.getRefreshAhead().toMillis();
+        if (aheadMillis > 0) {
+            // Checking twice per refresh-ahead window catches every hot entry before it expires
+            long periodMillis = Math.max(1_000, aheadMillis / 2);
+            refreshExecutor.scheduleWithFixedDelay(this::refreshHotEntries, periodMillis, periodMillis,
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the users a request for {@code count} would get upstream, or {@code null} when the
+     * cache does not hold a result of at least that size that is fresh, or stale but still within
+     * {@code max-staleness} and being refreshed.
+     */
+    public List<UserWithPet> get(String nationality, int count) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        Entry entry = entries.get(key(nationality));
+        long now = clock.millis();
+        if (entry == null || entry.fetchedCount < count) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (!isExpired(entry, now)) {
+            hits.incrementAndGet();
+        } else if (canServeStale(entry, now)) {
+            staleHits.incrementAndGet();
+            refreshInBackground(entry);
+        } else {
+            misses.incrementAndGet();
+            return null;
+        }
+        entry.lastAccess = now;
+        return new IndexedUsers(entry.users.subList(0, entry.prefixSize(count)), entry.index);
+    }
+
+    /**
+     * Stores the result of an upstream call for {@code fetchedCount} users.
+     *
+     * @param users     the valid users, in upstream order
+     * @param positions for each user, its index in the upstream {@code results} array (users that
+     *                  failed validation leave gaps, which is why the prefix is computed from these)
+     */
+    public void put(String nationality, int fetchedCount, List<UserWithPet> users, int[] positions) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = clock.millis();
+        Entry candidate = new Entry(nationality, fetchedCount, List.copyOf(users),
+                Arrays.copyOf(positions, users.size()), now);
+        // Keep a larger result unless it has expired; a smaller one is always a prefix of it.
+        // A result of the same size replaces the current one, which is how refreshes land.
+        entries.merge(key(nationality), candidate, (current, fresh) ->
+                current.fetchedCount > fresh.fetchedCount && !isExpired(current, now) ? current : fresh);
+        evictIfNeeded();
+    }
+
+    /**
+     * Adds an entry loaded from a snapshot. Its TTL starts now, and entries already present win.
+     */
+    void restore(String key, int fetchedCount, List<UserWithPet> users, int[] positions) {
+        String nationality = key.substring(key.indexOf(':') + 1);
+        entries.putIfAbsent(key, new Entry(nationality.isEmpty() ? null : nationality, fetchedCount,
+                List.copyOf(users), positions, clock.millis()));
+        evictIfNeeded();
+    }
+
+    // Fresh entries by key, for writing a snapshot
+    Map<String, Entry> freshEntries() {
+        long now = clock.millis();
+        Map<String, Entry> fresh = new HashMap<>();
+        entries.forEach((key, entry) -> {
+            if (!isExpired(entry, now)) {
+                fresh.put(key, entry);
+            }
+        });
+        return fresh;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    // Requests served from an expired entry while it was being refreshed
+    public long getStaleHitCount() {
+        return staleHits.get();
+    }
+
+    public long getRefreshCount() {
+        return refreshes.get();
+    }
+
+    public long getRefreshFailureCount() {
+        return refreshFailures.get();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdAt >= properties.getTtl().toMillis();
+    }
+
+    private boolean canServeStale(Entry entry, long now) {
+        return refresher != null
+            && now - entry.createdAt < properties.getTtl().toMillis() + properties.getMaxStaleness().toMillis();
+    }
+
+    // Entries read since they were fetched and due to expire within refresh-ahead
+    void refreshHotEntries() {
+        long now = clock.millis();
+        long refreshFrom = properties.getTtl().toMillis() - properties.getRefreshAhead().toMillis();
+        entries.values().forEach(entry -> {
+            if (entry.lastAccess > entry.createdAt && now - entry.createdAt >= refreshFrom && !isExpired(entry, now)) {
+                refreshInBackground(entry);
+            }
+        });
+    }
+
+    // At most one refresh per entry is queued or running
+    private void refreshInBackground(Entry entry) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> refresh(entry));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            entry.refreshing.set(false);
+        }
+    }
+
+    private void refresh(Entry entry) {
+        try {
+            refresher.refresh(entry.nationality, entry.fetchedCount);
+            refreshes.incrementAndGet();
+            log.debug("Refreshed cached users for {}", key(entry.nationality));
+        } catch (RuntimeException e) {
+            // The circuit breaker keeps a failing upstream from being retried on every request
+            refreshFailures.incrementAndGet();
+            log.warn("Refreshing cached users for {} failed, still serving the cached copy: {}",
+                    key(entry.nationality), e.getMessage());
+        } finally {
+            entry.refreshing.set(false);
+        }
+    }
+
+    private void evictIfNeeded() {
+        while (entries.size() > properties.getMaxEntries()) {
+            entries.entrySet().stream()
+                .min(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                .ifPresent(eldest -> {
+                    if (entries.remove(eldest.getKey(), eldest.getValue())) {
+                        evictions.incrementAndGet();
+                        log.debug("Evicted cached users for {}", eldest.getKey());
+                    }
+                });
+        }
+    }
+
+    static String key(String nationality) {
+        String nat = nationality == null ? "" : nationality.trim().toUpperCase(Locale.ROOT);
+        return Constants.FIXED_SEED + ":" + nat;
+    }
+
+    /**
+     * Fetches users upstream and {@link #put}s them. Throws when the fetch fails, so the cache
+     * keeps what it has.
+     */
+    @FunctionalInterface
+    public interface Refresher {
+        void refresh(String nationality, int count);
+    }
+
+    static final class Entry {
+        final String nationality;
+        final int fetchedCount;
+        final List<UserWithPet> users;
+        final int[] positions;
+        // Built once per fetched user set and shared by every prefix served from it
+        final UserIndex index;
+        private final long createdAt;
+        private volatile long lastAccess;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(String nationality, int fetchedCount, List<UserWithPet> users, int[] positions,
+                      long createdAt) {
+            this.nationality = nationality;
+            this.fetchedCount = fetchedCount;
+            this.users = users;
+            this.positions = positions;
+            this.index = UserIndex.build(users);
+            this.createdAt = createdAt;
+            this.lastAccess = createdAt;
+        }
+
+        // Number of valid users whose upstream position is below count
+        private int prefixSize(int count) {
+            int index = Arrays.binarySearch(positions, count);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+}
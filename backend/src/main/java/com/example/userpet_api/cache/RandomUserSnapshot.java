@@ -0,0 +1,308 @@
+package com.example.userpet_api.cache;
+
+import com.example.userpet_api.config.Constants;
+import com.example.userpet_api.config.UserCacheProperties;
+import com.example.userpet_api.model.UserWithPet;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * Persists the {@link RandomUserCache} to a local file so a restarted service starts warm.
+ *
+ * <p>RandomUser results are seeded, so the users fetched before a restart are the users the
+ * next run would fetch. The file is read through a memory-mapped buffer before the service takes
+ * traffic. Anything unexpected in it (unknown version, wrong checksum, truncation) is logged and
+ * the cache starts cold, exactly as if there were no snapshot.
+ *
+ * <p>Format, big-endian: a header of magic, version, write time, payload length and CRC32 of the
+ * payload, followed by the entries. Strings are a length (-1 for null) and UTF-8 bytes.
+ */
+@Component
+@Slf4j
+public class RandomUserSnapshot implements AutoCloseable {
+    static final int MAGIC = 0x55505553; // "UPUS"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 4 + 2 + 2 + 8 + 4 + 4;
+
+    private final RandomUserCache cache;
+    private final UserCacheProperties properties;
+    private final Clock clock;
+    private final ScheduledExecutorService writer;
+    private final AtomicBoolean writePending = new AtomicBoolean();
+
+    @Autowired
+    public RandomUserSnapshot(RandomUserCache cache, UserCacheProperties properties) {
+        this(cache, properties, Clock.systemUTC());
+    }
+
+    RandomUserSnapshot(RandomUserCache cache, UserCacheProperties properties, Clock clock) {
+        this.cache = cache;
+        this.properties = properties;
+        this.clock = clock;
+        this.writer = isEnabled() ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    @PostConstruct
+    void loadOnStartup() {
+        if (isEnabled()) {
+            load();
+        }
+    }
+
+    /**
+     * Loads the snapshot into the cache.
+     *
+     * @return the number of entries restored; 0 when the file is missing, stale or invalid
+     */
+    int load() {
+        Path path = properties.getSnapshot().getPath();
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int restored = restore(buffer);
+            log.info("Restored {} cached user sets from {} in {} ms", restored, path,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return restored;
+        } catch (NoSuchFileException e) {
+            log.debug("No user snapshot at {}, starting cold", path);
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable user snapshot {}: {}", path, e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * Schedules a rewrite of the snapshot after the configured delay. Calls made before the write
+     * runs are folded into it.
+     */
+    public void scheduleWrite() {
+        if (writer != null && writePending.compareAndSet(false, true)) {
+            writer.schedule(this::writePending, properties.getSnapshot().getWriteDelay().toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes the fresh cache entries to the snapshot file, replacing it atomically.
+     */
+    synchronized void write() throws IOException {
+        Path path = properties.getSnapshot().getPath();
+        byte[] payload = encode(cache.freshEntries());
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC)
+                .putShort(VERSION)
+                .putShort((short) 0)
+                .putLong(clock.millis())
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .flip();
+        ByteBuffer body = ByteBuffer.wrap(payload);
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining() || body.hasRemaining()) {
+                channel.write(new ByteBuffer[]{header, body});
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Wrote user snapshot {} ({} bytes)", path, HEADER_SIZE + payload.length);
+    }
+
+    @PreDestroy
+    @Override
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdownNow();
+        // Do not lose updates that were still waiting for their delayed write
+        if (writePending.getAndSet(false)) {
+            writeQuietly();
+        }
+    }
+
+    private boolean isEnabled() {
+        return properties.isEnabled() && properties.getSnapshot().isEnabled();
+    }
+
+    private void writePending() {
+        // Cleared first, so updates made while writing schedule another write
+        writePending.set(false);
+        writeQuietly();
+    }
+
+    private void writeQuietly() {
+        try {
+            write();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write user snapshot: {}", e.getMessage());
+        }
+    }
+
+    private int restore(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new IllegalStateException("file is shorter than the header");
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalStateException("not a user snapshot");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IllegalStateException("unsupported version " + version);
+        }
+        buffer.getShort();
+        long writtenAt = buffer.getLong();
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (length != buffer.remaining()) {
+            throw new IllegalStateException("expected " + length + " payload bytes, found " + buffer.remaining());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            throw new IllegalStateException("checksum mismatch");
+        }
+        if (clock.millis() - writtenAt > properties.getSnapshot().getMaxAge().toMillis()) {
+            log.info("User snapshot is older than {}, starting cold", properties.getSnapshot().getMaxAge());
+            return 0;
+        }
+
+        // Decode everything before touching the cache, so a bad entry cannot leave it half loaded
+        String seedPrefix = Constants.FIXED_SEED + ":";
+        int entryCount = buffer.getInt();
+        List<Runnable> restores = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            String key = readString(buffer);
+            int fetchedCount = buffer.getInt();
+            int userCount = checkedCount(buffer.getInt(), buffer);
+            int[] positions = new int[userCount];
+            for (int p = 0; p < userCount; p++) {
+                positions[p] = buffer.getInt();
+            }
+            List<UserWithPet> users = new ArrayList<>(userCount);
+            for (int u = 0; u < userCount; u++) {
+                users.add(readUser(buffer));
+            }
+            // Users fetched with a different seed are not what this build would fetch
+            if (key != null && key.startsWith(seedPrefix)) {
+                restores.add(() -> cache.restore(key, fetchedCount, users, positions));
+            }
+        }
+        restores.forEach(Runnable::run);
+        return restores.size();
+    }
+
+    static byte[] encode(Map<String, RandomUserCache.Entry> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(entries.size());
+        for (Map.Entry<String, RandomUserCache.Entry> item : entries.entrySet()) {
+            RandomUserCache.Entry entry = item.getValue();
+            writeString(out, item.getKey());
+            out.writeInt(entry.fetchedCount);
+            out.writeInt(entry.users.size());
+            for (int i = 0; i < entry.users.size(); i++) {
+                out.writeInt(entry.positions[i]);
+            }
+            for (UserWithPet user : entry.users) {
+                writeUser(out, user);
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeUser(DataOutputStream out, UserWithPet user) throws IOException {
+        writeString(out, user.getId());
+        writeString(out, user.getGender());
+        writeString(out, user.getCountry());
+        writeString(out, user.getName());
+        writeString(out, user.getEmail());
+        UserWithPet.Dob dob = user.getDob();
+        out.writeBoolean(dob != null);
+        if (dob != null) {
+            writeString(out, dob.getDate());
+            out.writeInt(dob.getAge());
+        }
+        writeString(out, user.getPhone());
+        writeString(out, user.getPetImage());
+    }
+
+    private static UserWithPet readUser(ByteBuffer buffer) {
+        UserWithPet.UserWithPetBuilder user = UserWithPet.builder()
+                .id(readString(buffer))
+                .gender(readString(buffer))
+                .country(readString(buffer))
+                .name(readString(buffer))
+                .email(readString(buffer));
+        if (buffer.get() != 0) {
+            user.dob(UserWithPet.Dob.builder().date(readString(buffer)).age(buffer.getInt()).build());
+        }
+        return user.phone(readString(buffer)).petImage(readString(buffer)).build();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == -1) {
+            return null;
+        }
+        byte[] bytes = new byte[checkedCount(length, buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Guards allocations against lengths that cannot fit in what is left of the file
+    private static int checkedCount(int count, ByteBuffer buffer) {
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IllegalStateException("invalid length " + count);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.userpet_api.cache;
+
+import com.example.userpet_api.config.ResponseCacheProperties;
+import com.example.userpet_api.query.UserQuery;
+import com.example.userpet_api.service.UserWithPetAggregatorService;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized {@code /api/users-with-pet} responses, keyed by (results, nat, filters and sort, fields).
+ *
+ * <p>Each entry holds the JSON bytes, optionally a gzip copy, and a strong ETag per encoding
+ * derived from the bytes. Hits are written as-is, without the aggregator or Jackson.
+ */
+@Component
+@Slf4j
+public class ResponseBytesCache {
+    private final ResponseCacheProperties properties;
+    private final Clock clock;
+    private final Map<String, Holder> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Autowired
+    public ResponseBytesCache(ResponseCacheProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    ResponseBytesCache(ResponseCacheProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Returns the cached response, or {@code null} when there is no fresh one.
+     */
+    public CachedResponse get(int results, String nationality, UserQuery query) {
+        return get(results, nationality, query, "");
+    }
+
+    /**
+     * Returns the cached response projected to {@code fields} (canonical form, empty for every
+     * field), or {@code null} when there is no fresh one.
+     */
+    public CachedResponse get(int results, String nationality, UserQuery query, String fields) {
+        Holder holder = entries.get(key(results, nationality, query, fields));
+        long now = clock.millis();
+        if (holder == null || now - holder.createdAt >= properties.getTtl().toMillis()) {
+            misses.incrementAndGet();
+            return null;
+        }
+        holder.lastAccess = now;
+        hits.incrementAndGet();
+        return holder.response;
+    }
+
+    /**
+     * Stores serialized JSON and returns it with its ETags and, if enabled, its gzip copy.
+     */
+    public CachedResponse put(int results, String nationality, UserQuery query, byte[] json) {
+        return put(results, nationality, query, "", json);
+    }
+
+    public CachedResponse put(int results, String nationality, UserQuery query, String fields, byte[] json) {
+        byte[] gzip = properties.isGzip() && json.length >= properties.getGzipMinSize() ? gzip(json) : null;
+        String hash = DigestUtils.md5DigestAsHex(json);
+        CachedResponse response = new CachedResponse(json, "\"" + hash + "\"",
+                gzip, gzip == null ? null : "\"" + hash + "-gzip\"");
+        entries.put(key(results, nationality, query, fields), new Holder(response, clock.millis()));
+        evictIfNeeded();
+        return response;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header allows gzip (a {@code q=0} weight refuses it).
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().toLowerCase(Locale.ROOT).split(";");
+            String coding = tokens[0].trim();
+            if (coding.equals("gzip") || coding.equals("*")) {
+                return !(tokens.length > 1 && tokens[1].replace(" ", "").matches("q=0(\\.0*)?"));
+            }
+        }
+        return false;
+    }
+
+    private void evictIfNeeded() {
+        while (entries.size() > properties.getMaxEntries()) {
+            entries.entrySet().stream()
+                .min(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                .ifPresent(eldest -> entries.remove(eldest.getKey(), eldest.getValue()));
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Counts the aggregator would clamp to the same value share one entry
+    private static String key(int results, String nationality, UserQuery query, String fields) {
+        int count = UserWithPetAggregatorService.clampCount(results);
+        String nat = nationality == null ? "" : nationality.trim().toUpperCase(Locale.ROOT);
+        return count + ":" + nat + ":" + query.cacheKey() + ":" + fields;
+    }
+
+    @Value
+    public static class CachedResponse {
+        byte[] json;
+        String etag;
+        // Null when gzip is disabled or the response is too small to benefit
+        byte[] gzip;
+        String gzipEtag;
+    }
+
+    private static final class Holder {
+        private final CachedResponse response;
+        private final long createdAt;
+        private volatile long lastAccess;
+
+        private Holder(CachedResponse response, long createdAt) {
+            this.response = response;
+            this.createdAt = createdAt;
+            this.lastAccess = createdAt;
+        }
+    }
+}
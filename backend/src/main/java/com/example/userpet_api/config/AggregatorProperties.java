@@ -0,0 +1,23 @@
+package com.example.userpet_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link com.example.userpet_api.service.UserWithPetAggregatorService}.
+ */
+@Data
+@ConfigurationProperties(prefix = "userpet.aggregator")
+public class AggregatorProperties {
+
+    // Single deadline covering both concurrent upstream fetches
+    private Duration timeout = Duration.ofSeconds(10);
+
+    // Share one upstream fetch between concurrent requests with the same count and nationality
+    private boolean coalesce = true;
+
+    // Most queries accepted by one POST /api/users-with-pet/batch request
+    private int maxBatchQueries = 20;
+}
@@ -0,0 +1,39 @@
+package com.example.userpet_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Concurrency limit around aggregation, see {@link com.example.userpet_api.resilience.AdaptiveBulkhead}.
+ */
+@Data
+@ConfigurationProperties(prefix = "userpet.bulkhead")
+public class BulkheadProperties {
+
+    // When disabled every request goes straight to the aggregator
+    private boolean enabled = true;
+
+    // Concurrent aggregations allowed before the limit has adapted
+    private int initialLimit = 20;
+
+    // Bounds the adaptive limit moves between
+    private int minLimit = 4;
+    private int maxLimit = 100;
+
+    // Requests that may wait for a slot; anyone beyond gets 429 straight away
+    private int queueSize = 20;
+
+    // Longest a queued request waits for a slot before getting 503
+    private Duration maxWait = Duration.ofMillis(500);
+
+    // Aggregations slower than this, or failing, shrink the limit
+    private Duration latencyThreshold = Duration.ofSeconds(2);
+
+    // Factor the limit is multiplied by on a slow or failed aggregation
+    private double backoffRatio = 0.9;
+
+    // Retry-After sent with rejections
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
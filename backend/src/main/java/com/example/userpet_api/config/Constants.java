@@ -12,11 +12,22 @@ public final class Constants {
     // Default nationality filter (null means no filter, all nationalities)
     public static final String DEFAULT_NATIONALITY = null; // No filter by default
 
-    public static final String API_URL_RANDOM_USER = "https://randomuser.me/api/?results=%d&seed=%s";
-    public static final String API_URL_RANDOM_USER_WITH_NAT = "https://randomuser.me/api/?results=%d&seed=%s&nat=%s";
-    public static final String API_URL_DOG_IMAGE = "https://dog.ceo/api/breeds/image/random/%d";
+    // Defaults for userpet.random-user.base-url and userpet.dog-images.fetch.base-url
+    public static final String DEFAULT_RANDOM_USER_BASE_URL = "https://randomuser.me";
+    public static final String DEFAULT_DOG_CEO_BASE_URL = "https://dog.ceo";
+    // Host of the image URLs Dog CEO returns; default for userpet.image-proxy.upstream-base-url
+    public static final String DEFAULT_DOG_IMAGE_BASE_URL = "https://images.dog.ceo";
+
+    // Appended to the configured base URLs
+    public static final String API_PATH_RANDOM_USER = "/api/?results=%d&seed=%s";
+    public static final String API_PATH_RANDOM_USER_WITH_NAT = "/api/?results=%d&seed=%s&nat=%s";
+    public static final String API_PATH_DOG_IMAGE = "/api/breeds/image/random/%d";
     
     public static final String ENDPOINT_USERS_WITH_PET = "/api/users-with-pet";
+    // Proxied images are served below this path, followed by the upstream image path
+    public static final String ENDPOINT_IMAGES = "/api/images";
+    // Thumbnails are served below this path, followed by the size and the upstream image path
+    public static final String ENDPOINT_THUMBNAILS = "/api/thumbnails";
     
     private Constants() {
         throw new UnsupportedOperationException("Constants class cannot be instantiated");
@@ -0,0 +1,30 @@
+package com.example.userpet_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for {@link com.example.userpet_api.service.DogImageCatalog}.
+ */
+@Data
+@ConfigurationProperties(prefix = "userpet.dog-images.catalog")
+public class DogImageCatalogProperties {
+
+    // When enabled each user's image is picked from the catalog by a hash of the user's email
+    private boolean enabled = false;
+
+    // Number of distinct image URLs kept in the catalog
+    private int size = 500;
+
+    // How often the catalog is replaced with freshly fetched images; every user's image changes then
+    private Duration refreshInterval = Duration.ofHours(6);
+
+    // While refreshes fail the current images are kept, until they are this much older than refresh-interval
+    private Duration maxStaleness = Duration.ofHours(24);
+
+    // Optional file the catalog is saved to and loaded from, so restarts keep the same images
+    private Path path;
+}
@@ -0,0 +1,22 @@
+package com.example.userpet_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for direct Dog CEO calls made by
+ * {@link com.example.userpet_api.service.DogImageServiceImpl}.
+ */
+@Data
+@ConfigurationProperties(prefix = "userpet.dog-images.fetch")
+public class DogImageFetchProperties {
+
+    // Scheme, host and port of the Dog CEO API; point it at a local simulator for load tests
+    private String baseUrl = Constants.DEFAULT_DOG_CEO_BASE_URL;
+
+    // Images per upstream call; dog.ceo returns at most 50
+    private int chunkSize = 50;
+
+    // Upstream calls one request may have in flight when it needs more than one chunk
+    private int maxConcurrency = 4;
+}
@@ -0,0 +1,32 @@
+package com.example.userpet_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link com.example.userpet_api.service.DogImagePool}.
+ */
+@Data
+@ConfigurationProperties(prefix = "userpet.dog-images.pool")
+public class DogImagePoolProperties {
+
+    // When disabled every request calls dog.ceo directly
+    private boolean enabled = false;
+
+    // Maximum number of image URLs held in the buffer
+    private int capacity = 500;
+
+    // Refill starts once the buffer holds fewer URLs than this
+    private int lowWaterMark = 200;
+
+    // Images requested per upstream call (dog.ceo returns at most 50)
+    private int batchSize = 50;
+
+    // Upstream calls that may run in parallel during one refill
+    private int refillConcurrency = 2;
+
+    // How often the background scheduler checks the buffer depth
+    private Duration refillInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,35 @@
+package com.example.userpet_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for {@link com.example.userpet_api.service.ImageProxyService} and its on-disk cache,
+ * {@link com.example.userpet_api.cache.ImageDiskCache}.
+ */
+@Data
+@ConfigurationProperties(prefix = "userpet.image-proxy")
+public class ImageProxyProperties {
+
+    // Rewrite petImage to /api/images/... and serve the images from the local cache
+    private boolean enabled = false;
+
+    // Only images under this URL are rewritten and fetched; anything else is returned unchanged
+    private String upstreamBaseUrl = Constants.DEFAULT_DOG_IMAGE_BASE_URL;
+
+    // Directory holding cached images, laid out like the upstream paths
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "userpet", "images");
+
+    // Total size of cached images; least recently served images are deleted first
+    private DataSize maxCacheSize = DataSize.ofMegabytes(512);
+
+    // Larger upstream images are not cached and answered with 502
+    private DataSize maxImageSize = DataSize.ofMegabytes(10);
+
+    // Cache-Control max-age sent with images; upstream image URLs never change content
+    private Duration maxAge = Duration.ofDays(365);
+}
@@ -0,0 +1,34 @@
+package com.example.userpet_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for {@link com.example.userpet_api.service.RandomUserServiceImpl}.
+ */
+@Data
+@ConfigurationProperties(prefix = "userpet.random-user")
+public class RandomUserProperties {
+
+    // Scheme, host and port of the RandomUser API; point it at a local simulator for load tests
+    private String baseUrl = Constants.DEFAULT_RANDOM_USER_BASE_URL;
+
+    public enum Parser {
+        // Reads the response stream token by token, without an intermediate String or tree
+        STREAMING,
+        // Reads the body into a String and walks a JsonNode tree
+        TREE
+    }
+
+    private Parser parser = Parser.STREAMING;
+
+    public enum MultiNationality {
+        // One upstream call per nationality, run concurrently, cached per nationality and interleaved
+        PARALLEL,
+        // A single upstream call with the nationality list; weights are ignored
+        COMBINED
+    }
+
+    // How a nat parameter listing several nationalities (e.g. FI,US,GB) is fetched
+    private MultiNationality multiNationality = MultiNationality.PARALLEL;
+}
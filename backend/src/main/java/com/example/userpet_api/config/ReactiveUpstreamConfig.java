@@ -0,0 +1,41 @@
+package com.example.userpet_api.config;
+
+import com.example.userpet_api.metrics.UserPetMetrics;
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Non-blocking HTTP client for the reactive services, with the same connection limits and
+ * timeouts as {@link UpstreamHttpClientConfig}. Only created with the reactive profile.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUpstreamConfig {
+
+    @Bean
+    public WebClient upstreamWebClient(UpstreamHttpProperties properties, UserPetMetrics metrics) {
+        return createWebClient(properties, metrics);
+    }
+
+    public static WebClient createWebClient(UpstreamHttpProperties properties, UserPetMetrics metrics) {
+        // Reactor Netty keeps one pool per host, so the limit applies per host as with Apache HttpClient
+        ConnectionProvider connections = ConnectionProvider.builder("upstream")
+            .maxConnections(properties.getMaxConnectionsPerHost())
+            .pendingAcquireTimeout(properties.getTotalTimeout())
+            .maxIdleTime(properties.getKeepAlive())
+            .build();
+        HttpClient httpClient = HttpClient.create(connections)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+            .responseTimeout(properties.getReadTimeout());
+        return WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .filter(new UpstreamMetricsFilter(metrics))
+            .build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.userpet_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker and hedging settings applied to each upstream API.
+ */
+@Data
+@ConfigurationProperties(prefix = "userpet.upstream.resilience")
+public class ResilienceProperties {
+
+    private Breaker breaker = new Breaker();
+    private Hedge hedge = new Hedge();
+
+    @Data
+    public static class Breaker {
+
+        // When disabled every call goes upstream regardless of recent failures
+        private boolean enabled = true;
+
+        // Percentage of failed calls in the window that opens the breaker
+        private int failureRateThreshold = 50;
+
+        // Percentage of slow calls in the window that opens the breaker
+        private int slowCallRateThreshold = 80;
+
+        // Calls taking longer than this count as slow
+        private Duration slowCallDuration = Duration.ofSeconds(3);
+
+        // Number of most recent calls the rates are computed over
+        private int windowSize = 20;
+
+        // Calls needed in the window before the breaker may open
+        private int minimumCalls = 10;
+
+        // How long the breaker stays open before letting probe calls through
+        private Duration openDuration = Duration.ofSeconds(15);
+
+        // Probe calls allowed while half-open; all must succeed to close again
+        private int halfOpenCalls = 3;
+    }
+
+    @Data
+    public static class Hedge {
+
+        // Send a second request when the first has not answered by the hedge delay
+        private boolean enabled = true;
+
+        // Latency percentile of recent calls used as the hedge delay
+        private double percentile = 95;
+
+        // Lower bound for the hedge delay
+        private Duration minDelay = Duration.ofMillis(100);
+
+        // Hedge delay used until enough latencies have been recorded
+        private Duration initialDelay = Duration.ofSeconds(2);
+
+        // Latencies needed before the percentile is trusted
+        private int minSamples = 20;
+
+        // Maximum share of calls that may send a hedge, to bound extra upstream load
+        private double maxRatio = 0.1;
+    }
+}
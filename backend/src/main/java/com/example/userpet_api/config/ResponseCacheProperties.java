@@ -0,0 +1,29 @@
+package com.example.userpet_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link com.example.userpet_api.cache.ResponseBytesCache}.
+ */
+@Data
+@ConfigurationProperties(prefix = "userpet.response-cache")
+public class ResponseCacheProperties {
+
+    // Off by default: cached responses repeat the same dog images until they expire
+    private boolean enabled = false;
+
+    // How long serialized responses are served before the aggregator is called again
+    private Duration ttl = Duration.ofMinutes(1);
+
+    // Maximum number of (results, nat) responses held; least recently used are evicted first
+    private int maxEntries = 64;
+
+    // Also keep a gzip-compressed copy for clients that accept it
+    private boolean gzip = true;
+
+    // Responses smaller than this are not worth compressing
+    private int gzipMinSize = 1024;
+}
@@ -0,0 +1,15 @@
+package com.example.userpet_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the streaming variant of {@code /api/users-with-pet}.
+ */
+@Data
+@ConfigurationProperties(prefix = "userpet.stream")
+public class StreamProperties {
+
+    // Users written between flushes of the response
+    private int chunkSize = 25;
+}
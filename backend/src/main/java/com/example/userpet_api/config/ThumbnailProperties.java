@@ -0,0 +1,41 @@
+package com.example.userpet_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings for {@link com.example.userpet_api.service.ThumbnailService}.
+ */
+@Data
+@ConfigurationProperties(prefix = "userpet.thumbnails")
+public class ThumbnailProperties {
+
+    // Add petThumbnail to users and generate thumbnails; needs userpet.image-proxy.enabled for the originals
+    private boolean enabled = false;
+
+    // Longest edge of each thumbnail in pixels; petThumbnail links to the first size
+    private List<Integer> sizes = List.of(400, 128);
+
+    // Directory holding generated thumbnails, laid out as <size>/<upstream path>
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "userpet", "thumbnails");
+
+    // Total size of stored thumbnails; least recently served thumbnails are deleted first
+    private DataSize maxCacheSize = DataSize.ofMegabytes(128);
+
+    // JPEG quality between 0 and 1; PNG thumbnails are lossless
+    private float jpegQuality = 0.8f;
+
+    // Threads resizing images
+    private int workers = 2;
+
+    // Images waiting for a worker; further images are skipped until the queue drains
+    private int queueCapacity = 256;
+
+    // How long a thumbnail request waits for generation before redirecting to the full image
+    private Duration waitTimeout = Duration.ofSeconds(2);
+}
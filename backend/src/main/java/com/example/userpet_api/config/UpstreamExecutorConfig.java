@@ -0,0 +1,105 @@
+package com.example.userpet_api.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for upstream work. {@code upstreamExecutor} runs the top-level RandomUser and Dog CEO
+ * calls of a request. {@code upstreamNestedExecutor} runs the work those calls fan out into and
+ * wait for: hedged attempts, Dog CEO chunks and nationality partitions. Nested work gets its own
+ * executor because its callers block on it; sharing one bounded pool could deadlock.
+ */
+@Configuration
+@Slf4j
+public class UpstreamExecutorConfig {
+
+    public static final String NESTED_EXECUTOR = "upstreamNestedExecutor";
+
+    @Bean(destroyMethod = "shutdownNow")
+    @Primary
+    public ExecutorService upstreamExecutor(UpstreamExecutorProperties properties) {
+        return create(properties);
+    }
+
+    @Bean(name = NESTED_EXECUTOR, destroyMethod = "shutdownNow")
+    public ExecutorService upstreamNestedExecutor(UpstreamExecutorProperties properties) {
+        return createNested(properties);
+    }
+
+    public static ExecutorService create(UpstreamExecutorProperties properties) {
+        return create("upstream", properties.getStrategy(), properties.getPoolSize());
+    }
+
+    /**
+     * Executor for nested upstream work. A FIXED strategy is replaced by CACHED: nested tasks wait
+     * on other nested tasks (a partition on its hedged attempts), so a full fixed pool could deadlock.
+     */
+    public static ExecutorService createNested(UpstreamExecutorProperties properties) {
+        UpstreamExecutorProperties.Strategy strategy = properties.getNestedStrategy();
+        if (strategy == UpstreamExecutorProperties.Strategy.FIXED) {
+            log.warn("userpet.upstream.executor.nested-strategy=FIXED could deadlock, using CACHED instead");
+            strategy = UpstreamExecutorProperties.Strategy.CACHED;
+        }
+        return create("upstream-nested", strategy, 0);
+    }
+
+    /**
+     * Nested-work executor for code constructed outside Spring, shared by every such instance and
+     * never shut down; its idle threads are daemons and expire.
+     */
+    public static ExecutorService standaloneNestedExecutor() {
+        return StandaloneNested.EXECUTOR;
+    }
+
+    private static ExecutorService create(String name, UpstreamExecutorProperties.Strategy strategy, int poolSize) {
+        switch (strategy) {
+            case VIRTUAL:
+                ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+                if (virtual != null) {
+                    log.info("{} executor runs on virtual threads", name);
+                    return virtual;
+                }
+                log.warn("Virtual threads are not available on Java {}. The {} executor falls back to a cached thread pool.",
+                        Runtime.version().feature(), name);
+                return Executors.newCachedThreadPool(daemonThreadFactory(name));
+            case FIXED:
+                return Executors.newFixedThreadPool(poolSize, daemonThreadFactory(name));
+            case CACHED:
+            default:
+                return Executors.newCachedThreadPool(daemonThreadFactory(name));
+        }
+    }
+
+    // Looked up reflectively so the project still builds and runs on Java 17
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Created on first use only
+    private static final class StandaloneNested {
+        private static final ExecutorService EXECUTOR =
+                Executors.newCachedThreadPool(daemonThreadFactory("upstream-nested-standalone"));
+    }
+}
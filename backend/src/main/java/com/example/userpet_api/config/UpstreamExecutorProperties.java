@@ -0,0 +1,30 @@
+package com.example.userpet_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the executors that run the upstream (RandomUser / Dog CEO) calls.
+ */
+@Data
+@ConfigurationProperties(prefix = "userpet.upstream.executor")
+public class UpstreamExecutorProperties {
+
+    public enum Strategy {
+        // One virtual thread per task (falls back to CACHED when the JVM has no virtual threads)
+        VIRTUAL,
+        // Unbounded pool of reusable platform threads
+        CACHED,
+        // Fixed pool of platform threads, sized by poolSize
+        FIXED
+    }
+
+    private Strategy strategy = Strategy.VIRTUAL;
+
+    // Only used by the FIXED strategy
+    private int poolSize = 16;
+
+    // Executor for work nested in upstream calls (hedged attempts, image chunks, nationality
+    // partitions); VIRTUAL or CACHED, since a FIXED pool could deadlock
+    private Strategy nestedStrategy = Strategy.VIRTUAL;
+}
@@ -0,0 +1,46 @@
+package com.example.userpet_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the HTTP client shared by the RandomUser and Dog CEO services.
+ */
+@Data
+@ConfigurationProperties(prefix = "userpet.upstream.http")
+public class UpstreamHttpProperties {
+
+    public enum Client {
+        // Apache HttpClient 5: pooled HTTP/1.1 keep-alive connections, no HTTP/2
+        APACHE,
+        // JDK HttpClient: negotiates HTTP/2 with servers that support it
+        JDK
+    }
+
+    private Client client = Client.APACHE;
+
+    // Time allowed to open a TCP (and TLS) connection
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    // Time allowed for the response, including its body, once the request is sent
+    private Duration readTimeout = Duration.ofSeconds(5);
+
+    // Upper bound for the whole call, including the wait for a free per-host slot. With the JDK
+    // client a body read already waiting can run on for up to one read timeout after it
+    private Duration totalTimeout = Duration.ofSeconds(8);
+
+    // JDK client only: negotiate HTTP/2 where the server supports it (falls back to HTTP/1.1)
+    private boolean http2 = true;
+
+    // Concurrent requests (and therefore HTTP/1.1 connections) allowed per host
+    private int maxConnectionsPerHost = 20;
+
+    // Apache client only: connections kept across all hosts (the per-host limit times two upstreams)
+    private int maxConnectionsTotal = 40;
+
+    // How long idle connections are kept open for reuse; the JDK client uses the JVM-wide
+    // jdk.httpclient.keepalive.timeout system property instead
+    private Duration keepAlive = Duration.ofSeconds(60);
+}
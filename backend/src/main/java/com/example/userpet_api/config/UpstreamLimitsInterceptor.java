@@ -0,0 +1,195 @@
+package com.example.userpet_api.config;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps concurrent requests per upstream host and enforces the total call deadline.
+ *
+ * <p>A per-host slot is held until the response is closed, so with HTTP/1.1 the cap is also the
+ * number of connections the client opens to that host.
+ *
+ * <p>Reads of the body fail once the deadline has passed. With the Apache client the connection is
+ * also aborted at the deadline, which ends a read that is blocked on a trickling body; otherwise
+ * closing the response would read the rest of it. The JDK client has no such hook, so there a
+ * blocked read can finish up to one read timeout after the deadline.
+ */
+class UpstreamLimitsInterceptor implements ClientHttpRequestInterceptor {
+    // Aborting only closes a socket, so one thread serves every client
+    private static final ScheduledThreadPoolExecutor ABORTS = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "upstream-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // The Apache request created on this thread, published by the request factory
+    private static final ThreadLocal<Cancellable> CREATED_REQUEST = new ThreadLocal<>();
+
+    static {
+        ABORTS.setRemoveOnCancelPolicy(true);
+    }
+
+    private final UpstreamHttpProperties properties;
+    private final Map<String, Semaphore> slotsByHost = new ConcurrentHashMap<>();
+
+    UpstreamLimitsInterceptor(UpstreamHttpProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        long deadline = System.nanoTime() + properties.getTotalTimeout().toNanos();
+        Semaphore slots = slotsByHost.computeIfAbsent(request.getURI().getAuthority(),
+                host -> new Semaphore(properties.getMaxConnectionsPerHost(), true));
+        try {
+            if (!slots.tryAcquire(properties.getTotalTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new ResourceAccessException("No free connection to " + request.getURI().getHost()
+                        + " within " + properties.getTotalTimeout());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted waiting for a connection to " + request.getURI().getHost());
+        }
+        CREATED_REQUEST.remove();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            return new DeadlineResponse(response, slots, deadline, CREATED_REQUEST.get());
+        } catch (IOException | RuntimeException e) {
+            slots.release();
+            throw e;
+        } finally {
+            CREATED_REQUEST.remove();
+        }
+    }
+
+    /**
+     * Called by the request factory with each Apache request it creates, so the call can be
+     * aborted at its deadline.
+     */
+    static void requestCreated(Cancellable request) {
+        CREATED_REQUEST.set(request);
+    }
+
+    int availableSlots(String authority) {
+        Semaphore slots = slotsByHost.get(authority);
+        return slots == null ? properties.getMaxConnectionsPerHost() : slots.availablePermits();
+    }
+
+    private static final class DeadlineResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final Semaphore slots;
+        private final long deadline;
+        private final Cancellable abort;
+        private final ScheduledFuture<?> scheduledAbort;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private InputStream body;
+
+        private DeadlineResponse(ClientHttpResponse delegate, Semaphore slots, long deadline, Cancellable abort) {
+            this.delegate = delegate;
+            this.slots = slots;
+            this.deadline = deadline;
+            this.abort = abort;
+            this.scheduledAbort = abort == null
+                ? null
+                : ABORTS.schedule(abort::cancel, deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new DeadlineInputStream(delegate.getBody(), deadline);
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                if (scheduledAbort != null) {
+                    scheduledAbort.cancel(false);
+                    // Past the deadline, drop the connection rather than read the rest of the body
+                    if (System.nanoTime() - deadline > 0) {
+                        abort.cancel();
+                    }
+                }
+                try {
+                    delegate.close();
+                } finally {
+                    slots.release();
+                }
+            }
+        }
+    }
+
+    private static final class DeadlineInputStream extends FilterInputStream {
+        private final long deadline;
+
+        private DeadlineInputStream(InputStream in, long deadline) {
+            super(in);
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkDeadline();
+            try {
+                return super.read();
+            } catch (IOException e) {
+                throw afterDeadline(e);
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkDeadline();
+            try {
+                return super.read(b, off, len);
+            } catch (IOException e) {
+                throw afterDeadline(e);
+            }
+        }
+
+        private void checkDeadline() throws IOException {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IOException("Total upstream timeout exceeded");
+            }
+        }
+
+        // A read failing past the deadline was most likely ended by the abort
+        private IOException afterDeadline(IOException e) {
+            return System.nanoTime() - deadline > 0 ? new IOException("Total upstream timeout exceeded", e) : e;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.userpet_api.config;
+
+import com.example.userpet_api.metrics.UserPetMetrics;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link UpstreamMetricsInterceptor} for {@code WebClient}: records each upstream call once its
+ * body has been read, so the time includes the download.
+ */
+class UpstreamMetricsFilter implements ExchangeFilterFunction {
+    private final UserPetMetrics metrics;
+
+    UpstreamMetricsFilter(UserPetMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        URI uri = request.url();
+        String host = uri.getHost();
+        String nationality = UpstreamMetricsInterceptor.queryParameter(uri.getRawQuery(), "nat");
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return next.exchange(request)
+                .doOnError(e -> metrics.recordUpstream(host, UserPetMetrics.Outcome.IO_ERROR, nationality,
+                    System.nanoTime() - start, -1))
+                .map(response -> {
+                    AtomicLong bytes = new AtomicLong();
+                    AtomicBoolean recorded = new AtomicBoolean();
+                    UserPetMetrics.Outcome outcome = outcome(response.statusCode());
+                    return response.mutate()
+                        .body(body -> body
+                            .doOnNext(buffer -> bytes.addAndGet(buffer.readableByteCount()))
+                            .doOnError(e -> record(recorded, host, UserPetMetrics.Outcome.IO_ERROR, nationality,
+                                start, bytes.get()))
+                            .doFinally(signal -> record(recorded, host, outcome, nationality, start, bytes.get())))
+                        .build();
+                });
+        });
+    }
+
+    private void record(AtomicBoolean recorded, String host, UserPetMetrics.Outcome outcome, String nationality,
+                        long start, long bytes) {
+        if (recorded.compareAndSet(false, true)) {
+            metrics.recordUpstream(host, outcome, nationality, System.nanoTime() - start, bytes);
+        }
+    }
+
+    private static UserPetMetrics.Outcome outcome(HttpStatusCode status) {
+        if (status.is5xxServerError()) {
+            return UserPetMetrics.Outcome.SERVER_ERROR;
+        }
+        return status.is4xxClientError() ? UserPetMetrics.Outcome.CLIENT_ERROR : UserPetMetrics.Outcome.SUCCESS;
+    }
+}
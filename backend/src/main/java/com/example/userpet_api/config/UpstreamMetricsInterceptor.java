@@ -0,0 +1,165 @@
+package com.example.userpet_api.config;
+
+import com.example.userpet_api.metrics.UserPetMetrics;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+/**
+ * Times each upstream call and counts its response bytes. The call is recorded when the
+ * response is closed, so the time includes reading (and, for streaming parsing, parsing) the body.
+ */
+class UpstreamMetricsInterceptor implements ClientHttpRequestInterceptor {
+    private final UserPetMetrics metrics;
+
+    UpstreamMetricsInterceptor(UserPetMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        URI uri = request.getURI();
+        String host = uri.getHost();
+        String nationality = queryParameter(uri.getRawQuery(), "nat");
+        long start = System.nanoTime();
+        try {
+            return new MeteredResponse(execution.execute(request, body), host, nationality, start);
+        } catch (IOException | RuntimeException e) {
+            metrics.recordUpstream(host, UserPetMetrics.Outcome.IO_ERROR, nationality, System.nanoTime() - start, -1);
+            throw e;
+        }
+    }
+
+    // Avoids a full query parse per request; only the one parameter is needed
+    static String queryParameter(String query, String name) {
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name) && pair.length() > name.length() && pair.charAt(name.length()) == '=') {
+                return pair.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    private final class MeteredResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final String host;
+        private final String nationality;
+        private final long start;
+        private CountingInputStream body;
+        private boolean failed;
+        private boolean recorded;
+
+        private MeteredResponse(ClientHttpResponse delegate, String host, String nationality, long start) {
+            this.delegate = delegate;
+            this.host = host;
+            this.nationality = nationality;
+            this.start = start;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new CountingInputStream(delegate.getBody(), this);
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                record();
+            }
+        }
+
+        private void record() {
+            if (recorded) {
+                return;
+            }
+            recorded = true;
+            metrics.recordUpstream(host, outcome(), nationality, System.nanoTime() - start,
+                    body == null ? 0 : body.count);
+        }
+
+        private UserPetMetrics.Outcome outcome() {
+            if (failed) {
+                return UserPetMetrics.Outcome.IO_ERROR;
+            }
+            try {
+                HttpStatusCode status = delegate.getStatusCode();
+                if (status.is5xxServerError()) {
+                    return UserPetMetrics.Outcome.SERVER_ERROR;
+                }
+                return status.is4xxClientError() ? UserPetMetrics.Outcome.CLIENT_ERROR : UserPetMetrics.Outcome.SUCCESS;
+            } catch (IOException e) {
+                return UserPetMetrics.Outcome.IO_ERROR;
+            }
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private final MeteredResponse response;
+        private long count;
+
+        private CountingInputStream(InputStream in, MeteredResponse response) {
+            super(in);
+            this.response = response;
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                int b = super.read();
+                if (b >= 0) {
+                    count++;
+                }
+                return b;
+            } catch (IOException e) {
+                response.failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            try {
+                int n = super.read(b, off, len);
+                if (n > 0) {
+                    count += n;
+                }
+                return n;
+            } catch (IOException e) {
+                response.failed = true;
+                throw e;
+            }
+        }
+    }
+}
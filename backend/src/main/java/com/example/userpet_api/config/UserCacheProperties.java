@@ -0,0 +1,50 @@
+package com.example.userpet_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for {@link com.example.userpet_api.cache.RandomUserCache}.
+ */
+@Data
+@ConfigurationProperties(prefix = "userpet.cache.users")
+public class UserCacheProperties {
+
+    private boolean enabled = true;
+
+    // How long a fetched user set is served before it is fetched again
+    private Duration ttl = Duration.ofMinutes(10);
+
+    // Expired entries are still served for this long past the TTL while one background refresh replaces them; 0 turns this off
+    private Duration maxStaleness = Duration.ofMinutes(10);
+
+    // Entries read since their last fetch are refreshed this long before they expire; 0 turns this off
+    private Duration refreshAhead = Duration.ofMinutes(1);
+
+    // Maximum number of (seed, nationality) entries; least recently used entries are evicted first
+    private int maxEntries = 32;
+
+    private Snapshot snapshot = new Snapshot();
+
+    /**
+     * Settings for {@link com.example.userpet_api.cache.RandomUserSnapshot}.
+     */
+    @Data
+    public static class Snapshot {
+
+        // Persist cached user sets to disk and load them on startup
+        private boolean enabled = false;
+
+        // Snapshot file; written to a temporary file next to it and moved into place
+        private Path path = Path.of(System.getProperty("java.io.tmpdir"), "userpet", "users.snapshot");
+
+        // Time after a cache update before the snapshot is rewritten, so bursts cause one write
+        private Duration writeDelay = Duration.ofSeconds(5);
+
+        // Snapshots older than this are ignored on startup
+        private Duration maxAge = Duration.ofDays(7);
+    }
+}
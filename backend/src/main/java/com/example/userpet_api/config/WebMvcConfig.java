@@ -0,0 +1,22 @@
+package com.example.userpet_api.config;
+
+import com.example.userpet_api.controller.ResponseSerializationTiming;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WebMvcConfig implements WebMvcConfigurer {
+    private final ResponseSerializationTiming serializationTiming;
+
+    public WebMvcConfig(ResponseSerializationTiming serializationTiming) {
+        this.serializationTiming = serializationTiming;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(serializationTiming).addPathPatterns("/api/**");
+    }
+}
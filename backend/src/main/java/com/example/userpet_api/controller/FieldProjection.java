@@ -0,0 +1,210 @@
+package com.example.userpet_api.controller;
+
+import com.example.userpet_api.model.UserWithPet;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.SerializableString;
+import tools.jackson.core.io.SerializedString;
+import tools.jackson.databind.JacksonSerializable;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.jsontype.TypeSerializer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A {@code fields} selection of {@link UserWithPet} properties, such as {@code name,petImage} or
+ * {@code name,dob.age}, compiled into a fixed list of property writers that emit only those
+ * properties with a {@link JsonGenerator}.
+ *
+ * <p>Compiled projections are kept per canonical selection, so a request only splits the parameter
+ * and looks its projection up; no bean introspection or per-property filtering runs while users are
+ * written. Properties keep the order of the full response whatever order they were requested in,
+ * and are written as the full response writes them ({@code dob} null when missing, {@code petThumbnail}
+ * left out when null).
+ */
+final class FieldProjection {
+    // At most one entry per subset of Field, so the map cannot grow without bound
+    private static final Map<EnumSet<Field>, FieldProjection> COMPILED = new ConcurrentHashMap<>();
+    private static final SerializableString DOB = new SerializedString("dob");
+
+    private enum Field {
+        ID("id"), GENDER("gender"), COUNTRY("country"), NAME("name"), EMAIL("email"),
+        DOB_DATE("dob.date"), DOB_AGE("dob.age"), PHONE("phone"), PET_IMAGE("petImage"),
+        PET_THUMBNAIL("petThumbnail");
+
+        private final String parameter;
+
+        Field(String parameter) {
+            this.parameter = parameter;
+        }
+    }
+
+    @FunctionalInterface
+    private interface PropertyWriter {
+        void write(JsonGenerator generator, UserWithPet user);
+    }
+
+    private final String key;
+    private final PropertyWriter[] writers;
+
+    private FieldProjection(EnumSet<Field> fields) {
+        this.key = fields.stream().map(field -> field.parameter).collect(Collectors.joining(","));
+        this.writers = compile(fields);
+    }
+
+    /**
+     * Parses a {@code fields} parameter: a comma-separated list of {@code id}, {@code gender},
+     * {@code country}, {@code name}, {@code email}, {@code dob} (or only {@code dob.date} or
+     * {@code dob.age}), {@code phone}, {@code petImage} and {@code petThumbnail}.
+     *
+     * @return the compiled projection, or {@code null} when the parameter is absent or selects every
+     * field, so the full response is written as usual
+     * @throws IllegalArgumentException for an unknown field name
+     */
+    static FieldProjection parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        EnumSet<Field> fields = EnumSet.noneOf(Field.class);
+        for (String name : value.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (trimmed.equals("dob")) {
+                fields.add(Field.DOB_DATE);
+                fields.add(Field.DOB_AGE);
+            } else {
+                fields.add(field(trimmed));
+            }
+        }
+        if (fields.isEmpty() || fields.size() == Field.values().length) {
+            return null;
+        }
+        return COMPILED.computeIfAbsent(fields, FieldProjection::new);
+    }
+
+    /**
+     * The selected fields in canonical order, for cache keys.
+     */
+    String key() {
+        return key;
+    }
+
+    /**
+     * Writes {@code users} as a JSON array of projected users. Goes through
+     * {@link ObjectMapper#writeValueAsBytes}, so the mapper's generator settings and recycled
+     * buffers apply as they do to the full response.
+     */
+    byte[] writeValueAsBytes(ObjectMapper objectMapper, List<UserWithPet> users) {
+        return objectMapper.writeValueAsBytes(new ProjectedUsers(users));
+    }
+
+    private static Field field(String name) {
+        for (Field field : Field.values()) {
+            if (field.parameter.equals(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field '" + name + "', use "
+                + Arrays.stream(Field.values()).map(field -> field.parameter).collect(Collectors.joining(", "))
+                + " or dob");
+    }
+
+    private static PropertyWriter[] compile(EnumSet<Field> fields) {
+        List<PropertyWriter> writers = new ArrayList<>(fields.size());
+        for (Field field : fields) {
+            switch (field) {
+                case ID -> writers.add(string("id", UserWithPet::getId));
+                case GENDER -> writers.add(string("gender", UserWithPet::getGender));
+                case COUNTRY -> writers.add(string("country", UserWithPet::getCountry));
+                case NAME -> writers.add(string("name", UserWithPet::getName));
+                case EMAIL -> writers.add(string("email", UserWithPet::getEmail));
+                // One dob object for both parts; EnumSet iterates DOB_DATE before DOB_AGE
+                case DOB_DATE -> writers.add(dob(true, fields.contains(Field.DOB_AGE)));
+                case DOB_AGE -> {
+                    if (!fields.contains(Field.DOB_DATE)) {
+                        writers.add(dob(false, true));
+                    }
+                }
+                case PHONE -> writers.add(string("phone", UserWithPet::getPhone));
+                case PET_IMAGE -> writers.add(string("petImage", UserWithPet::getPetImage));
+                case PET_THUMBNAIL -> {
+                    SerializableString name = new SerializedString("petThumbnail");
+                    writers.add((generator, user) -> {
+                        if (user.getPetThumbnail() != null) {
+                            generator.writeName(name);
+                            generator.writeString(user.getPetThumbnail());
+                        }
+                    });
+                }
+            }
+        }
+        return writers.toArray(new PropertyWriter[0]);
+    }
+
+    private static PropertyWriter string(String property, Function<UserWithPet, String> getter) {
+        SerializableString name = new SerializedString(property);
+        return (generator, user) -> {
+            generator.writeName(name);
+            generator.writeString(getter.apply(user));
+        };
+    }
+
+    private final class ProjectedUsers extends JacksonSerializable.Base {
+        private final List<UserWithPet> users;
+
+        private ProjectedUsers(List<UserWithPet> users) {
+            this.users = users;
+        }
+
+        @Override
+        public void serialize(JsonGenerator generator, SerializationContext context) {
+            generator.writeStartArray();
+            for (UserWithPet user : users) {
+                generator.writeStartObject();
+                for (PropertyWriter writer : writers) {
+                    writer.write(generator, user);
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+
+        // The response list is never written with polymorphic type information
+        @Override
+        public void serializeWithType(JsonGenerator generator, SerializationContext context, TypeSerializer typeSerializer) {
+            serialize(generator, context);
+        }
+    }
+
+    private static PropertyWriter dob(boolean date, boolean age) {
+        SerializableString dateName = new SerializedString("date");
+        SerializableString ageName = new SerializedString("age");
+        return (generator, user) -> {
+            UserWithPet.Dob dob = user.getDob();
+            generator.writeName(DOB);
+            if (dob == null) {
+                generator.writeNull();
+                return;
+            }
+            generator.writeStartObject();
+            if (date) {
+                generator.writeName(dateName);
+                generator.writeString(dob.getDate());
+            }
+            if (age) {
+                generator.writeName(ageName);
+                generator.writeNumber(dob.getAge());
+            }
+            generator.writeEndObject();
+        };
+    }
+}
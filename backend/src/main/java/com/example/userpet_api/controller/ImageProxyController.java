@@ -0,0 +1,148 @@
+package com.example.userpet_api.controller;
+
+import com.example.userpet_api.cache.ImageDiskCache;
+import com.example.userpet_api.config.Constants;
+import com.example.userpet_api.config.ImageProxyProperties;
+import com.example.userpet_api.service.ImageProxyService;
+import com.example.userpet_api.service.ThumbnailService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Serves images cached by {@link ImageProxyService}, and thumbnails generated by
+ * {@link ThumbnailService}, with strong ETags, long-lived {@code Cache-Control} and single
+ * {@code Range} requests.
+ *
+ * <p>When the connector supports it, the body is handed to Tomcat's sendfile, which copies the
+ * file to the socket with {@code FileChannel.transferTo} and no trip through the heap. Otherwise
+ * it is written with {@code transferTo} into the response stream.
+ */
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*") // Allow requests from any origin (frontend)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ImageProxyController {
+    // Request attributes of Tomcat's sendfile support (org.apache.catalina.Globals)
+    static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ImageProxyService imageProxy;
+    private final ThumbnailService thumbnails;
+    private final CacheControl cacheControl;
+
+    public ImageProxyController(ImageProxyService imageProxy, ThumbnailService thumbnails,
+                                ImageProxyProperties properties) {
+        this.imageProxy = imageProxy;
+        this.thumbnails = thumbnails;
+        this.cacheControl = CacheControl.maxAge(properties.getMaxAge()).cachePublic().immutable();
+    }
+
+    @GetMapping("/images/{*path}")
+    public void getImage(@PathVariable String path, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        serve(imageProxy.getImage(path.substring(1)), request, response);
+    }
+
+    @GetMapping("/thumbnails/{size}/{*path}")
+    public void getThumbnail(@PathVariable int size, @PathVariable String path, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        ImageDiskCache.CachedImage thumbnail = thumbnails.getThumbnail(size, path.substring(1));
+        if (thumbnail == null) {
+            // Not generated in time: the full image will do, and the redirect itself is not cached
+            response.setStatus(HttpServletResponse.SC_TEMPORARY_REDIRECT);
+            response.setHeader(HttpHeaders.LOCATION, Constants.ENDPOINT_IMAGES + path);
+            return;
+        }
+        serve(thumbnail, request, response);
+    }
+
+    private void serve(ImageDiskCache.CachedImage image, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        String etag = image.getEtag();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Sets ETag and answers a matching If-None-Match with 304
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+
+        long length = image.getSize();
+        long start = 0;
+        long end = length;
+        HttpRange range = singleRange(request.getHeader(HttpHeaders.RANGE), request.getHeader(HttpHeaders.IF_RANGE), etag);
+        if (range != null) {
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length) + 1;
+            if (start >= length || start >= end) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+        }
+        response.setContentType(MediaTypeFactory.getMediaType(image.getFile().getFileName().toString())
+            .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(end - start);
+        if (HttpMethod.HEAD.matches(request.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat only accepts the canonical path of the file
+            request.setAttribute(SENDFILE_FILENAME, image.getFile().toFile().getCanonicalPath());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        try (FileChannel file = FileChannel.open(image.getFile(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            for (long position = start; position < end; ) {
+                long sent = file.transferTo(position, end - position, out);
+                if (sent <= 0) {
+                    throw new IOException("Image " + image.getKey() + " is shorter than " + length + " bytes");
+                }
+                position += sent;
+            }
+        }
+    }
+
+    /**
+     * The range to serve, or {@code null} to serve the whole image. Malformed and multi-range
+     * headers are ignored, as RFC 9110 allows, and so is a range whose {@code If-Range} no longer
+     * matches.
+     */
+    static HttpRange singleRange(String rangeHeader, String ifRange, String etag) {
+        if (rangeHeader == null || (ifRange != null && !ifRange.equals(etag))) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
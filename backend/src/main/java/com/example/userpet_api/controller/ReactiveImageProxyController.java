@@ -0,0 +1,77 @@
+package com.example.userpet_api.controller;
+
+import com.example.userpet_api.cache.ImageDiskCache;
+import com.example.userpet_api.config.Constants;
+import com.example.userpet_api.config.ImageProxyProperties;
+import com.example.userpet_api.service.ImageProxyService;
+import com.example.userpet_api.service.ThumbnailService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+
+/**
+ * WebFlux version of {@link ImageProxyController}. WebFlux writes file resources with zero-copy
+ * transfer on Netty, answers {@code Range} requests with 206 and a matching
+ * {@code If-None-Match} with 304, so the controller only needs to locate the cached file.
+ */
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*") // Allow requests from any origin (frontend)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveImageProxyController {
+    private final ImageProxyService imageProxy;
+    private final ThumbnailService thumbnails;
+    private final CacheControl cacheControl;
+
+    public ReactiveImageProxyController(ImageProxyService imageProxy, ThumbnailService thumbnails,
+                                        ImageProxyProperties properties) {
+        this.imageProxy = imageProxy;
+        this.thumbnails = thumbnails;
+        this.cacheControl = CacheControl.maxAge(properties.getMaxAge()).cachePublic().immutable();
+    }
+
+    @GetMapping("/images/{*path}")
+    public Mono<ResponseEntity<Resource>> getImage(@PathVariable String path) {
+        // A cache miss downloads the image with the blocking upstream client
+        return Mono.fromCallable(() -> imageProxy.getImage(path.substring(1)))
+            .subscribeOn(Schedulers.boundedElastic())
+            .map(this::toResponse);
+    }
+
+    @GetMapping("/thumbnails/{size}/{*path}")
+    public Mono<ResponseEntity<Resource>> getThumbnail(@PathVariable int size, @PathVariable String path) {
+        // Waits for generation when the thumbnail is not ready yet
+        return Mono.fromCallable(() -> thumbnails.getThumbnail(size, path.substring(1)))
+            .subscribeOn(Schedulers.boundedElastic())
+            .map(this::toResponse)
+            // Not generated in time: the full image will do, and the redirect itself is not cached
+            .switchIfEmpty(Mono.fromSupplier(() -> ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT)
+                .location(URI.create(Constants.ENDPOINT_IMAGES + path))
+                .<Resource>build()));
+    }
+
+    private ResponseEntity<Resource> toResponse(ImageDiskCache.CachedImage image) {
+        return ResponseEntity.ok()
+            .cacheControl(cacheControl)
+            .eTag(image.getEtag())
+            .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+            .contentType(MediaTypeFactory.getMediaType(image.getFile().getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM))
+            .body(new FileSystemResource(image.getFile()));
+    }
+}
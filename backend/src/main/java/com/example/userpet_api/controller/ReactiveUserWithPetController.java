@@ -0,0 +1,100 @@
+package com.example.userpet_api.controller;
+
+import com.example.userpet_api.cache.ResponseBytesCache;
+import com.example.userpet_api.config.Constants;
+import com.example.userpet_api.model.UserWithPet;
+import com.example.userpet_api.query.UserQuery;
+import com.example.userpet_api.service.ReactiveUserWithPetAggregatorService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * WebFlux version of {@link UserWithPetController}, served instead of it with the reactive
+ * profile. Requests hold no thread while waiting for the upstream APIs. The batch endpoint and
+ * the bulkhead, whose queue blocks a thread while waiting, are only available on Spring MVC.
+ */
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*") // Allow requests from any origin (frontend)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserWithPetController {
+    private final ReactiveUserWithPetAggregatorService aggregatorService;
+    private final ObjectMapper objectMapper;
+    private final ResponseBytesCache responseCache;
+
+    public ReactiveUserWithPetController(ReactiveUserWithPetAggregatorService aggregatorService,
+                                         ObjectMapper objectMapper, ResponseBytesCache responseCache) {
+        this.aggregatorService = aggregatorService;
+        this.objectMapper = objectMapper;
+        this.responseCache = responseCache;
+    }
+
+    @GetMapping("/users-with-pet")
+    public Mono<ResponseEntity<?>> getUsersWithPet(
+            @RequestParam(defaultValue = "" + Constants.DEFAULT_USER_COUNT) int results,
+            @RequestParam(required = false) String nat,
+            @RequestParam(required = false) Integer minAge,
+            @RequestParam(required = false) Integer maxAge,
+            @RequestParam(required = false) String gender,
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        UserQuery query = UserWithPetController.userQuery(minAge, maxAge, gender, country, sort);
+        FieldProjection projection = UserWithPetController.fieldProjection(fields);
+        if (!responseCache.isEnabled()) {
+            return aggregatorService.getUsersWithPets(results, nat, query).map(users -> projection == null
+                    ? ResponseEntity.ok(users)
+                    : UserWithPetController.projectedResponse(projection, users, objectMapper));
+        }
+
+        String fieldsKey = projection == null ? "" : projection.key();
+        ResponseBytesCache.CachedResponse cached = responseCache.get(results, nat, query, fieldsKey);
+        if (cached != null) {
+            return Mono.just(cachedResponse(cached, acceptEncoding));
+        }
+        return aggregatorService.getUsersWithPets(results, nat, query).map(users -> {
+            // An empty list usually means upstream trouble; do not keep serving it
+            if (users.isEmpty()) {
+                return ResponseEntity.ok(users);
+            }
+            byte[] json = UserWithPetController.serialize(projection, users, objectMapper);
+            return cachedResponse(responseCache.put(results, nat, query, fieldsKey, json), acceptEncoding);
+        });
+    }
+
+    // WebFlux answers a matching If-None-Match with 304 and no body, as Spring MVC does
+    private static ResponseEntity<?> cachedResponse(ResponseBytesCache.CachedResponse cached, String acceptEncoding) {
+        boolean gzip = cached.getGzip() != null && ResponseBytesCache.acceptsGzip(acceptEncoding);
+        byte[] body = gzip ? cached.getGzip() : cached.getJson();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(gzip ? cached.getGzipEtag() : cached.getEtag())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentLength(body.length);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    // NDJSON is written one line per user and SSE one event per user, both as users are emitted
+    @GetMapping(value = "/users-with-pet/stream",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<UserWithPet> streamUsersWithPet(
+            @RequestParam(defaultValue = "" + Constants.DEFAULT_USER_COUNT) int results,
+            @RequestParam(required = false) String nat) {
+        return aggregatorService.streamUsersWithPets(results, nat);
+    }
+}
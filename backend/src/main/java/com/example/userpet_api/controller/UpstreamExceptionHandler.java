@@ -0,0 +1,45 @@
+package com.example.userpet_api.controller;
+
+import com.example.userpet_api.resilience.BulkheadFullException;
+import com.example.userpet_api.resilience.UpstreamUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.Duration;
+
+/**
+ * Maps upstream failures and load shedding, which should not look like an empty result, to HTTP errors.
+ */
+@RestControllerAdvice
+@Slf4j
+public class UpstreamExceptionHandler {
+
+    // An open circuit breaker means the upstream is known to be down: tell clients when to come back
+    @ExceptionHandler(UpstreamUnavailableException.class)
+    public ResponseEntity<ProblemDetail> handleUpstreamUnavailable(UpstreamUnavailableException e) {
+        log.warn(e.getMessage());
+        return retryLater(HttpStatus.SERVICE_UNAVAILABLE, e.getRetryAfter(), e.getMessage());
+    }
+
+    // Shed load quickly: 429 when the wait queue is full, 503 when a queued request found no slot in time
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<ProblemDetail> handleBulkheadFull(BulkheadFullException e) {
+        log.debug(e.getMessage());
+        HttpStatus status = e.getReason() == BulkheadFullException.Reason.QUEUE_FULL
+            ? HttpStatus.TOO_MANY_REQUESTS
+            : HttpStatus.SERVICE_UNAVAILABLE;
+        return retryLater(status, e.getRetryAfter(), e.getMessage());
+    }
+
+    private static ResponseEntity<ProblemDetail> retryLater(HttpStatus status, Duration retryAfter, String detail) {
+        long retryAfterSeconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        return ResponseEntity.status(status)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+            .body(ProblemDetail.forStatusAndDetail(status, detail));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.userpet_api.controller;
+
+import com.example.userpet_api.model.UserWithPet;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes users to a streaming response one record at a time, as NDJSON lines or Server-Sent
+ * Events, flushing every {@code chunkSize} records.
+ *
+ * <p>Writes go straight to the servlet output stream, so a client that reads slowly blocks the
+ * writer (and with it the producer) instead of letting records pile up in memory.
+ */
+class UserStreamWriter {
+    private static final byte[] NEWLINE = "\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SSE_DATA = "data: ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SSE_END = "\n\n".getBytes(StandardCharsets.UTF_8);
+
+    enum Format { NDJSON, SSE }
+
+    private final OutputStream out;
+    private final ObjectMapper objectMapper;
+    private final Format format;
+    private final int chunkSize;
+    private int written;
+
+    UserStreamWriter(OutputStream out, ObjectMapper objectMapper, Format format, int chunkSize) {
+        this.out = out;
+        this.objectMapper = objectMapper;
+        this.format = format;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    void write(UserWithPet user) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(user);
+            if (format == Format.SSE) {
+                out.write(SSE_DATA);
+                out.write(json);
+                out.write(SSE_END);
+            } else {
+                out.write(json);
+                out.write(NEWLINE);
+            }
+            if (++written % chunkSize == 0) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Typically the client went away; stop producing further records
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void finish() throws IOException {
+        out.flush();
+    }
+}
@@ -1,30 +1,235 @@
 package com.example.userpet_api.controller;
 
+import com.example.userpet_api.cache.ResponseBytesCache;
+import com.example.userpet_api.config.AggregatorProperties;
 import com.example.userpet_api.config.Constants;
+import com.example.userpet_api.config.StreamProperties;
 import com.example.userpet_api.model.UserWithPet;
+import com.example.userpet_api.model.UsersWithPetBatchRequest;
+import com.example.userpet_api.model.UsersWithPetBatchResponse;
+import com.example.userpet_api.query.BatchQuery;
+import com.example.userpet_api.query.UserQuery;
+import com.example.userpet_api.resilience.AdaptiveBulkhead;
 import com.example.userpet_api.service.UserWithPetAggregatorService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 @RestController
 @RequestMapping("/api")
 @CrossOrigin(origins = "*") // Allow requests from any origin (frontend)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserWithPetController {
+    // Key of the async interceptor that frees a stream's bulkhead slot
+    private static final String STREAM_PERMIT = UserWithPetController.class.getName() + ".streamPermit";
+
     private final UserWithPetAggregatorService aggregatorService;
+    private final ObjectMapper objectMapper;
+    private final StreamProperties streamProperties;
+    private final ResponseBytesCache responseCache;
+    private final AggregatorProperties aggregatorProperties;
+    private final AdaptiveBulkhead bulkhead;
 
-    public UserWithPetController(UserWithPetAggregatorService aggregatorService) {
+    public UserWithPetController(UserWithPetAggregatorService aggregatorService, ObjectMapper objectMapper,
+                                 StreamProperties streamProperties, ResponseBytesCache responseCache,
+                                 AggregatorProperties aggregatorProperties, AdaptiveBulkhead bulkhead) {
         this.aggregatorService = aggregatorService;
+        this.objectMapper = objectMapper;
+        this.streamProperties = streamProperties;
+        this.responseCache = responseCache;
+        this.aggregatorProperties = aggregatorProperties;
+        this.bulkhead = bulkhead;
     }
 
     @GetMapping("/users-with-pet")
-    public List<UserWithPet> getUsersWithPet(
+    public ResponseEntity<?> getUsersWithPet(
             @RequestParam(defaultValue = "" + Constants.DEFAULT_USER_COUNT) int results,
-            @RequestParam(required = false) String nat) {
+            @RequestParam(required = false) String nat,
+            @RequestParam(required = false) Integer minAge,
+            @RequestParam(required = false) Integer maxAge,
+            @RequestParam(required = false) String gender,
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         // Example: /api/users-with-pet?results=20&nat=FI
-        return aggregatorService.getUsersWithPets(results, nat);
+        // Filters narrow the aggregated users: /api/users-with-pet?results=500&gender=female&minAge=30&sort=-age
+        // Fields shrink each user: /api/users-with-pet?fields=name,petImage
+        UserQuery query = userQuery(minAge, maxAge, gender, country, sort);
+        FieldProjection projection = fieldProjection(fields);
+        if (!responseCache.isEnabled()) {
+            List<UserWithPet> users = aggregate(results, nat, query);
+            return projection == null ? ResponseEntity.ok(users) : projectedResponse(projection, users, objectMapper);
+        }
+
+        String fieldsKey = projection == null ? "" : projection.key();
+        ResponseBytesCache.CachedResponse cached = responseCache.get(results, nat, query, fieldsKey);
+        if (cached == null) {
+            List<UserWithPet> users = aggregate(results, nat, query);
+            // An empty list usually means upstream trouble; do not keep serving it
+            if (users.isEmpty()) {
+                return ResponseEntity.ok(users);
+            }
+            cached = responseCache.put(results, nat, query, fieldsKey, serialize(projection, users, objectMapper));
+        }
+
+        // Spring answers a matching If-None-Match with 304 and no body
+        boolean gzip = cached.getGzip() != null && ResponseBytesCache.acceptsGzip(acceptEncoding);
+        byte[] body = gzip ? cached.getGzip() : cached.getJson();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(gzip ? cached.getGzipEtag() : cached.getEtag())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentLength(body.length);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @PostMapping("/users-with-pet/batch")
+    public UsersWithPetBatchResponse getUsersWithPetBatch(@RequestBody UsersWithPetBatchRequest request) {
+        // Example: {"queries": [{"results": 10, "nat": "FI"}, {"results": 50, "nat": "FI", "sort": "name"}]}
+        List<UsersWithPetBatchRequest.Query> queries = request.getQueries();
+        if (queries == null || queries.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "queries must not be empty");
+        }
+        if (queries.size() > aggregatorProperties.getMaxBatchQueries()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + aggregatorProperties.getMaxBatchQueries() + " queries per batch");
+        }
+
+        List<BatchQuery> batch = new ArrayList<>(queries.size());
+        for (UsersWithPetBatchRequest.Query query : queries) {
+            if (query == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "queries must not contain null");
+            }
+            batch.add(new BatchQuery(
+                    query.getResults() == null ? Constants.DEFAULT_USER_COUNT : query.getResults(),
+                    query.getNat(),
+                    userQuery(query.getMinAge(), query.getMaxAge(), query.getGender(), query.getCountry(),
+                            query.getSort())));
+        }
+
+        List<List<UserWithPet>> users = bulkhead.execute(() -> aggregatorService.getUsersWithPetsBatch(batch));
+        List<UsersWithPetBatchResponse.Result> results = new ArrayList<>(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            results.add(new UsersWithPetBatchResponse.Result(queries.get(i), users.get(i)));
+        }
+        return new UsersWithPetBatchResponse(results);
+    }
+
+    // Only work that reaches the aggregator takes a bulkhead slot; cached responses never wait
+    private List<UserWithPet> aggregate(int results, String nat, UserQuery query) {
+        return bulkhead.execute(() -> query.isEmpty()
+                ? aggregatorService.getUsersWithPets(results, nat)
+                : aggregatorService.getUsersWithPets(results, nat, query));
+    }
+
+    // Shared with ReactiveUserWithPetController so both stacks accept the same filters
+    static UserQuery userQuery(Integer minAge, Integer maxAge, String gender, String country, String sort) {
+        return UserQuery.builder()
+                .minAge(minAge)
+                .maxAge(maxAge)
+                .gender(blankToNull(gender))
+                .country(blankToNull(country))
+                .sort(parseSort(sort))
+                .build();
+    }
+
+    // Parsed before any upstream work, so an unknown field fails fast with 400
+    static FieldProjection fieldProjection(String fields) {
+        try {
+            return FieldProjection.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    static byte[] serialize(FieldProjection projection, List<UserWithPet> users, ObjectMapper objectMapper) {
+        return projection == null
+                ? objectMapper.writeValueAsBytes(users)
+                : projection.writeValueAsBytes(objectMapper, users);
+    }
+
+    static ResponseEntity<byte[]> projectedResponse(FieldProjection projection, List<UserWithPet> users,
+                                                    ObjectMapper objectMapper) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(projection.writeValueAsBytes(objectMapper, users));
+    }
+
+    private static UserQuery.Sort parseSort(String sort) {
+        try {
+            return UserQuery.Sort.parse(sort);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    @GetMapping(value = "/users-with-pet/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUsersWithPetAsNdjson(
+            @RequestParam(defaultValue = "" + Constants.DEFAULT_USER_COUNT) int results,
+            @RequestParam(required = false) String nat,
+            HttpServletRequest request) {
+        // Example: curl -N -H 'Accept: application/x-ndjson' /api/users-with-pet/stream?results=1000
+        return stream(results, nat, UserStreamWriter.Format.NDJSON, MediaType.APPLICATION_NDJSON, request);
+    }
+
+    @GetMapping(value = "/users-with-pet/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUsersWithPetAsEvents(
+            @RequestParam(defaultValue = "" + Constants.DEFAULT_USER_COUNT) int results,
+            @RequestParam(required = false) String nat,
+            HttpServletRequest request) {
+        // Example: new EventSource('/api/users-with-pet/stream?results=1000')
+        return stream(results, nat, UserStreamWriter.Format.SSE, MediaType.TEXT_EVENT_STREAM, request);
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(int results, String nat, UserStreamWriter.Format format,
+                                                         MediaType mediaType, HttpServletRequest request) {
+        // Taken before the response starts, so a full bulkhead can still answer with an error status
+        AdaptiveBulkhead.Permit permit = bulkhead.acquire();
+        // The body may never run, if the request times out or fails while it waits for an executor
+        // thread; async completion fires either way and frees the slot, and closing twice is harmless
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(STREAM_PERMIT,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                        permit.close();
+                    }
+                });
+        // Runs on the MVC async executor, so the servlet thread is released while users are written
+        StreamingResponseBody body = out -> {
+            try (permit) {
+                UserStreamWriter writer = new UserStreamWriter(out, objectMapper, format, streamProperties.getChunkSize());
+                aggregatorService.streamUsersWithPets(results, nat, writer::write);
+                writer.finish();
+            }
+        };
+        return ResponseEntity.ok().contentType(mediaType).body(body);
     }
 }
@@ -0,0 +1,144 @@
+package com.example.userpet_api.metrics;
+
+import com.example.userpet_api.cache.ImageDiskCache;
+import com.example.userpet_api.cache.RandomUserCache;
+import com.example.userpet_api.cache.ResponseBytesCache;
+import com.example.userpet_api.resilience.AdaptiveBulkhead;
+import com.example.userpet_api.resilience.UpstreamGuard;
+import com.example.userpet_api.resilience.UpstreamGuards;
+import com.example.userpet_api.service.DogImagePool;
+import com.example.userpet_api.service.DogImageServiceImpl;
+import com.example.userpet_api.service.ThumbnailService;
+import com.example.userpet_api.service.UserWithPetAggregatorService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the counters that the caches, image pool, thumbnail workers, request coalescing, bulkhead
+ * and upstream guards already keep. Values are read when the registry is scraped, not on the request path.
+ */
+@Component
+public class PipelineMeterBinder implements MeterBinder {
+    private final RandomUserCache userCache;
+    private final ResponseBytesCache responseCache;
+    private final DogImageServiceImpl dogImageService;
+    private final UserWithPetAggregatorService aggregatorService;
+    private final UpstreamGuards guards;
+    private final AdaptiveBulkhead bulkhead;
+    private final ImageDiskCache imageCache;
+    private final ThumbnailService thumbnails;
+
+    public PipelineMeterBinder(RandomUserCache userCache, ResponseBytesCache responseCache,
+                               DogImageServiceImpl dogImageService, UserWithPetAggregatorService aggregatorService,
+                               UpstreamGuards guards, AdaptiveBulkhead bulkhead, ImageDiskCache imageCache,
+                               ThumbnailService thumbnails) {
+        this.userCache = userCache;
+        this.responseCache = responseCache;
+        this.dogImageService = dogImageService;
+        this.aggregatorService = aggregatorService;
+        this.guards = guards;
+        this.bulkhead = bulkhead;
+        this.imageCache = imageCache;
+        this.thumbnails = thumbnails;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("userpet.cache.users.requests", userCache, RandomUserCache::getHitCount)
+            .tag("result", "hit").register(registry);
+        FunctionCounter.builder("userpet.cache.users.requests", userCache, RandomUserCache::getMissCount)
+            .tag("result", "miss").register(registry);
+        FunctionCounter.builder("userpet.cache.users.requests", userCache, RandomUserCache::getStaleHitCount)
+            .tag("result", "stale").register(registry);
+        FunctionCounter.builder("userpet.cache.users.refreshes", userCache, RandomUserCache::getRefreshCount)
+            .tag("result", "success").register(registry);
+        FunctionCounter.builder("userpet.cache.users.refreshes", userCache, RandomUserCache::getRefreshFailureCount)
+            .tag("result", "failure").register(registry);
+        FunctionCounter.builder("userpet.cache.users.evictions", userCache, RandomUserCache::getEvictionCount)
+            .register(registry);
+        Gauge.builder("userpet.cache.users.size", userCache, RandomUserCache::size).register(registry);
+
+        FunctionCounter.builder("userpet.cache.responses.requests", responseCache, ResponseBytesCache::getHitCount)
+            .tag("result", "hit").register(registry);
+        FunctionCounter.builder("userpet.cache.responses.requests", responseCache, ResponseBytesCache::getMissCount)
+            .tag("result", "miss").register(registry);
+        Gauge.builder("userpet.cache.responses.size", responseCache, ResponseBytesCache::size).register(registry);
+
+        FunctionCounter.builder("userpet.cache.images.requests", imageCache, ImageDiskCache::getHitCount)
+            .tag("result", "hit").register(registry);
+        FunctionCounter.builder("userpet.cache.images.requests", imageCache, ImageDiskCache::getMissCount)
+            .tag("result", "miss").register(registry);
+        FunctionCounter.builder("userpet.cache.images.evictions", imageCache, ImageDiskCache::getEvictionCount)
+            .register(registry);
+        Gauge.builder("userpet.cache.images.size", imageCache, ImageDiskCache::getTotalBytes).baseUnit("bytes")
+            .register(registry);
+
+        Gauge.builder("userpet.thumbnails.queue.depth", thumbnails, ThumbnailService::getQueueDepth)
+            .description("Images waiting for a thumbnail worker").register(registry);
+        Gauge.builder("userpet.thumbnails.active", thumbnails, ThumbnailService::getActiveCount).register(registry);
+        FunctionCounter.builder("userpet.thumbnails.generated", thumbnails, ThumbnailService::getGeneratedCount)
+            .register(registry);
+        FunctionCounter.builder("userpet.thumbnails.rejected", thumbnails, ThumbnailService::getRejectedCount)
+            .tag("reason", "queue_full").register(registry);
+        FunctionCounter.builder("userpet.thumbnails.failed", thumbnails, ThumbnailService::getFailedCount)
+            .register(registry);
+        ImageDiskCache thumbnailCache = thumbnails.getCache();
+        FunctionCounter.builder("userpet.cache.thumbnails.requests", thumbnailCache, ImageDiskCache::getHitCount)
+            .tag("result", "hit").register(registry);
+        FunctionCounter.builder("userpet.cache.thumbnails.requests", thumbnailCache, ImageDiskCache::getMissCount)
+            .tag("result", "miss").register(registry);
+        Gauge.builder("userpet.cache.thumbnails.size", thumbnailCache, ImageDiskCache::getTotalBytes).baseUnit("bytes")
+            .register(registry);
+
+        // The pool only exists in pool mode; gauges report NaN otherwise
+        Gauge.builder("userpet.dog-images.pool.depth", dogImageService, pool(DogImagePool::getDepth))
+            .register(registry);
+        Gauge.builder("userpet.dog-images.pool.drain-rate", dogImageService, pool(DogImagePool::getDrainRatePerSecond))
+            .baseUnit("images/s").register(registry);
+        Gauge.builder("userpet.dog-images.catalog.size", dogImageService,
+                service -> service.getCatalog() == null ? 0 : service.getCatalog().size()).register(registry);
+        FunctionCounter.builder("userpet.dog-images.pool.direct-fetches", dogImageService,
+                service -> service.getPool() == null ? 0 : service.getPool().getDirectFetchCount()).register(registry);
+
+        FunctionCounter.builder("userpet.aggregation.coalesced", aggregatorService,
+                service -> service.getSingleFlight().getCoalescedCount())
+            .description("Requests that shared an upstream fetch already in flight").register(registry);
+        Gauge.builder("userpet.aggregation.in-flight", aggregatorService,
+                service -> service.getSingleFlight().getInFlightCount()).register(registry);
+
+        Gauge.builder("userpet.bulkhead.limit", bulkhead, AdaptiveBulkhead::getLimit).register(registry);
+        Gauge.builder("userpet.bulkhead.in-flight", bulkhead, AdaptiveBulkhead::getInFlight).register(registry);
+        Gauge.builder("userpet.bulkhead.waiting", bulkhead, AdaptiveBulkhead::getWaiting).register(registry);
+        FunctionCounter.builder("userpet.bulkhead.rejected", bulkhead, AdaptiveBulkhead::getQueueFullCount)
+            .tag("reason", "queue_full").register(registry);
+        FunctionCounter.builder("userpet.bulkhead.rejected", bulkhead, AdaptiveBulkhead::getWaitTimeoutCount)
+            .tag("reason", "wait_timeout").register(registry);
+
+        bindGuard(registry, guards.forUpstream(UpstreamGuards.RANDOM_USER));
+        bindGuard(registry, guards.forUpstream(UpstreamGuards.DOG_CEO));
+    }
+
+    private void bindGuard(MeterRegistry registry, UpstreamGuard guard) {
+        String upstream = guard.getName();
+        Gauge.builder("userpet.upstream.breaker.state", guard, g -> g.getCircuitBreaker().getState().ordinal())
+            .description("0 closed, 1 open, 2 half-open").tag("upstream", upstream).register(registry);
+        FunctionCounter.builder("userpet.upstream.breaker.rejected", guard, g -> g.getCircuitBreaker().getRejectedCount())
+            .tag("upstream", upstream).register(registry);
+        FunctionCounter.builder("userpet.upstream.hedges", guard, UpstreamGuard::getHedgeCount)
+            .tag("upstream", upstream).tag("result", "sent").register(registry);
+        FunctionCounter.builder("userpet.upstream.hedges", guard, UpstreamGuard::getHedgeWinCount)
+            .tag("upstream", upstream).tag("result", "won").register(registry);
+    }
+
+    private static ToDoubleFunction<DogImageServiceImpl> pool(ToDoubleFunction<DogImagePool> value) {
+        return service -> {
+            DogImagePool pool = service.getPool();
+            return pool == null ? Double.NaN : value.applyAsDouble(pool);
+        };
+    }
+}
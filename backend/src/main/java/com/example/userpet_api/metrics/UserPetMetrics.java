@@ -0,0 +1,124 @@
+package com.example.userpet_api.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the aggregation pipeline. Meters are created once and looked up from plain maps,
+ * so recording on the request path is a map lookup plus a timer update.
+ *
+ * <p>The nationality tag is limited to the nationalities RandomUser supports; anything else is
+ * reported as {@code other} so request parameters cannot create unbounded time series.
+ */
+@Component
+public class UserPetMetrics {
+
+    public static final String UPSTREAM_REQUESTS = "userpet.upstream.requests";
+    public static final String UPSTREAM_RESPONSE_SIZE = "userpet.upstream.response.size";
+    public static final String STAGE = "userpet.aggregation.stage";
+    public static final String RESULT_USERS = "userpet.aggregation.users";
+
+    public enum Stage { UPSTREAM, PARSE, MERGE, SERIALIZE }
+
+    public enum Outcome { SUCCESS, CLIENT_ERROR, SERVER_ERROR, IO_ERROR }
+
+    public static final String NO_NATIONALITY = "none";
+    private static final String OTHER_NATIONALITY = "other";
+    private static final String MULTIPLE_NATIONALITIES = "multiple";
+    private static final Set<String> KNOWN_NATIONALITIES = Set.of(
+            "AU", "BR", "CA", "CH", "DE", "DK", "ES", "FI", "FR", "GB", "IE",
+            "IN", "IR", "MX", "NL", "NO", "NZ", "RS", "TR", "UA", "US");
+
+    private final MeterRegistry registry;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final ConcurrentMap<UpstreamKey, Timer> upstreamTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> responseSizes = new ConcurrentHashMap<>();
+    private final DistributionSummary resultUsers;
+
+    public UserPetMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder(STAGE)
+                    .description("Time spent in each stage of building a users-with-pet response")
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+        this.resultUsers = DistributionSummary.builder(RESULT_USERS)
+                .description("Users returned per aggregated response")
+                .register(registry);
+    }
+
+    /**
+     * Metrics backed by a private registry, for code constructed outside Spring.
+     */
+    public static UserPetMetrics standalone() {
+        return new UserPetMetrics(new SimpleMeterRegistry());
+    }
+
+    public void recordStage(Stage stage, long nanos) {
+        stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordResultUsers(int users) {
+        resultUsers.record(users);
+    }
+
+    public void recordUpstream(String host, Outcome outcome, String nationality, long nanos, long responseBytes) {
+        UpstreamKey key = new UpstreamKey(host, outcome, nationalityTag(nationality));
+        upstreamTimers.computeIfAbsent(key, this::upstreamTimer).record(nanos, TimeUnit.NANOSECONDS);
+        if (responseBytes >= 0) {
+            responseSizes.computeIfAbsent(host, this::responseSize).record(responseBytes);
+        }
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    private Timer upstreamTimer(UpstreamKey key) {
+        return Timer.builder(UPSTREAM_REQUESTS)
+                .description("Upstream API calls, from waiting for a connection to reading the last body byte")
+                .tag("host", key.getHost())
+                .tag("outcome", key.getOutcome().name().toLowerCase(Locale.ROOT))
+                .tag("nationality", key.getNationality())
+                .register(registry);
+    }
+
+    private DistributionSummary responseSize(String host) {
+        return DistributionSummary.builder(UPSTREAM_RESPONSE_SIZE)
+                .description("Upstream response body size")
+                .baseUnit("bytes")
+                .tag("host", host)
+                .register(registry);
+    }
+
+    static String nationalityTag(String nationality) {
+        if (nationality == null || nationality.isBlank()) {
+            return NO_NATIONALITY;
+        }
+        if (nationality.indexOf(',') >= 0) {
+            return MULTIPLE_NATIONALITIES;
+        }
+        String upper = nationality.trim().toUpperCase(Locale.ROOT);
+        return KNOWN_NATIONALITIES.contains(upper) ? upper : OTHER_NATIONALITY;
+    }
+
+    @Value
+    private static class UpstreamKey {
+        String host;
+        Outcome outcome;
+        String nationality;
+    }
+}
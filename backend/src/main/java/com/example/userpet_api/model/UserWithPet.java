@@ -1,5 +1,6 @@
 package com.example.userpet_api.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,6 +19,9 @@ public class UserWithPet {
     private Dob dob;
     private String phone;
     private String petImage;
+    // Only present when thumbnails are enabled, so responses are unchanged otherwise
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String petThumbnail;
 
     @Data
     @NoArgsConstructor
@@ -0,0 +1,31 @@
+package com.example.userpet_api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UsersWithPetBatchRequest {
+    private List<Query> queries;
+
+    // Same parameters as GET /api/users-with-pet; missing values take the same defaults
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Query {
+        private Integer results;
+        private String nat;
+        private Integer minAge;
+        private Integer maxAge;
+        private String gender;
+        private String country;
+        private String sort;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.userpet_api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UsersWithPetBatchResponse {
+    // In the order of the request's queries
+    private List<Result> results;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Result {
+        private UsersWithPetBatchRequest.Query query;
+        private List<UserWithPet> users;
+    }
+}
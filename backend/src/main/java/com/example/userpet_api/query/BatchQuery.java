@@ -0,0 +1,14 @@
+package com.example.userpet_api.query;
+
+import lombok.Value;
+
+/**
+ * One entry of a batch request: what a single {@code /api/users-with-pet} call would ask for.
+ * Equal entries in one batch are answered once.
+ */
+@Value
+public class BatchQuery {
+    int count;
+    String nationality;
+    UserQuery query;
+}
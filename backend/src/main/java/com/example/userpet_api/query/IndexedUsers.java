@@ -0,0 +1,36 @@
+package com.example.userpet_api.query;
+
+import com.example.userpet_api.model.UserWithPet;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A prefix of a cached user list together with the index built over the whole list, so filtered
+ * requests served from the cache do not rebuild it. Behaves as a plain read-only list otherwise.
+ */
+public final class IndexedUsers extends AbstractList<UserWithPet> implements RandomAccess {
+    private final List<UserWithPet> users;
+    private final UserIndex index;
+
+    public IndexedUsers(List<UserWithPet> users, UserIndex index) {
+        this.users = users;
+        this.index = index;
+    }
+
+    @Override
+    public UserWithPet get(int position) {
+        return users.get(position);
+    }
+
+    @Override
+    public int size() {
+        return users.size();
+    }
+
+    // Covers the full cached list; positions beyond size() are excluded by UserIndex.select's limit
+    public UserIndex getIndex() {
+        return index;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.userpet_api.query;
+
+import com.example.userpet_api.model.UserWithPet;
+
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Secondary indexes over an immutable user list: positions sorted by age and by name, and a
+ * bitset of positions per gender and per country.
+ *
+ * <p>A query ANDs the bitsets of its equality filters with the range of the age order that
+ * matches, then reads the surviving positions in list order or in the requested sort order.
+ * Building costs two sorts; a query costs roughly the number of users in its age range.
+ */
+public final class UserIndex {
+    // Users without a date of birth sort before everyone and never match an age range
+    private static final int UNKNOWN_AGE = -1;
+
+    private final int size;
+    private final int[] byAge;
+    private final int[] sortedAges;
+    private final int[] byName;
+    private final Map<String, BitSet> byGender;
+    private final Map<String, BitSet> byCountry;
+
+    private UserIndex(List<UserWithPet> users) {
+        this.size = users.size();
+        int[] ages = new int[size];
+        for (int i = 0; i < size; i++) {
+            UserWithPet.Dob dob = users.get(i).getDob();
+            ages[i] = dob == null ? UNKNOWN_AGE : dob.getAge();
+        }
+        this.byAge = IntStream.range(0, size).boxed()
+                .sorted(Comparator.comparingInt(i -> ages[i]))
+                .mapToInt(Integer::intValue).toArray();
+        this.sortedAges = new int[size];
+        for (int i = 0; i < size; i++) {
+            sortedAges[i] = ages[byAge[i]];
+        }
+        this.byName = IntStream.range(0, size).boxed()
+                .sorted(Comparator.comparing(i -> users.get(i).getName(),
+                        Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)))
+                .mapToInt(Integer::intValue).toArray();
+        this.byGender = new HashMap<>();
+        this.byCountry = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            UserWithPet user = users.get(i);
+            if (user.getGender() != null) {
+                byGender.computeIfAbsent(user.getGender().toLowerCase(Locale.ROOT), key -> new BitSet(size)).set(i);
+            }
+            if (user.getCountry() != null) {
+                byCountry.computeIfAbsent(user.getCountry().toUpperCase(Locale.ROOT), key -> new BitSet(size)).set(i);
+            }
+        }
+    }
+
+    public static UserIndex build(List<UserWithPet> users) {
+        return new UserIndex(users);
+    }
+
+    /**
+     * The index of {@code users}: the prebuilt one for lists served from the user cache,
+     * otherwise a new one.
+     */
+    public static UserIndex of(List<UserWithPet> users) {
+        return users instanceof IndexedUsers ? ((IndexedUsers) users).getIndex() : build(users);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Positions of the users among the first {@code limit} that match {@code query}, in list
+     * order or in the query's sort order.
+     */
+    public int[] select(UserQuery query, int limit) {
+        int bound = Math.min(limit, size);
+        BitSet matches = new BitSet(bound);
+        matches.set(0, bound);
+        if (query.getGender() != null) {
+            matches.and(byGender.getOrDefault(query.getGender().trim().toLowerCase(Locale.ROOT), new BitSet()));
+        }
+        if (query.getCountry() != null) {
+            matches.and(byCountry.getOrDefault(query.getCountry().trim().toUpperCase(Locale.ROOT), new BitSet()));
+        }
+        if (query.getMinAge() != null || query.getMaxAge() != null) {
+            matches.and(ageRange(query.getMinAge(), query.getMaxAge()));
+        }
+
+        UserQuery.Sort sort = query.getSort();
+        if (sort == null) {
+            return matches.stream().toArray();
+        }
+        int[] order = sort == UserQuery.Sort.AGE || sort == UserQuery.Sort.AGE_DESC ? byAge : byName;
+        boolean descending = sort == UserQuery.Sort.AGE_DESC || sort == UserQuery.Sort.NAME_DESC;
+        int[] selected = new int[matches.cardinality()];
+        int count = 0;
+        for (int i = 0; i < order.length && count < selected.length; i++) {
+            int position = order[descending ? order.length - 1 - i : i];
+            if (matches.get(position)) {
+                selected[count++] = position;
+            }
+        }
+        return selected;
+    }
+
+    private BitSet ageRange(Integer minAge, Integer maxAge) {
+        int from = lowerBound(minAge == null ? 0 : Math.max(0, minAge));
+        int to = lowerBound(maxAge == null ? Integer.MAX_VALUE : maxAge + 1L);
+        BitSet range = new BitSet(size);
+        for (int i = from; i < to; i++) {
+            range.set(byAge[i]);
+        }
+        return range;
+    }
+
+    // First index in sortedAges whose age is at least value
+    private int lowerBound(long value) {
+        int low = 0;
+        int high = sortedAges.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedAges[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.userpet_api.query;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Locale;
+
+/**
+ * Filters and sort order applied to an aggregated user list. Null fields do not filter.
+ */
+@Value
+@Builder
+public class UserQuery {
+    public static final UserQuery NONE = UserQuery.builder().build();
+
+    Integer minAge;
+    Integer maxAge;
+    String gender;
+    String country;
+    Sort sort;
+
+    public enum Sort {
+        AGE("age"), AGE_DESC("-age"), NAME("name"), NAME_DESC("-name");
+
+        private final String parameter;
+
+        Sort(String parameter) {
+            this.parameter = parameter;
+        }
+
+        /**
+         * Parses a {@code sort} parameter: {@code age} or {@code name}, prefixed with {@code -}
+         * for descending order.
+         *
+         * @throws IllegalArgumentException for any other value
+         */
+        public static Sort parse(String value) {
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            String normalized = value.trim().toLowerCase(Locale.ROOT);
+            for (Sort sort : values()) {
+                if (sort.parameter.equals(normalized)) {
+                    return sort;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported sort '" + value + "', use age, -age, name or -name");
+        }
+
+        public String getParameter() {
+            return parameter;
+        }
+    }
+
+    public boolean isEmpty() {
+        return minAge == null && maxAge == null && gender == null && country == null && sort == null;
+    }
+
+    // Canonical form, so equivalent queries share cache entries
+    public String cacheKey() {
+        if (isEmpty()) {
+            return "";
+        }
+        return (minAge == null ? "" : minAge) + "-" + (maxAge == null ? "" : maxAge)
+                + "|" + (gender == null ? "" : gender.toLowerCase(Locale.ROOT))
+                + "|" + (country == null ? "" : country.toUpperCase(Locale.ROOT))
+                + "|" + (sort == null ? "" : sort.getParameter());
+    }
+}
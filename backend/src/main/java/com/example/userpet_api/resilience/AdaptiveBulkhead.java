@@ -0,0 +1,223 @@
+package com.example.userpet_api.resilience;
+
+import com.example.userpet_api.config.BulkheadProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Limits how many aggregations run at once, so an upstream incident cannot tie up every servlet
+ * thread. Requests over the limit wait in a short queue; when the queue is full, or the wait
+ * runs out, they are rejected with {@link BulkheadFullException} instead.
+ *
+ * <p>The limit adapts with AIMD: each aggregation that finishes in time while the limit is at
+ * least half used raises it by one, and each slow or failed one multiplies it by
+ * {@code backoffRatio}. Slow upstreams therefore shrink the limit until the calls in flight
+ * complete in time again, and the limit climbs back as soon as they do.
+ */
+@Component
+@Slf4j
+public class AdaptiveBulkhead {
+
+    private final BulkheadProperties properties;
+    private final long latencyThresholdNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private long queueFullCount;
+    private long waitTimeoutCount;
+
+    public AdaptiveBulkhead() {
+        this(new BulkheadProperties());
+    }
+
+    @Autowired
+    public AdaptiveBulkhead(BulkheadProperties properties) {
+        this.properties = properties;
+        this.latencyThresholdNanos = properties.getLatencyThreshold().toNanos();
+        this.limit = clamp(properties.getInitialLimit());
+    }
+
+    /**
+     * Runs {@code call} once a slot is free and feeds its latency and outcome into the limit.
+     *
+     * @throws BulkheadFullException when no slot is available in time
+     */
+    public <T> T execute(Supplier<T> call) {
+        Permit permit = acquire();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = call.get();
+            failed = false;
+            return result;
+        } finally {
+            permit.release(System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * Takes a slot for work that outlives the calling method, such as a streamed response.
+     * Closing the permit frees the slot without adjusting the limit, because the time taken
+     * includes the client reading the response.
+     *
+     * @throws BulkheadFullException when no slot is available in time
+     */
+    public Permit acquire() {
+        if (!properties.isEnabled()) {
+            return new Permit(0);
+        }
+        lock.lock();
+        try {
+            // Queued requests go first, so a newcomer cannot take the slot they are waiting for
+            if (waiting == 0 && inFlight < currentLimit()) {
+                return admit();
+            }
+            if (waiting >= properties.getQueueSize()) {
+                queueFullCount++;
+                throw new BulkheadFullException(BulkheadFullException.Reason.QUEUE_FULL, properties.getRetryAfter());
+            }
+            waiting++;
+            try {
+                long remaining = properties.getMaxWait().toNanos();
+                while (inFlight >= currentLimit()) {
+                    if (remaining <= 0) {
+                        waitTimeoutCount++;
+                        throw new BulkheadFullException(BulkheadFullException.Reason.WAIT_TIMEOUT,
+                            properties.getRetryAfter());
+                    }
+                    remaining = slotFreed.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                waitTimeoutCount++;
+                throw new BulkheadFullException(BulkheadFullException.Reason.WAIT_TIMEOUT, properties.getRetryAfter());
+            } finally {
+                waiting--;
+            }
+            return admit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Permit admit() {
+        inFlight++;
+        return new Permit(inFlight);
+    }
+
+    private void release(long latencyNanos, boolean failed, int inFlightAtStart, boolean sample) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (sample) {
+                double previous = limit;
+                if (failed || latencyNanos > latencyThresholdNanos) {
+                    limit = clamp(limit * properties.getBackoffRatio());
+                } else if (inFlightAtStart * 2 >= limit) {
+                    // Only grow a limit that is actually being used
+                    limit = clamp(limit + 1);
+                }
+                if ((int) previous != (int) limit) {
+                    log.debug("Bulkhead limit changed from {} to {} after a {} ms aggregation{}", (int) previous,
+                        (int) limit, TimeUnit.NANOSECONDS.toMillis(latencyNanos), failed ? " that failed" : "");
+                }
+            }
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    private double clamp(double value) {
+        return Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), value));
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getQueueFullCount() {
+        lock.lock();
+        try {
+            return queueFullCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getWaitTimeoutCount() {
+        lock.lock();
+        try {
+            return waitTimeoutCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A slot in the bulkhead. Released once, from whichever thread gets there first; later calls
+     * do nothing.
+     */
+    public final class Permit implements AutoCloseable {
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        void release(long latencyNanos, boolean failed) {
+            release(latencyNanos, failed, true);
+        }
+
+        @Override
+        public void close() {
+            release(0, false, false);
+        }
+
+        private void release(long latencyNanos, boolean failed, boolean sample) {
+            // A permit handed out while disabled holds no slot
+            if (!released.compareAndSet(false, true) || inFlightAtStart == 0) {
+                return;
+            }
+            AdaptiveBulkhead.this.release(latencyNanos, failed, inFlightAtStart, sample);
+        }
+    }
+}
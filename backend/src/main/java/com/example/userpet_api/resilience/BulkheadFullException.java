@@ -0,0 +1,35 @@
+package com.example.userpet_api.resilience;
+
+import java.time.Duration;
+
+/**
+ * Thrown instead of starting an aggregation when the {@link AdaptiveBulkhead} has no slot for it.
+ */
+public class BulkheadFullException extends RuntimeException {
+
+    public enum Reason {
+        // The wait queue was full, so the request was not queued at all
+        QUEUE_FULL,
+        // The request was queued but no slot freed up in time
+        WAIT_TIMEOUT
+    }
+
+    private final Reason reason;
+    private final Duration retryAfter;
+
+    public BulkheadFullException(Reason reason, Duration retryAfter) {
+        super(reason == Reason.QUEUE_FULL
+            ? "Too many concurrent requests, retry after " + retryAfter.toSeconds() + "s"
+            : "No capacity became available in time, retry after " + retryAfter.toSeconds() + "s");
+        this.reason = reason;
+        this.retryAfter = retryAfter;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.userpet_api.resilience;
+
+import com.example.userpet_api.config.ResilienceProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Count-based circuit breaker. While closed it tracks the outcome of the last
+ * {@code windowSize} calls and opens when too many of them failed or were slow. While open
+ * every call is rejected until {@code openDuration} has passed; it then lets a few probe calls
+ * through (half-open) and closes again only if all of them succeed in time.
+ *
+ * <p>State is guarded by a {@link ReentrantLock} rather than {@code synchronized}: every upstream
+ * call passes through here, and a virtual thread waiting for a monitor pins its carrier thread.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final byte SUCCESS = 0;
+    private static final byte FAILURE = 1;
+    private static final byte SLOW = 2;
+
+    private final String name;
+    private final ResilienceProperties.Breaker properties;
+    private final Clock clock;
+    private final long slowCallNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Ring buffer of recent outcomes with running totals
+    private final byte[] window;
+    private int windowIndex;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAtMillis;
+    private int probesStarted;
+    private int probesSucceeded;
+    private long rejectedCount;
+
+    public CircuitBreaker(String name, ResilienceProperties.Breaker properties) {
+        this(name, properties, Clock.systemUTC());
+    }
+
+    CircuitBreaker(String name, ResilienceProperties.Breaker properties, Clock clock) {
+        this.name = name;
+        this.properties = properties;
+        this.clock = clock;
+        this.slowCallNanos = properties.getSlowCallDuration().toNanos();
+        this.window = new byte[Math.max(1, properties.getWindowSize())];
+    }
+
+    /**
+     * Returns whether a call may go upstream now. Every permitted call must be followed by
+     * {@link #onSuccess(long)}, {@link #onError(long)} or {@link #onCancel(long)}.
+     */
+    public boolean tryAcquirePermission() {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                if (clock.millis() - openedAtMillis < properties.getOpenDuration().toMillis()) {
+                    rejectedCount++;
+                    return false;
+                }
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesStarted >= properties.getHalfOpenCalls()) {
+                    rejectedCount++;
+                    return false;
+                }
+                probesStarted++;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess(long durationNanos) {
+        record(durationNanos > slowCallNanos ? SLOW : SUCCESS);
+    }
+
+    public void onError(long durationNanos) {
+        record(FAILURE);
+    }
+
+    /**
+     * Ends a permitted call that was cancelled before it completed, for example because the client
+     * went away, a sibling call failed or a deadline passed. That says nothing about the upstream,
+     * so it is not a failure: only a call that had already run longer than
+     * {@code slow-call-duration} counts, as slow. A cancelled probe hands its slot back so another
+     * call can probe.
+     */
+    public void onCancel(long durationNanos) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (durationNanos > slowCallNanos) {
+                recordLocked(SLOW);
+            } else if (state == State.HALF_OPEN && probesStarted > 0) {
+                probesStarted--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(byte outcome) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        lock.lock();
+        try {
+            recordLocked(outcome);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordLocked(byte outcome) {
+        switch (state) {
+            case HALF_OPEN:
+                if (outcome != SUCCESS) {
+                    transitionTo(State.OPEN);
+                } else if (++probesSucceeded >= properties.getHalfOpenCalls()) {
+                    transitionTo(State.CLOSED);
+                }
+                break;
+            case CLOSED:
+                addToWindow(outcome);
+                if (recorded >= properties.getMinimumCalls()
+                        && (failures * 100 >= properties.getFailureRateThreshold() * recorded
+                            || slowCalls * 100 >= properties.getSlowCallRateThreshold() * recorded)) {
+                    transitionTo(State.OPEN);
+                }
+                break;
+            case OPEN:
+            default:
+                // Late result of a call started before the breaker opened
+                break;
+        }
+    }
+
+    private void addToWindow(byte outcome) {
+        if (recorded == window.length) {
+            byte evicted = window[windowIndex];
+            if (evicted == FAILURE) {
+                failures--;
+            } else if (evicted == SLOW) {
+                slowCalls--;
+            }
+        } else {
+            recorded++;
+        }
+        window[windowIndex] = outcome;
+        windowIndex = (windowIndex + 1) % window.length;
+        if (outcome == FAILURE) {
+            failures++;
+        } else if (outcome == SLOW) {
+            slowCalls++;
+        }
+    }
+
+    private void transitionTo(State next) {
+        log.info("Circuit breaker for {} changed from {} to {}", name, state, next);
+        state = next;
+        if (next == State.OPEN) {
+            openedAtMillis = clock.millis();
+        }
+        if (next == State.HALF_OPEN) {
+            probesStarted = 0;
+            probesSucceeded = 0;
+        }
+        if (next == State.CLOSED) {
+            recorded = 0;
+            windowIndex = 0;
+            failures = 0;
+            slowCalls = 0;
+        }
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Time until the breaker lets probe calls through, or zero when it is not open.
+     */
+    public Duration getRemainingOpenDuration() {
+        lock.lock();
+        try {
+            if (state != State.OPEN) {
+                return Duration.ZERO;
+            }
+            long remaining = properties.getOpenDuration().toMillis() - (clock.millis() - openedAtMillis);
+            return Duration.ofMillis(Math.max(0, remaining));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejectedCount() {
+        lock.lock();
+        try {
+            return rejectedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+}
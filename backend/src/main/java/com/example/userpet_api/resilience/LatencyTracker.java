@@ -0,0 +1,67 @@
+package com.example.userpet_api.resilience;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the most recent call latencies and answers percentile queries over them. The sorted
+ * copy is rebuilt at most once every {@code RESORT_INTERVAL} samples, which is plenty for
+ * choosing a hedge delay.
+ */
+class LatencyTracker {
+
+    private static final int RESORT_INTERVAL = 16;
+
+    private final long[] samples;
+    private final ReentrantLock lock = new ReentrantLock();
+    private int index;
+    private int size;
+    private int sinceSort = RESORT_INTERVAL;
+    private long[] sorted = new long[0];
+
+    LatencyTracker(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    void record(long nanos) {
+        lock.lock();
+        try {
+            samples[index] = nanos;
+            index = (index + 1) % samples.length;
+            size = Math.min(size + 1, samples.length);
+            sinceSort++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Latency at {@code percentile} (0-100) of the recorded samples, or -1 when there are none.
+     */
+    long percentile(double percentile) {
+        lock.lock();
+        try {
+            if (size == 0) {
+                return -1;
+            }
+            if (sinceSort >= RESORT_INTERVAL || sorted.length != size) {
+                sorted = Arrays.copyOf(samples, size);
+                Arrays.sort(sorted);
+                sinceSort = 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(rank, sorted.length - 1))];
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.userpet_api.resilience;
+
+import com.example.userpet_api.config.ResilienceProperties;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Resilience wrapper for one upstream API. Calls are rejected while the circuit breaker is
+ * open; otherwise they go upstream, and when the first attempt has not answered by the hedge
+ * delay (a percentile of recent latencies) a second, identical attempt is sent and whichever
+ * answers first wins. Only use it for idempotent requests.
+ */
+@Slf4j
+public class UpstreamGuard {
+
+    private static final int LATENCY_SAMPLES = 256;
+
+    private final String name;
+    private final ResilienceProperties.Hedge hedgeProperties;
+    private final CircuitBreaker circuitBreaker;
+    private final ExecutorService attemptExecutor;
+    private final LatencyTracker latencies = new LatencyTracker(LATENCY_SAMPLES);
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    public UpstreamGuard(String name, ResilienceProperties properties, ExecutorService attemptExecutor) {
+        this(name, properties.getHedge(), new CircuitBreaker(name, properties.getBreaker()), attemptExecutor);
+    }
+
+    UpstreamGuard(String name, ResilienceProperties.Hedge hedgeProperties, CircuitBreaker circuitBreaker,
+                  ExecutorService attemptExecutor) {
+        this.name = name;
+        this.hedgeProperties = hedgeProperties;
+        this.circuitBreaker = circuitBreaker;
+        this.attemptExecutor = attemptExecutor;
+    }
+
+    /**
+     * Runs {@code call} under the circuit breaker, hedging it when it is slow.
+     *
+     * @throws UpstreamUnavailableException if the circuit breaker is open
+     */
+    public <T> T execute(Supplier<T> call) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new UpstreamUnavailableException(name, circuitBreaker.getRemainingOpenDuration());
+        }
+        calls.increment();
+
+        long start = System.nanoTime();
+        try {
+            T result = hedgeProperties.isEnabled() ? executeHedged(call) : timed(call);
+            circuitBreaker.onSuccess(System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException e) {
+            circuitBreaker.onError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #execute(Supplier)} for the reactive stack: subscribes to
+     * {@code call} under the circuit breaker. Calls are not hedged; latencies still feed the
+     * hedge delay used by blocking calls.
+     */
+    public <T> Mono<T> execute(Mono<T> call) {
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                return Mono.error(new UpstreamUnavailableException(name, circuitBreaker.getRemainingOpenDuration()));
+            }
+            calls.increment();
+            long start = System.nanoTime();
+            return call
+                .doOnSuccess(result -> {
+                    long elapsed = System.nanoTime() - start;
+                    latencies.record(elapsed);
+                    circuitBreaker.onSuccess(elapsed);
+                })
+                .doOnError(e -> circuitBreaker.onError(System.nanoTime() - start))
+                // Cancellation comes from the client, a sibling call or a deadline, not from this
+                // upstream, so it only counts once the call had already been slow
+                .doOnCancel(() -> circuitBreaker.onCancel(System.nanoTime() - start));
+        });
+    }
+
+    private <T> T executeHedged(Supplier<T> call) {
+        CompletionService<T> attempts = new ExecutorCompletionService<>(attemptExecutor);
+        List<Future<T>> started = new ArrayList<>(2);
+        try {
+            Future<T> primary = attempts.submit(() -> timed(call));
+            started.add(primary);
+
+            Future<T> first = attempts.poll(getHedgeDelayNanos(), TimeUnit.NANOSECONDS);
+            if (first == null && allowHedge()) {
+                hedges.increment();
+                log.debug("No answer from {} after {} ms, sending hedged request", name,
+                        TimeUnit.NANOSECONDS.toMillis(getHedgeDelayNanos()));
+                started.add(attempts.submit(() -> timed(call)));
+            }
+            if (first == null) {
+                first = attempts.take();
+            }
+
+            try {
+                T result = first.get();
+                if (first != primary) {
+                    hedgeWins.increment();
+                }
+                return result;
+            } catch (ExecutionException e) {
+                if (started.size() == 1) {
+                    throw unwrap(e);
+                }
+                // One attempt failed, the other may still succeed
+                return attempts.take().get();
+            }
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while calling " + name, e);
+        } finally {
+            started.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    // Latency of every completed attempt feeds the hedge delay, including hedges and losers
+    private <T> T timed(Supplier<T> call) {
+        long start = System.nanoTime();
+        T result = call.get();
+        latencies.record(System.nanoTime() - start);
+        return result;
+    }
+
+    private boolean allowHedge() {
+        return hedges.sum() < Math.max(1, hedgeProperties.getMaxRatio() * calls.sum());
+    }
+
+    /**
+     * Current hedge delay: the configured percentile of recent latencies, never below the minimum.
+     */
+    public long getHedgeDelayNanos() {
+        long minDelay = hedgeProperties.getMinDelay().toNanos();
+        if (latencies.size() < hedgeProperties.getMinSamples()) {
+            return Math.max(minDelay, hedgeProperties.getInitialDelay().toNanos());
+        }
+        return Math.max(minDelay, latencies.percentile(hedgeProperties.getPercentile()));
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new RuntimeException(cause);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    // Hedges that answered before the first attempt
+    public long getHedgeWinCount() {
+        return hedgeWins.sum();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.userpet_api.resilience;
+
+import com.example.userpet_api.config.ResilienceProperties;
+import com.example.userpet_api.config.UpstreamExecutorConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * One {@link UpstreamGuard} per upstream API, so a slow or failing API does not trip the
+ * breaker of the other.
+ */
+@Component
+public class UpstreamGuards {
+
+    public static final String RANDOM_USER = "randomuser";
+    public static final String DOG_CEO = "dog-ceo";
+
+    private final ResilienceProperties properties;
+    private final ConcurrentMap<String, UpstreamGuard> guards = new ConcurrentHashMap<>();
+
+    // Hedged attempts are nested work: upstreamExecutor tasks block on them
+    private final ExecutorService attemptExecutor;
+
+    public UpstreamGuards() {
+        this(new ResilienceProperties(), UpstreamExecutorConfig.standaloneNestedExecutor());
+    }
+
+    @Autowired
+    public UpstreamGuards(ResilienceProperties properties,
+                          @Qualifier(UpstreamExecutorConfig.NESTED_EXECUTOR) ExecutorService attemptExecutor) {
+        this.properties = properties;
+        this.attemptExecutor = attemptExecutor;
+    }
+
+    public UpstreamGuard forUpstream(String name) {
+        return guards.computeIfAbsent(name, key -> new UpstreamGuard(key, properties, attemptExecutor));
+    }
+
+    public Collection<UpstreamGuard> getAll() {
+        return Collections.unmodifiableCollection(guards.values());
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.userpet_api.resilience;
+
+import java.time.Duration;
+
+/**
+ * Thrown instead of calling an upstream API whose circuit breaker is open.
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    private final String upstream;
+    private final Duration retryAfter;
+
+    public UpstreamUnavailableException(String upstream, Duration retryAfter) {
+        super("Upstream " + upstream + " is unavailable, retry after " + retryAfter.toSeconds() + "s");
+        this.upstream = upstream;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getUpstream() {
+        return upstream;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.userpet_api.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Splits a request for more images than one upstream call returns into chunks, loads them in
+ * parallel and concatenates the results in chunk order, or hands them over chunk by chunk.
+ *
+ * <p>At most {@code maxConcurrency} chunks are in flight per request. The calling thread loads
+ * chunks too, so a request never waits for a free executor thread to make progress.
+ */
+@Slf4j
+class ChunkedImageFetcher {
+    private final int chunkSize;
+    private final int maxConcurrency;
+    private final ExecutorService executor;
+
+    ChunkedImageFetcher(int chunkSize, int maxConcurrency, ExecutorService executor) {
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.executor = executor;
+    }
+
+    List<String> fetch(int count, IntFunction<List<String>> loader) {
+        List<String> images = new ArrayList<>(count);
+        fetch(count, loader, images::addAll);
+        if (images.size() < count) {
+            log.warn("Loaded {} of {} dog images", images.size(), count);
+        }
+        return images;
+    }
+
+    /**
+     * Streaming variant of {@link #fetch(int, IntFunction)}: hands each chunk to {@code sink} on the
+     * calling thread, in chunk order, once it and every chunk before it have loaded. The caller
+     * loads the first chunk itself, so the sink gets it after one upstream call rather than after
+     * all of them, and a slow sink overlaps with the chunks still loading.
+     */
+    void fetch(int count, IntFunction<List<String>> loader, Consumer<List<String>> sink) {
+        if (count <= chunkSize) {
+            sink.accept(loader.apply(count));
+            return;
+        }
+
+        int chunks = (count + chunkSize - 1) / chunkSize;
+        List<CompletableFuture<List<String>>> results = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            results.add(new CompletableFuture<>());
+        }
+        AtomicInteger nextChunk = new AtomicInteger();
+        IntConsumer load = chunk -> {
+            int size = Math.min(chunkSize, count - chunk * chunkSize);
+            try {
+                results.get(chunk).complete(loader.apply(size));
+            } catch (RuntimeException e) {
+                results.get(chunk).completeExceptionally(e);
+            }
+        };
+        Runnable worker = () -> {
+            for (int chunk = nextChunk.getAndIncrement(); chunk < chunks; chunk = nextChunk.getAndIncrement()) {
+                load.accept(chunk);
+            }
+        };
+
+        // Claimed before the helpers start, so the first chunk is the caller's
+        int first = nextChunk.getAndIncrement();
+        int helpers = Math.min(maxConcurrency, chunks) - 1;
+        List<Future<?>> pending = new ArrayList<>(helpers);
+        for (int i = 0; i < helpers; i++) {
+            pending.add(executor.submit(worker));
+        }
+        try {
+            load.accept(first);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                CompletableFuture<List<String>> result = results.get(chunk);
+                // Loads later chunks instead of idling while this one is still in flight
+                while (!result.isDone()) {
+                    int next = nextChunk.getAndIncrement();
+                    if (next >= chunks) {
+                        break;
+                    }
+                    load.accept(next);
+                }
+                sink.accept(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.debug("Interrupted while loading {} images in chunks", count);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Chunk load failed", e.getCause());
+        } catch (CancellationException e) {
+            log.debug("Chunk load was cancelled");
+        } finally {
+            // Stops the remaining workers when the caller or its sink failed or gave up early
+            nextChunk.set(chunks);
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+}
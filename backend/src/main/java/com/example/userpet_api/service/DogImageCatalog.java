@@ -0,0 +1,197 @@
+package com.example.userpet_api.service;
+
+import com.example.userpet_api.config.DogImageCatalogProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Fixed list of dog image URLs, refreshed in the background, from which users get their image by
+ * a stable hash of their email.
+ *
+ * <p>While the catalog is unchanged the same user always gets the same image, so identical
+ * requests produce identical responses and no Dog CEO call is made on the request path.
+ *
+ * <p>A failed refresh keeps serving the current images. Once refreshes have failed for
+ * {@code max-staleness} past the refresh interval, the catalog reports itself not ready and users
+ * get random images again until a refresh succeeds.
+ */
+@Slf4j
+public class DogImageCatalog implements AutoCloseable {
+    // dog.ceo returns at most 50 images per call
+    private static final int BATCH_SIZE = 50;
+
+    private final DogImageCatalogProperties properties;
+    private final IntFunction<List<String>> loader;
+    private final ScheduledExecutorService scheduler;
+    private final Clock clock;
+    private volatile List<String> images = List.of();
+    // Written before images, so a reader that sees new images also sees their load time
+    private volatile long loadedAt;
+
+    public DogImageCatalog(DogImageCatalogProperties properties, IntFunction<List<String>> loader) {
+        this(properties, loader, Clock.systemUTC());
+    }
+
+    DogImageCatalog(DogImageCatalogProperties properties, IntFunction<List<String>> loader, Clock clock) {
+        this.properties = properties;
+        this.loader = loader;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dog-image-catalog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Loads the saved catalog, if any, and schedules refreshes. Without a saved catalog the first
+     * refresh runs immediately in the background; until it completes the catalog is not ready.
+     */
+    public void start() {
+        long intervalMillis = properties.getRefreshInterval().toMillis();
+        long firstRefreshMillis = Math.max(0, intervalMillis - loadSaved().toMillis());
+        scheduler.scheduleWithFixedDelay(this::refresh, firstRefreshMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isReady() {
+        return !current().isEmpty();
+    }
+
+    public int size() {
+        return current().size();
+    }
+
+    /**
+     * Image for {@code key}, or {@code null} while the catalog is empty or too stale to use.
+     */
+    public String imageFor(String key) {
+        List<String> current = current();
+        return current.isEmpty() ? null : current.get(index(key, current.size()));
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    // The catalog, or nothing once it is older than the refresh interval plus max-staleness
+    private List<String> current() {
+        List<String> current = images;
+        if (current.isEmpty() || clock.millis() - loadedAt <= maxAgeMillis()) {
+            return current;
+        }
+        return List.of();
+    }
+
+    private long maxAgeMillis() {
+        return properties.getRefreshInterval().toMillis() + properties.getMaxStaleness().toMillis();
+    }
+
+    // String.hashCode is fixed by the language spec, so the index is the same on every JVM;
+    // the finalizer of MurmurHash3 spreads similar emails over the whole catalog
+    static int index(String key, int size) {
+        long h = key == null ? 0 : key.hashCode();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) Math.floorMod(h, (long) size);
+    }
+
+    void refresh() {
+        int target = properties.getSize();
+        Set<String> fetched = new LinkedHashSet<>(target * 2);
+        try {
+            // Random batches can repeat images, so allow a few extra calls to reach the target
+            int maxCalls = 2 * ((target + BATCH_SIZE - 1) / BATCH_SIZE);
+            for (int call = 0; call < maxCalls && fetched.size() < target; call++) {
+                List<String> batch = loader.apply(Math.min(BATCH_SIZE, target - fetched.size()));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                fetched.addAll(batch);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Dog image catalog refresh failed: {}", e.getMessage());
+        }
+
+        // A partial refresh would reassign every user to a smaller set; keep the current catalog instead
+        if (fetched.size() < target && !images.isEmpty()) {
+            if (isReady()) {
+                log.warn("Dog image catalog refresh got {} of {} images, keeping the current catalog",
+                        fetched.size(), target);
+            } else {
+                log.warn("Dog image catalog refresh got {} of {} images and the current catalog is past its "
+                        + "max staleness, users get random images until a refresh succeeds", fetched.size(), target);
+            }
+            return;
+        }
+        if (fetched.isEmpty()) {
+            log.warn("Dog image catalog is still empty, users get random images until it loads");
+            return;
+        }
+        loadedAt = clock.millis();
+        images = List.copyOf(fetched);
+        log.info("Dog image catalog refreshed with {} images", images.size());
+        save();
+    }
+
+    // Returns the age of the saved catalog, or a duration past the refresh interval when there is none
+    private Duration loadSaved() {
+        Path path = properties.getPath();
+        if (path == null || !Files.exists(path)) {
+            return properties.getRefreshInterval();
+        }
+        try {
+            List<String> saved = Files.readAllLines(path, StandardCharsets.UTF_8).stream()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty())
+                    .distinct()
+                    .collect(Collectors.toList());
+            if (saved.isEmpty()) {
+                return properties.getRefreshInterval();
+            }
+            long savedAt = Files.getLastModifiedTime(path).toMillis();
+            loadedAt = savedAt;
+            images = List.copyOf(saved);
+            log.info("Loaded dog image catalog of {} images from {}", images.size(), path);
+            return Duration.ofMillis(clock.millis() - savedAt);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable dog image catalog {}: {}", path, e.getMessage());
+            return properties.getRefreshInterval();
+        }
+    }
+
+    private void save() {
+        Path path = properties.getPath();
+        if (path == null) {
+            return;
+        }
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.write(temp, images, StandardCharsets.UTF_8);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to save dog image catalog to {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.userpet_api.service;
+
+import com.example.userpet_api.config.DogImagePoolProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Bounded buffer of dog image URLs kept filled in the background.
+ *
+ * <p>Dog CEO images are random, so any URL is as good as another. Requests take URLs from the
+ * buffer without network I/O and only call the loader directly when the buffer runs dry.
+ */
+@Slf4j
+public class DogImagePool implements AutoCloseable {
+    // Weight of the latest sample in the drain rate moving average
+    private static final double DRAIN_RATE_ALPHA = 0.3;
+
+    private final DogImagePoolProperties properties;
+    private final IntFunction<List<String>> loader;
+    private final BlockingQueue<String> buffer;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService refillExecutor;
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    private final AtomicLong taken = new AtomicLong();
+    private final AtomicLong directFetches = new AtomicLong();
+    private long lastTakenSample;
+    private long lastSampleNanos = System.nanoTime();
+    private volatile double drainRatePerSecond;
+
+    public DogImagePool(DogImagePoolProperties properties, IntFunction<List<String>> loader) {
+        this.properties = properties;
+        this.loader = loader;
+        this.buffer = new ArrayBlockingQueue<>(properties.getCapacity());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemon("dog-image-pool"));
+        this.refillExecutor = Executors.newFixedThreadPool(properties.getRefillConcurrency(), daemon("dog-image-refill"));
+    }
+
+    public void start() {
+        long intervalMillis = properties.getRefillInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::tick, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Dog image pool started (capacity {}, low-water mark {})",
+                properties.getCapacity(), properties.getLowWaterMark());
+    }
+
+    /**
+     * Takes {@code count} image URLs from the buffer, loading any shortfall directly.
+     */
+    public List<String> take(int count) {
+        List<String> images = new ArrayList<>(count);
+        buffer.drainTo(images, count);
+        taken.addAndGet(images.size());
+
+        if (buffer.size() < properties.getLowWaterMark()) {
+            scheduler.execute(this::refill);
+        }
+        if (images.size() < count) {
+            directFetches.incrementAndGet();
+            log.debug("Dog image pool ran dry, fetching {} images directly", count - images.size());
+            images.addAll(loader.apply(count - images.size()));
+        }
+        return images;
+    }
+
+    public int getDepth() {
+        return buffer.size();
+    }
+
+    public int getCapacity() {
+        return properties.getCapacity();
+    }
+
+    public long getTakenCount() {
+        return taken.get();
+    }
+
+    public long getDirectFetchCount() {
+        return directFetches.get();
+    }
+
+    // Images taken per second, smoothed over recent refill intervals
+    public double getDrainRatePerSecond() {
+        return drainRatePerSecond;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        refillExecutor.shutdownNow();
+    }
+
+    private void tick() {
+        sampleDrainRate();
+        refill();
+    }
+
+    private void sampleDrainRate() {
+        long now = System.nanoTime();
+        long total = taken.get();
+        double seconds = (now - lastSampleNanos) / 1_000_000_000.0;
+        if (seconds > 0) {
+            double sample = (total - lastTakenSample) / seconds;
+            drainRatePerSecond = DRAIN_RATE_ALPHA * sample + (1 - DRAIN_RATE_ALPHA) * drainRatePerSecond;
+        }
+        lastTakenSample = total;
+        lastSampleNanos = now;
+    }
+
+    void refill() {
+        if (buffer.size() >= properties.getLowWaterMark() || !refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // Top the buffer up towards capacity, stopping early if upstream stops returning images
+            int added;
+            do {
+                int missing = properties.getCapacity() - buffer.size();
+                int batches = Math.min(properties.getRefillConcurrency(),
+                        (missing + properties.getBatchSize() - 1) / properties.getBatchSize());
+                List<Callable<Integer>> calls = new ArrayList<>(batches);
+                for (int i = 0; i < batches; i++) {
+                    calls.add(this::loadBatch);
+                }
+                added = 0;
+                for (Future<Integer> result : refillExecutor.invokeAll(calls)) {
+                    added += result.get();
+                }
+            } while (added > 0 && buffer.remainingCapacity() >= properties.getBatchSize());
+            log.debug("Refilled dog image pool (depth {})", buffer.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Dog image pool refill failed: {}", e.getMessage());
+        } finally {
+            refilling.set(false);
+        }
+    }
+
+    private int loadBatch() {
+        int added = 0;
+        for (String image : loader.apply(properties.getBatchSize())) {
+            if (!buffer.offer(image)) {
+                break;
+            }
+            added++;
+        }
+        return added;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
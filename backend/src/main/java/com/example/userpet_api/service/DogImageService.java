@@ -1,7 +1,32 @@
 package com.example.userpet_api.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface DogImageService {
     List<String> fetchRandomDogImages(int count);
+
+    /**
+     * Streaming variant of {@link #fetchRandomDogImages(int)}: hands the images to {@code sink} in
+     * order, a chunk at a time, on the calling thread. Implementations that fetch in chunks pass
+     * each one on as soon as it and the ones before it have arrived.
+     */
+    default void streamRandomDogImages(int count, Consumer<List<String>> sink) {
+        sink.accept(fetchRandomDogImages(count));
+    }
+
+    /**
+     * Whether images can be assigned with {@link #catalogImageFor(String)} instead of fetched.
+     */
+    default boolean isCatalogReady() {
+        return false;
+    }
+
+    /**
+     * Image for {@code key} from a local catalog: the same key gets the same image until the
+     * catalog is refreshed. Returns {@code null} when there is no catalog.
+     */
+    default String catalogImageFor(String key) {
+        return null;
+    }
 }
@@ -1,5 +1,19 @@
 package com.example.userpet_api.service;
 
+import com.example.userpet_api.config.Constants;
+import com.example.userpet_api.config.DogImageCatalogProperties;
+import com.example.userpet_api.config.DogImageFetchProperties;
+import com.example.userpet_api.config.DogImagePoolProperties;
+import com.example.userpet_api.config.UpstreamExecutorConfig;
+import com.example.userpet_api.config.UpstreamHttpClientConfig;
+import com.example.userpet_api.resilience.UpstreamGuard;
+import com.example.userpet_api.resilience.UpstreamGuards;
+import com.example.userpet_api.resilience.UpstreamUnavailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.RestClientException;
@@ -7,19 +21,111 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 
 @Service
+@Slf4j
 public class DogImageServiceImpl implements DogImageService {
-    private static final String API_URL = "https://dog.ceo/api/breeds/image/random/%d";
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+    private final String baseUrl;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DogImagePoolProperties poolProperties;
+    private final DogImageCatalogProperties catalogProperties;
+    private final UpstreamGuard guard;
+    private final ChunkedImageFetcher chunkedFetcher;
+    private DogImagePool pool;
+    private DogImageCatalog catalog;
+
+    public DogImageServiceImpl() {
+        this(UpstreamHttpClientConfig.createRestTemplate(), new DogImagePoolProperties(),
+                new DogImageCatalogProperties(), new DogImageFetchProperties(), new UpstreamGuards(),
+                UpstreamExecutorConfig.standaloneNestedExecutor());
+    }
+
+    @Autowired
+    public DogImageServiceImpl(RestTemplate upstreamRestTemplate, DogImagePoolProperties poolProperties,
+                               DogImageCatalogProperties catalogProperties, DogImageFetchProperties fetchProperties,
+                               UpstreamGuards guards,
+                               @Qualifier(UpstreamExecutorConfig.NESTED_EXECUTOR) ExecutorService chunkExecutor) {
+        this.restTemplate = upstreamRestTemplate;
+        this.baseUrl = fetchProperties.getBaseUrl().replaceAll("/+$", "");
+        this.poolProperties = poolProperties;
+        this.catalogProperties = catalogProperties;
+        this.guard = guards.forUpstream(UpstreamGuards.DOG_CEO);
+        this.chunkedFetcher = new ChunkedImageFetcher(fetchProperties.getChunkSize(),
+                fetchProperties.getMaxConcurrency(), chunkExecutor);
+    }
+
+    @PostConstruct
+    void startPool() {
+        if (poolProperties.isEnabled()) {
+            pool = new DogImagePool(poolProperties, this::fetchFromUpstream);
+            pool.start();
+        }
+        if (catalogProperties.isEnabled()) {
+            catalog = new DogImageCatalog(catalogProperties, this::fetchFromUpstream);
+            catalog.start();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (pool != null) {
+            pool.close();
+        }
+        if (catalog != null) {
+            catalog.close();
+        }
+    }
+
+    // Present only in pool mode
+    public DogImagePool getPool() {
+        return pool;
+    }
+
+    // Present only in catalog mode
+    public DogImageCatalog getCatalog() {
+        return catalog;
+    }
+
+    @Override
+    public boolean isCatalogReady() {
+        return catalog != null && catalog.isReady();
+    }
+
+    @Override
+    public String catalogImageFor(String key) {
+        return catalog == null ? null : catalog.imageFor(key);
+    }
 
     @Override
     public List<String> fetchRandomDogImages(int count) {
+        if (pool != null) {
+            return pool.take(count);
+        }
+        return fetchFromUpstream(count);
+    }
+
+    @Override
+    public void streamRandomDogImages(int count, Consumer<List<String>> sink) {
+        if (pool != null) {
+            sink.accept(pool.take(count));
+            return;
+        }
+        chunkedFetcher.fetch(count, this::fetchChunk, sink);
+    }
+
+    // Counts above one upstream call's limit are loaded as parallel chunks
+    List<String> fetchFromUpstream(int count) {
+        return chunkedFetcher.fetch(count, this::fetchChunk);
+    }
+
+    private List<String> fetchChunk(int count) {
         List<String> images = new ArrayList<>();
         try {
-            String url = String.format(API_URL, count);
-            String response = restTemplate.getForObject(url, String.class);
+            String url = baseUrl + String.format(Constants.API_PATH_DOG_IMAGE, count);
+            String response = guard.execute(() -> restTemplate.getForObject(url, String.class));
             JsonNode root = objectMapper.readTree(response);
             JsonNode message = root.path("message");
             if (message.isArray()) {
@@ -29,10 +135,13 @@ public class DogImageServiceImpl implements DogImageService {
             } else if (message.isTextual()) {
                 images.add(message.asText());
             }
+        } catch (UpstreamUnavailableException e) {
+            // Breaker is open: fail fast instead of returning an empty list that drops every user
+            throw e;
         } catch (RestClientException | NullPointerException | IllegalArgumentException e) {
-            // Log error and return empty list or partial results
+            log.warn("Failed to fetch dog images from Dog CEO API: {}", e.getMessage());
         } catch (Exception e) {
-            // Log error
+            log.warn("Unexpected error processing Dog CEO API response: {}", e.getMessage());
         }
         return images;
     }
@@ -0,0 +1,151 @@
+package com.example.userpet_api.service;
+
+import com.example.userpet_api.cache.ImageDiskCache;
+import com.example.userpet_api.config.Constants;
+import com.example.userpet_api.config.ImageProxyProperties;
+import com.example.userpet_api.config.UpstreamHttpProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Serves Dog CEO images from the local {@link ImageDiskCache} instead of sending every browser to
+ * the upstream CDN. When enabled, {@code petImage} URLs under {@code upstream-base-url} are
+ * rewritten to {@code /api/images/<upstream path>}. Each image is downloaded once, on the first
+ * request for it; concurrent requests for the same uncached image share that download.
+ *
+ * <p>Only paths that look like image files are accepted, and only from the configured upstream,
+ * so the endpoint cannot be used to fetch arbitrary URLs.
+ */
+@Service
+@Slf4j
+public class ImageProxyService {
+    // Segments may not start with a dot, which rules out "..", hidden files and temporary files
+    private static final Pattern IMAGE_PATH = Pattern.compile(
+            "(?:[A-Za-z0-9_-][A-Za-z0-9_.-]*/)*[A-Za-z0-9_-][A-Za-z0-9_.-]*\\.(?i:jpe?g|png|gif|webp)");
+
+    private final ImageProxyProperties properties;
+    private final ImageDiskCache cache;
+    private final RestTemplate restTemplate;
+    private final ExecutorService upstreamExecutor;
+    private final Duration timeout;
+    private final String upstreamPrefix;
+    private final SingleFlight<String, ImageDiskCache.CachedImage> downloads = new SingleFlight<>();
+
+    @Autowired
+    public ImageProxyService(ImageProxyProperties properties, ImageDiskCache cache, RestTemplate upstreamRestTemplate,
+                             ExecutorService upstreamExecutor, UpstreamHttpProperties httpProperties) {
+        this.properties = properties;
+        this.cache = cache;
+        this.restTemplate = upstreamRestTemplate;
+        this.upstreamExecutor = upstreamExecutor;
+        this.timeout = httpProperties.getTotalTimeout();
+        this.upstreamPrefix = properties.getUpstreamBaseUrl().replaceAll("/+$", "") + "/";
+    }
+
+    /**
+     * Proxy that leaves every image URL unchanged, for code constructed outside Spring.
+     */
+    public static ImageProxyService disabled() {
+        return new ImageProxyService(new ImageProxyProperties(), null, null, null, new UpstreamHttpProperties());
+    }
+
+    /**
+     * The local URL serving {@code imageUrl}, or {@code imageUrl} itself when the proxy is off or
+     * the image is not from the configured upstream.
+     */
+    public String toLocalUrl(String imageUrl) {
+        String path = toPath(imageUrl);
+        return path != null ? Constants.ENDPOINT_IMAGES + "/" + path : imageUrl;
+    }
+
+    /**
+     * The upstream path of {@code imageUrl}, or {@code null} when the proxy is off or would not
+     * serve that image.
+     */
+    public String toPath(String imageUrl) {
+        if (!properties.isEnabled() || imageUrl == null || !imageUrl.startsWith(upstreamPrefix)) {
+            return null;
+        }
+        String path = imageUrl.substring(upstreamPrefix.length());
+        return isImagePath(path) ? path : null;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Returns the cached copy of the upstream image at {@code path}, downloading it first if needed.
+     *
+     * @throws ResponseStatusException 404 when the proxy is off, the path is not an image path or
+     *                                 the upstream has no such image; 502 when the download failed
+     *                                 or took longer than the upstream total timeout
+     */
+    public ImageDiskCache.CachedImage getImage(String path) {
+        if (!properties.isEnabled() || !isImagePath(path)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        ImageDiskCache.CachedImage cached = cache.get(path);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<ImageDiskCache.CachedImage> download = downloads.execute(path,
+                () -> CompletableFuture.supplyAsync(() -> download(path), upstreamExecutor));
+        try {
+            return download.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Interrupted loading image", e);
+        } catch (TimeoutException e) {
+            log.warn("Image {} was not downloaded within {}", path, timeout);
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Image download timed out", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ResponseStatusException) {
+                throw (ResponseStatusException) e.getCause();
+            }
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Image download failed", e.getCause());
+        }
+    }
+
+    static boolean isImagePath(String path) {
+        return path != null && IMAGE_PATH.matcher(path).matches();
+    }
+
+    private ImageDiskCache.CachedImage download(String path) {
+        URI uri = URI.create(upstreamPrefix + path);
+        log.debug("Downloading {} into the image cache", uri);
+        try {
+            return restTemplate.execute(uri, HttpMethod.GET, null, response -> {
+                MediaType contentType = response.getHeaders().getContentType();
+                if (contentType != null && !"image".equals(contentType.getType())) {
+                    throw new IOException("Expected an image from " + uri + " but got " + contentType);
+                }
+                return cache.put(path, response.getBody());
+            });
+        } catch (HttpClientErrorException.NotFound e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        } catch (RestClientException e) {
+            log.warn("Failed to download image {}: {}", uri, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Image download failed", e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.userpet_api.service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Downscaling with the JDK's own ImageIO codecs and Java2D, so thumbnails need no native library.
+ */
+final class ImageScaler {
+    // Larger images are refused rather than decoded: 40 megapixels is about 160 MB as RGB ints
+    static final long MAX_SOURCE_PIXELS = 40_000_000L;
+
+    private ImageScaler() {
+    }
+
+    /**
+     * Decodes {@code file}, skipping pixels while decoding when the image is at least twice as large
+     * as needed for {@code maxEdge}. Skipped pixels are never allocated, which keeps large photos
+     * cheap, and the result still leaves {@link #scale} at least one smoothing step.
+     *
+     * @return the image, or {@code null} when no installed reader can decode it
+     */
+    static BufferedImage read(Path file, int maxEdge) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_SOURCE_PIXELS) {
+                    throw new IOException("Image is " + width + "x" + height + ", larger than "
+                        + MAX_SOURCE_PIXELS + " pixels");
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(width, height) / (2 * maxEdge);
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales {@code source} so its longest edge is {@code maxEdge}, keeping the aspect ratio.
+     * Images already that small are returned as they are.
+     *
+     * <p>Bilinear scaling in one step skips most source pixels when shrinking by more than half and
+     * looks jagged. Halving repeatedly until the target is reached averages every pixel at a cost of
+     * about a third more work than the first step alone.
+     */
+    static BufferedImage scale(BufferedImage source, int maxEdge) {
+        int longest = Math.max(source.getWidth(), source.getHeight());
+        if (longest <= maxEdge) {
+            return source;
+        }
+        double ratio = (double) maxEdge / longest;
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        int type = source.getTransparency() == Transparency.OPAQUE
+            ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    /**
+     * Encodes {@code image} as {@code format} ("jpeg" or "png"), in memory so ImageIO does not
+     * create temporary files.
+     */
+    static byte[] write(BufferedImage image, String format, float jpegQuality) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+        if (!writers.hasNext()) {
+            throw new IOException("No image writer for " + format);
+        }
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = new MemoryCacheImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if ("jpeg".equals(format)) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+            }
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
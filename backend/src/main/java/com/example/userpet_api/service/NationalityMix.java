@@ -0,0 +1,124 @@
+package com.example.userpet_api.service;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A {@code nat} parameter listing several nationalities, optionally weighted, such as
+ * {@code FI,US,GB} or {@code FI:3,US:1}.
+ *
+ * <p>The requested count is split between the nationalities in proportion to their weights, and
+ * the per-nationality results are interleaved by smooth weighted round-robin, so {@code FI:2,US}
+ * gives FI, US, FI, FI, US, FI rather than all FI users first. Equal weights give plain
+ * round-robin.
+ */
+@Value
+class NationalityMix {
+    private static final int MAX_WEIGHT = 100;
+
+    List<String> codes;
+    int[] weights;
+
+    /**
+     * Parses a {@code nat} parameter. Codes are upper-cased and de-duplicated (their weights
+     * added up); missing or invalid weights count as 1.
+     */
+    static NationalityMix parse(String nationality) {
+        Map<String, Integer> weighted = new LinkedHashMap<>();
+        if (nationality != null) {
+            for (String part : nationality.split(",")) {
+                String[] codeAndWeight = part.split(":", 2);
+                String code = codeAndWeight[0].trim().toUpperCase(Locale.ROOT);
+                if (!code.isEmpty()) {
+                    int weight = codeAndWeight.length > 1 ? parseWeight(codeAndWeight[1]) : 1;
+                    weighted.merge(code, weight, (a, b) -> Math.min(MAX_WEIGHT, a + b));
+                }
+            }
+        }
+        return new NationalityMix(List.copyOf(weighted.keySet()),
+                weighted.values().stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    int size() {
+        return codes.size();
+    }
+
+    // Codes only, comma separated, as RandomUser expects them
+    String toUpstreamParameter() {
+        return String.join(",", codes);
+    }
+
+    /**
+     * Users to request per nationality: {@code count} split by weight, with the remainder going
+     * to the largest fractional shares (ties to the earlier nationality).
+     */
+    int[] quotas(int count) {
+        int totalWeight = 0;
+        for (int weight : weights) {
+            totalWeight += weight;
+        }
+        int[] quotas = new int[weights.length];
+        long[] remainders = new long[weights.length];
+        int assigned = 0;
+        for (int i = 0; i < weights.length; i++) {
+            long share = (long) count * weights[i];
+            quotas[i] = (int) (share / totalWeight);
+            remainders[i] = share % totalWeight;
+            assigned += quotas[i];
+        }
+        for (; assigned < count; assigned++) {
+            int largest = 0;
+            for (int i = 1; i < remainders.length; i++) {
+                if (remainders[i] > remainders[largest]) {
+                    largest = i;
+                }
+            }
+            quotas[largest]++;
+            remainders[largest] = -1;
+        }
+        return quotas;
+    }
+
+    /**
+     * Interleaves the per-nationality lists by smooth weighted round-robin. A list that runs out
+     * early drops out and the others continue.
+     */
+    <T> List<T> merge(List<List<T>> partitions) {
+        int total = 0;
+        for (List<T> partition : partitions) {
+            total += partition.size();
+        }
+        List<T> merged = new ArrayList<>(total);
+        int[] next = new int[partitions.size()];
+        int[] current = new int[partitions.size()];
+        while (merged.size() < total) {
+            int activeWeight = 0;
+            int pick = -1;
+            for (int i = 0; i < partitions.size(); i++) {
+                if (next[i] < partitions.get(i).size()) {
+                    current[i] += weights[i];
+                    activeWeight += weights[i];
+                    if (pick < 0 || current[i] > current[pick]) {
+                        pick = i;
+                    }
+                }
+            }
+            current[pick] -= activeWeight;
+            merged.add(partitions.get(pick).get(next[pick]++));
+        }
+        return merged;
+    }
+
+    private static int parseWeight(String weight) {
+        try {
+            return Math.max(1, Math.min(MAX_WEIGHT, Integer.parseInt(weight.trim())));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+}
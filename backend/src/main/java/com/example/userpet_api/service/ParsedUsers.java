@@ -0,0 +1,20 @@
+package com.example.userpet_api.service;
+
+import com.example.userpet_api.model.UserWithPet;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Valid users parsed from a RandomUser response, with each user's index in the upstream
+ * {@code results} array (users rejected by validation leave gaps).
+ */
+@Value
+public class ParsedUsers {
+    List<UserWithPet> users;
+    int[] positions;
+
+    public static ParsedUsers empty() {
+        return new ParsedUsers(List.of(), new int[0]);
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.userpet_api.service;
+
+import com.example.userpet_api.model.UserWithPet;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.NumberInput;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming parser for RandomUser API responses.
+ *
+ * <p>Builds users field by field straight from the response stream, so no response String or
+ * {@code JsonNode} tree is materialized. Field values follow {@code JsonNode.asText()} /
+ * {@code asInt()} semantics, so results match the tree-based mapping in
+ * {@link RandomUserServiceImpl}.
+ */
+public class RandomUserJsonParser {
+    private static final String MISSING = "";
+
+    private final JsonFactory jsonFactory;
+
+    public RandomUserJsonParser() {
+        this(new JsonFactory());
+    }
+
+    public RandomUserJsonParser(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    public ParsedUsers parse(InputStream body) throws IOException {
+        if (body == null) {
+            return ParsedUsers.empty();
+        }
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return ParsedUsers.empty();
+            }
+            ParsedUsers result = ParsedUsers.empty();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("results".equals(field) && value == JsonToken.START_ARRAY) {
+                    result = parseResults(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return result;
+        }
+    }
+
+    private ParsedUsers parseResults(JsonParser parser) throws IOException {
+        List<UserWithPet> users = new ArrayList<>();
+        int[] positions = new int[16];
+        int position = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            UserWithPet user = parseUser(parser);
+            if (user != null && RandomUserServiceImpl.isValidUser(user)) {
+                if (users.size() == positions.length) {
+                    positions = Arrays.copyOf(positions, positions.length * 2);
+                }
+                positions[users.size()] = position;
+                users.add(user);
+            }
+            position++;
+        }
+        return new ParsedUsers(users, Arrays.copyOf(positions, users.size()));
+    }
+
+    private UserWithPet parseUser(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String gender = MISSING;
+        String nat = MISSING;
+        String email = MISSING;
+        String phone = MISSING;
+        String first = MISSING;
+        String last = MISSING;
+        String dobDate = MISSING;
+        int age = 0;
+        String id = MISSING;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "gender": gender = asText(parser); break;
+                case "nat": nat = asText(parser); break;
+                case "email": email = asText(parser); break;
+                case "phone": phone = asText(parser); break;
+                case "name":
+                    if (parser.currentToken() != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        first = MISSING;
+                        last = MISSING;
+                        break;
+                    }
+                    first = MISSING;
+                    last = MISSING;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String nameField = parser.currentName();
+                        parser.nextToken();
+                        if ("first".equals(nameField)) {
+                            first = asText(parser);
+                        } else if ("last".equals(nameField)) {
+                            last = asText(parser);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    break;
+                case "dob":
+                    dobDate = MISSING;
+                    age = 0;
+                    if (parser.currentToken() != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        break;
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String dobField = parser.currentName();
+                        parser.nextToken();
+                        if ("date".equals(dobField)) {
+                            dobDate = asText(parser);
+                        } else if ("age".equals(dobField)) {
+                            age = asInt(parser);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    break;
+                case "id":
+                    id = MISSING;
+                    if (parser.currentToken() != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        break;
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String idField = parser.currentName();
+                        parser.nextToken();
+                        if ("value".equals(idField)) {
+                            id = asText(parser);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        return UserWithPet.builder()
+            .id(id.isEmpty() ? null : id)
+            .gender(gender)
+            .country(nat)
+            .name(first + " " + last)
+            .email(email)
+            .dob(UserWithPet.Dob.builder()
+                .date(dobDate)
+                .age(age)
+                .build())
+            .phone(phone)
+            .build();
+    }
+
+    // Same result as JsonNode.asText() for the current value
+    private static String asText(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_STRING:
+            case VALUE_NUMBER_INT:
+                return parser.getText();
+            case VALUE_NUMBER_FLOAT:
+                return String.valueOf(parser.getDoubleValue());
+            case VALUE_TRUE:
+                return "true";
+            case VALUE_FALSE:
+                return "false";
+            case VALUE_NULL:
+                return "null";
+            default:
+                parser.skipChildren();
+                return MISSING;
+        }
+    }
+
+    // Same result as JsonNode.asInt() for the current value
+    private static int asInt(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue().intValue();
+            case VALUE_STRING:
+                return NumberInput.parseAsInt(parser.getText(), 0);
+            case VALUE_TRUE:
+                return 1;
+            default:
+                parser.skipChildren();
+                return 0;
+        }
+    }
+}
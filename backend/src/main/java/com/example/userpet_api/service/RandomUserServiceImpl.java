@@ -1,26 +1,82 @@
 package com.example.userpet_api.service;
 
+import com.example.userpet_api.cache.RandomUserCache;
+import com.example.userpet_api.cache.RandomUserSnapshot;
 import com.example.userpet_api.config.Constants;
+import com.example.userpet_api.config.RandomUserProperties;
+import com.example.userpet_api.config.UpstreamExecutorConfig;
+import com.example.userpet_api.config.UpstreamHttpClientConfig;
+import com.example.userpet_api.config.UserCacheProperties;
+import com.example.userpet_api.metrics.UserPetMetrics;
 import com.example.userpet_api.model.UserWithPet;
+import com.example.userpet_api.resilience.UpstreamGuard;
+import com.example.userpet_api.resilience.UpstreamGuards;
+import com.example.userpet_api.resilience.UpstreamUnavailableException;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.RestClientException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 
 @Service
 @Slf4j
 public class RandomUserServiceImpl implements RandomUserService {
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final RandomUserJsonParser userParser;
+    private final RandomUserCache userCache;
+    private final RandomUserSnapshot userSnapshot;
+    private final RandomUserProperties properties;
+    private final String baseUrl;
+    private final UpstreamGuard guard;
+    private final UserPetMetrics metrics;
+    private final ExecutorService partitionExecutor;
 
     public RandomUserServiceImpl() {
-        this.restTemplate = new RestTemplate();
+        this(new RandomUserCache(new UserCacheProperties()));
+    }
+
+    private RandomUserServiceImpl(RandomUserCache userCache) {
+        // Snapshots are off by default, so nothing is read from or written to disk
+        this(UpstreamHttpClientConfig.createRestTemplate(), userCache,
+                new RandomUserSnapshot(userCache, new UserCacheProperties()),
+                new RandomUserProperties(), new UpstreamGuards(), UserPetMetrics.standalone(),
+                UpstreamExecutorConfig.standaloneNestedExecutor());
+    }
+
+    @Autowired
+    public RandomUserServiceImpl(RestTemplate upstreamRestTemplate, RandomUserCache userCache,
+                                 RandomUserSnapshot userSnapshot, RandomUserProperties properties,
+                                 UpstreamGuards guards, UserPetMetrics metrics,
+                                 @Qualifier(UpstreamExecutorConfig.NESTED_EXECUTOR) ExecutorService partitionExecutor) {
+        this.metrics = metrics;
+        this.restTemplate = upstreamRestTemplate;
+        this.guard = guards.forUpstream(UpstreamGuards.RANDOM_USER);
         this.objectMapper = new ObjectMapper();
+        this.userParser = new RandomUserJsonParser(objectMapper.getFactory());
+        this.userCache = userCache;
+        this.userSnapshot = userSnapshot;
+        this.properties = properties;
+        this.baseUrl = properties.getBaseUrl().replaceAll("/+$", "");
+        this.partitionExecutor = partitionExecutor;
+    }
+
+    // The blocking client refreshes the shared cache on both stacks: refreshes run off the request path
+    @PostConstruct
+    void startCacheRefresh() {
+        userCache.startRefreshing(this::refreshCachedUsers);
     }
 
     @Override
@@ -41,34 +97,39 @@ public class RandomUserServiceImpl implements RandomUserService {
             count = Constants.DEFAULT_USER_COUNT;
         }
 
-        try {
-            // Build URL with or without nationality filter
-            String url;
-            if (nationality != null && !nationality.trim().isEmpty()) {
-                // Using fixed seed with nationality filter for consistent results
-                url = String.format(Constants.API_URL_RANDOM_USER_WITH_NAT,
-                        count, Constants.FIXED_SEED, nationality.toUpperCase());
-            } else {
-                // Using fixed seed without nationality filter
-                url = String.format(Constants.API_URL_RANDOM_USER, count, Constants.FIXED_SEED);
+        NationalityMix mix = NationalityMix.parse(nationality);
+        if (mix.size() > 1) {
+            if (properties.getMultiNationality() == RandomUserProperties.MultiNationality.PARALLEL) {
+                return fetchPartitioned(count, mix);
             }
-            log.debug("Calling RandomUser API with URL: {}", url);
-            String response = restTemplate.getForObject(url, String.class);
+            nationality = mix.toUpstreamParameter();
+        } else if (mix.size() == 1) {
+            // Drops a weight given to a single nationality, e.g. FI:2
+            nationality = mix.getCodes().get(0);
+        }
+
+        // The seed makes results deterministic, so a cached larger result can serve this request
+        List<UserWithPet> cached = userCache.get(nationality, count);
+        if (cached != null) {
+            log.debug("Serving {} users from cache", cached.size());
+            return cached;
+        }
+
+        try {
+            ParsedUsers parsed = fetchFromUpstream(count, nationality);
 
-            if (response == null) {
-                log.warn("Received null response from RandomUser API");
+            if (parsed == null || parsed.getUsers().isEmpty()) {
+                log.warn("Received no users from RandomUser API");
                 return List.of();
             }
-            
-            JsonNode root = objectMapper.readTree(response);
-            JsonNode results = root.path("results");
-            
-            return StreamSupport.stream(results.spliterator(), false)
-                .map(this::mapJsonNodeToUser)
-                .filter(Objects::nonNull)
-                .filter(this::isValidUser)
-                .collect(Collectors.toList());
-                
+
+            userCache.put(nationality, count, parsed.getUsers(), parsed.getPositions());
+            userSnapshot.scheduleWrite();
+            return parsed.getUsers();
+
+        } catch (UpstreamUnavailableException e) {
+            // Breaker is open: fail fast instead of returning an empty list
+            throw e;
         } catch (RestClientException e) {
             log.error("Network error fetching users from RandomUser API", e);
         } catch (Exception e) {
@@ -78,6 +139,113 @@ public class RandomUserServiceImpl implements RandomUserService {
         return List.of();
     }
 
+    // Called by the user cache on its refresh thread; throwing keeps the cached copy
+    private void refreshCachedUsers(String nationality, int count) {
+        ParsedUsers parsed;
+        try {
+            parsed = fetchFromUpstream(count, nationality);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (parsed == null || parsed.getUsers().isEmpty()) {
+            throw new IllegalStateException("RandomUser API returned no users");
+        }
+        userCache.put(nationality, count, parsed.getUsers(), parsed.getPositions());
+        userSnapshot.scheduleWrite();
+    }
+
+    private ParsedUsers fetchFromUpstream(int count, String nationality) throws IOException {
+        // Build URL with or without nationality filter
+        String url;
+        if (nationality != null && !nationality.trim().isEmpty()) {
+            // Using fixed seed with nationality filter for consistent results
+            url = baseUrl + String.format(Constants.API_PATH_RANDOM_USER_WITH_NAT,
+                    count, Constants.FIXED_SEED, nationality.toUpperCase());
+        } else {
+            // Using fixed seed without nationality filter
+            url = baseUrl + String.format(Constants.API_PATH_RANDOM_USER, count, Constants.FIXED_SEED);
+        }
+        log.debug("Calling RandomUser API with URL: {}", url);
+        return properties.getParser() == RandomUserProperties.Parser.TREE
+            ? timedParseTree(guard.execute(() -> restTemplate.getForObject(url, String.class)))
+            : guard.execute(() -> restTemplate.execute(url, HttpMethod.GET, null,
+                response -> timedParse(response.getBody())));
+    }
+
+    /**
+     * Fetches each nationality's share of {@code count} concurrently and interleaves the results.
+     * Each share goes through {@link #fetchRandomUsers(int, String)}, so it is cached per
+     * nationality and served from the cache when another mix includes it.
+     */
+    private List<UserWithPet> fetchPartitioned(int count, NationalityMix mix) {
+        int[] quotas = mix.quotas(count);
+        List<CompletableFuture<List<UserWithPet>>> partitions = new ArrayList<>(mix.size());
+        for (int i = 0; i < mix.size(); i++) {
+            int quota = quotas[i];
+            String code = mix.getCodes().get(i);
+            partitions.add(quota == 0
+                ? CompletableFuture.completedFuture(List.of())
+                : CompletableFuture.supplyAsync(() -> fetchRandomUsers(quota, code), partitionExecutor));
+        }
+        log.debug("Fetching {} users as {} nationality partitions {}", count, mix.size(), Arrays.toString(quotas));
+
+        List<List<UserWithPet>> results = new ArrayList<>(partitions.size());
+        try {
+            for (CompletableFuture<List<UserWithPet>> partition : partitions) {
+                results.add(partition.join());
+            }
+        } catch (CompletionException e) {
+            partitions.forEach(partition -> partition.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return mix.merge(results);
+    }
+
+    // Streaming parse time includes reading the body from the socket, as the two are interleaved
+    private ParsedUsers timedParse(InputStream body) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return userParser.parse(body);
+        } finally {
+            metrics.recordStage(UserPetMetrics.Stage.PARSE, System.nanoTime() - start);
+        }
+    }
+
+    private ParsedUsers timedParseTree(String response) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return parseTree(response);
+        } finally {
+            metrics.recordStage(UserPetMetrics.Stage.PARSE, System.nanoTime() - start);
+        }
+    }
+
+    // Tree-based parsing, kept as the reference for RandomUserJsonParser and selectable via configuration
+    ParsedUsers parseTree(String response) throws IOException {
+        if (response == null) {
+            return ParsedUsers.empty();
+        }
+        JsonNode root = objectMapper.readTree(response);
+        JsonNode results = root.path("results");
+
+        // Remember each user's upstream position so the cache can slice prefixes correctly
+        List<UserWithPet> users = new ArrayList<>(results.size());
+        int[] positions = new int[results.size()];
+        int position = 0;
+        for (JsonNode node : results) {
+            UserWithPet user = mapJsonNodeToUser(node);
+            if (user != null && isValidUser(user)) {
+                positions[users.size()] = position;
+                users.add(user);
+            }
+            position++;
+        }
+        return new ParsedUsers(users, Arrays.copyOf(positions, users.size()));
+    }
+
     private UserWithPet mapJsonNodeToUser(JsonNode node) {
         try {
             return UserWithPet.builder()
@@ -109,7 +277,7 @@ public class RandomUserServiceImpl implements RandomUserService {
         return firstName + " " + lastName;
     }
 
-    private boolean isValidUser(UserWithPet user) {
+    static boolean isValidUser(UserWithPet user) {
         return user.getId() != null && 
                !user.getId().trim().isEmpty() &&
                user.getName() != null && 
@@ -0,0 +1,22 @@
+package com.example.userpet_api.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link DogImageService#fetchRandomDogImages(int)}, used with the
+ * reactive profile. Catalog images stay with {@link DogImageService}, as they need no I/O.
+ */
+public interface ReactiveDogImageService {
+    Mono<List<String>> fetchRandomDogImages(int count);
+
+    /**
+     * Streaming variant of {@link #fetchRandomDogImages(int)}: the images in order, one chunk per
+     * element, each emitted as soon as it and the chunks before it have arrived.
+     */
+    default Flux<List<String>> streamRandomDogImages(int count) {
+        return fetchRandomDogImages(count).flux();
+    }
+}
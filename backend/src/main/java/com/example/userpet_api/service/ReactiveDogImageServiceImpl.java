@@ -0,0 +1,103 @@
+package com.example.userpet_api.service;
+
+import com.example.userpet_api.config.Constants;
+import com.example.userpet_api.config.DogImageFetchProperties;
+import com.example.userpet_api.config.UpstreamHttpProperties;
+import com.example.userpet_api.resilience.UpstreamGuard;
+import com.example.userpet_api.resilience.UpstreamGuards;
+import com.example.userpet_api.resilience.UpstreamUnavailableException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link WebClient}-based Dog CEO client. Large counts are split into chunks as in
+ * {@link DogImageServiceImpl}, with up to {@code max-concurrency} chunk calls in flight and the
+ * results kept in chunk order.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveDogImageServiceImpl implements ReactiveDogImageService {
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final int chunkSize;
+    private final int maxConcurrency;
+    private final Duration totalTimeout;
+    private final UpstreamGuard guard;
+
+    public ReactiveDogImageServiceImpl(WebClient upstreamWebClient, DogImageFetchProperties fetchProperties,
+                                       UpstreamHttpProperties httpProperties, UpstreamGuards guards) {
+        this.webClient = upstreamWebClient;
+        this.baseUrl = fetchProperties.getBaseUrl().replaceAll("/+$", "");
+        this.chunkSize = Math.max(1, fetchProperties.getChunkSize());
+        this.maxConcurrency = Math.max(1, fetchProperties.getMaxConcurrency());
+        this.totalTimeout = httpProperties.getTotalTimeout();
+        this.guard = guards.forUpstream(UpstreamGuards.DOG_CEO);
+    }
+
+    @Override
+    public Mono<List<String>> fetchRandomDogImages(int count) {
+        return streamRandomDogImages(count)
+            .collectList()
+            .map(results -> {
+                List<String> images = new ArrayList<>(count);
+                results.forEach(images::addAll);
+                return images;
+            });
+    }
+
+    @Override
+    public Flux<List<String>> streamRandomDogImages(int count) {
+        int chunks = (count + chunkSize - 1) / chunkSize;
+        return Flux.range(0, chunks)
+            .flatMapSequential(chunk -> fetchChunk(Math.min(chunkSize, count - chunk * chunkSize)), maxConcurrency);
+    }
+
+    private Mono<List<String>> fetchChunk(int count) {
+        String url = baseUrl + String.format(Constants.API_PATH_DOG_IMAGE, count);
+        Mono<String> call = webClient.get()
+            .uri(URI.create(url))
+            .retrieve()
+            .bodyToMono(String.class)
+            .timeout(totalTimeout);
+        return guard.execute(call)
+            .map(this::parseImages)
+            .defaultIfEmpty(List.of())
+            // Breaker is open: fail fast instead of returning an empty list that drops every user
+            .onErrorResume(e -> !(e instanceof UpstreamUnavailableException), e -> {
+                log.warn("Failed to fetch dog images from Dog CEO API: {}", e.toString());
+                return Mono.just(List.of());
+            });
+    }
+
+    private List<String> parseImages(String response) {
+        List<String> images = new ArrayList<>();
+        try {
+            JsonNode message = objectMapper.readTree(response).path("message");
+            if (message.isArray()) {
+                for (JsonNode img : message) {
+                    images.add(img.asText());
+                }
+            } else if (message.isTextual()) {
+                images.add(message.asText());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return images;
+    }
+}
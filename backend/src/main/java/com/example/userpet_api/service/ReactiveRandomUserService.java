@@ -0,0 +1,15 @@
+package com.example.userpet_api.service;
+
+import com.example.userpet_api.model.UserWithPet;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link RandomUserService}, used with the reactive profile.
+ */
+public interface ReactiveRandomUserService {
+    // Emits the users once the response has been parsed; an empty list when the call failed
+    // @param nationality Nationality code or list (e.g., "FI", "FI,US:2") or null for no filter
+    Mono<List<UserWithPet>> fetchRandomUsers(int count, String nationality);
+}
@@ -0,0 +1,140 @@
+package com.example.userpet_api.service;
+
+import com.example.userpet_api.cache.RandomUserCache;
+import com.example.userpet_api.cache.RandomUserSnapshot;
+import com.example.userpet_api.config.Constants;
+import com.example.userpet_api.config.RandomUserProperties;
+import com.example.userpet_api.config.UpstreamHttpProperties;
+import com.example.userpet_api.metrics.UserPetMetrics;
+import com.example.userpet_api.model.UserWithPet;
+import com.example.userpet_api.resilience.UpstreamGuard;
+import com.example.userpet_api.resilience.UpstreamGuards;
+import com.example.userpet_api.resilience.UpstreamUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@link WebClient}-based RandomUser client. Shares the user cache, its snapshot and the circuit
+ * breaker with {@link RandomUserServiceImpl}, so both stacks see the same cached results and
+ * upstream health. Responses are always parsed with {@link RandomUserJsonParser}.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveRandomUserServiceImpl implements ReactiveRandomUserService {
+    private final WebClient webClient;
+    private final RandomUserCache userCache;
+    private final RandomUserSnapshot userSnapshot;
+    private final RandomUserProperties properties;
+    private final String baseUrl;
+    private final Duration totalTimeout;
+    private final UpstreamGuard guard;
+    private final UserPetMetrics metrics;
+    private final RandomUserJsonParser userParser = new RandomUserJsonParser();
+
+    public ReactiveRandomUserServiceImpl(WebClient upstreamWebClient, RandomUserCache userCache,
+                                         RandomUserSnapshot userSnapshot, RandomUserProperties properties,
+                                         UpstreamHttpProperties httpProperties, UpstreamGuards guards,
+                                         UserPetMetrics metrics) {
+        this.webClient = upstreamWebClient;
+        this.userCache = userCache;
+        this.userSnapshot = userSnapshot;
+        this.properties = properties;
+        this.baseUrl = properties.getBaseUrl().replaceAll("/+$", "");
+        this.totalTimeout = httpProperties.getTotalTimeout();
+        this.guard = guards.forUpstream(UpstreamGuards.RANDOM_USER);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Mono<List<UserWithPet>> fetchRandomUsers(int count, String nationality) {
+        if (count < Constants.MIN_USER_COUNT || count > Constants.MAX_USER_COUNT) {
+            log.warn("Invalid user count: {}. Must be between {} and {}",
+                    count, Constants.MIN_USER_COUNT, Constants.MAX_USER_COUNT);
+            count = Constants.DEFAULT_USER_COUNT;
+        }
+
+        NationalityMix mix = NationalityMix.parse(nationality);
+        if (mix.size() > 1) {
+            if (properties.getMultiNationality() == RandomUserProperties.MultiNationality.PARALLEL) {
+                return fetchPartitioned(count, mix);
+            }
+            nationality = mix.toUpstreamParameter();
+        } else if (mix.size() == 1) {
+            nationality = mix.getCodes().get(0);
+        }
+
+        List<UserWithPet> cached = userCache.get(nationality, count);
+        if (cached != null) {
+            log.debug("Serving {} users from cache", cached.size());
+            return Mono.just(cached);
+        }
+
+        String url = nationality != null && !nationality.trim().isEmpty()
+            ? baseUrl + String.format(Constants.API_PATH_RANDOM_USER_WITH_NAT,
+                count, Constants.FIXED_SEED, nationality.toUpperCase())
+            : baseUrl + String.format(Constants.API_PATH_RANDOM_USER, count, Constants.FIXED_SEED);
+        log.debug("Calling RandomUser API with URL: {}", url);
+
+        String cacheNationality = nationality;
+        int fetchedCount = count;
+        Mono<ParsedUsers> call = DataBufferUtils.join(webClient.get()
+                .uri(URI.create(url))
+                .retrieve()
+                .bodyToFlux(DataBuffer.class))
+            .map(this::parse)
+            .timeout(totalTimeout);
+        return guard.execute(call)
+            .map(parsed -> {
+                if (parsed.getUsers().isEmpty()) {
+                    log.warn("Received no users from RandomUser API");
+                    return List.<UserWithPet>of();
+                }
+                userCache.put(cacheNationality, fetchedCount, parsed.getUsers(), parsed.getPositions());
+                userSnapshot.scheduleWrite();
+                return parsed.getUsers();
+            })
+            .defaultIfEmpty(List.of())
+            // Breaker is open: fail fast instead of returning an empty list
+            .onErrorResume(e -> !(e instanceof UpstreamUnavailableException), e -> {
+                log.error("Error fetching users from RandomUser API: {}", e.toString());
+                return Mono.just(List.of());
+            });
+    }
+
+    // Same partitioning as the blocking service; partitions are fetched concurrently and merged in order
+    private Mono<List<UserWithPet>> fetchPartitioned(int count, NationalityMix mix) {
+        int[] quotas = mix.quotas(count);
+        return Flux.range(0, mix.size())
+            .flatMapSequential(i -> quotas[i] == 0
+                ? Mono.just(List.<UserWithPet>of())
+                : fetchRandomUsers(quotas[i], mix.getCodes().get(i)))
+            .collectList()
+            .map(mix::merge);
+    }
+
+    // The whole body is already in memory, so parsing on the event loop does not wait for I/O
+    private ParsedUsers parse(DataBuffer body) {
+        long start = System.nanoTime();
+        try (InputStream in = body.asInputStream(true)) {
+            return userParser.parse(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            metrics.recordStage(UserPetMetrics.Stage.PARSE, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.userpet_api.service;
+
+import com.example.userpet_api.config.AggregatorProperties;
+import com.example.userpet_api.metrics.UserPetMetrics;
+import com.example.userpet_api.model.UserWithPet;
+import com.example.userpet_api.query.UserQuery;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reactive counterpart of {@link UserWithPetAggregatorService}: the user and image fetches are
+ * subscribed to together and zipped, so no thread waits for either. Pairing and filtering are
+ * delegated to {@link UserWithPetAggregatorService#merge}, so both stacks return the same users.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveUserWithPetAggregatorService {
+    private final ReactiveRandomUserService randomUserService;
+    private final ReactiveDogImageService reactiveDogImageService;
+    // Catalog images need no I/O, so they come from the blocking service's catalog
+    private final DogImageService dogImageService;
+    private final UserWithPetAggregatorService aggregatorService;
+    private final AggregatorProperties properties;
+    private final UserPetMetrics metrics;
+
+    public Mono<List<UserWithPet>> getUsersWithPets(int count, String nationality, UserQuery query) {
+        return Mono.defer(() -> {
+            log.debug("Aggregating {} users with pet images reactively (nationality: {})", count,
+                    nationality != null ? nationality : "all");
+            int normalized = UserWithPetAggregatorService.normalizeCount(count);
+            long start = System.nanoTime();
+            Mono<List<UserWithPet>> users = randomUserService.fetchRandomUsers(normalized, nationality);
+            if (dogImageService.isCatalogReady()) {
+                return users.map(fetched -> {
+                    metrics.recordStage(UserPetMetrics.Stage.UPSTREAM, System.nanoTime() - start);
+                    return aggregatorService.merge(fetched, null, query);
+                });
+            }
+            return Mono.zip(users, reactiveDogImageService.fetchRandomDogImages(normalized), (fetched, images) -> {
+                metrics.recordStage(UserPetMetrics.Stage.UPSTREAM, System.nanoTime() - start);
+                log.debug("Retrieved {} users and {} pet images", fetched.size(), images.size());
+                return aggregatorService.merge(fetched, images, query);
+            });
+        })
+        // Cancels both fetches when the deadline passes
+        .transform(this::withDeadline);
+    }
+
+    /**
+     * Users for a streamed response, as in {@link UserWithPetAggregatorService#streamUsersWithPets}:
+     * the users arrive as one list and are fetched alongside the images, and each user is emitted
+     * as soon as the image chunk holding its image has arrived, so the first users go out after one
+     * Dog CEO call instead of all of them. With an image catalog every user is emitted as soon as
+     * the users arrive. The aggregation deadline covers the users; each image chunk is bounded by
+     * the upstream timeouts instead.
+     */
+    public Flux<UserWithPet> streamUsersWithPets(int count, String nationality) {
+        return Flux.defer(() -> {
+            log.debug("Streaming {} users with pet images reactively (nationality: {})", count,
+                    nationality != null ? nationality : "all");
+            int normalized = UserWithPetAggregatorService.normalizeCount(count);
+            long start = System.nanoTime();
+            Mono<List<UserWithPet>> users = randomUserService.fetchRandomUsers(normalized, nationality)
+                .transform(this::withDeadline)
+                .doOnNext(fetched -> metrics.recordStage(UserPetMetrics.Stage.UPSTREAM, System.nanoTime() - start));
+            AtomicInteger streamed = new AtomicInteger();
+            Flux<UserWithPet> paired;
+            if (dogImageService.isCatalogReady()) {
+                paired = users.flatMapIterable(aggregatorService::aggregateUsersWithCatalogImages);
+            } else {
+                // Holds the users for every chunk; unlike cache(), cancelling the stream cancels the fetch
+                Sinks.One<List<UserWithPet>> fetchedUsers = Sinks.one();
+                // Chunks arrive in order, so a running offset gives each image its user
+                AtomicInteger position = new AtomicInteger();
+                Flux<UserWithPet> chunks = reactiveDogImageService.streamRandomDogImages(normalized)
+                    .concatMap(chunk -> fetchedUsers.asMono().flatMapIterable(fetched ->
+                        aggregatorService.pairChunk(fetched, position.getAndAdd(chunk.size()), chunk)));
+                // Both are subscribed at once, so the users are fetched while the first chunk loads
+                paired = Flux.merge(users
+                    .doOnSuccess(fetched -> {
+                        if (fetched == null) {
+                            fetchedUsers.tryEmitEmpty();
+                        } else {
+                            fetchedUsers.tryEmitValue(fetched);
+                        }
+                    })
+                    .then(Mono.empty()), chunks);
+            }
+            return paired
+                .doOnNext(user -> streamed.incrementAndGet())
+                .doOnComplete(() -> metrics.recordResultUsers(streamed.get()));
+        });
+    }
+
+    private <T> Mono<T> withDeadline(Mono<T> upstream) {
+        return upstream
+            .timeout(properties.getTimeout())
+            .onErrorMap(TimeoutException.class, e -> {
+                log.error("Upstream fetches did not complete within {}", properties.getTimeout());
+                return new RuntimeException("Failed to aggregate users with pet images", e);
+            });
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.userpet_api.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent work by key: the first caller for a key starts the work, and callers
+ * arriving while it is still running share its result instead of starting their own. The key is
+ * forgotten as soon as the work completes, so nothing is cached beyond a single round trip.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Returns the result of the in-flight call for {@code key}, starting one with {@code loader}
+     * if none is running. Each caller gets its own copy of the shared future, so cancelling or
+     * timing out on it does not affect the other callers.
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.copy();
+        }
+
+        executions.increment();
+        CompletableFuture<V> source;
+        try {
+            source = loader.get();
+        } catch (RuntimeException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+            return created.copy();
+        }
+
+        // Remove before completing so callers woken by the result never join a finished call
+        source.whenComplete((value, error) -> {
+            inFlight.remove(key, created);
+            if (error != null) {
+                created.completeExceptionally(error);
+            } else {
+                created.complete(value);
+            }
+        });
+        return created.copy();
+    }
+
+    // Calls that actually ran the loader
+    public long getExecutionCount() {
+        return executions.sum();
+    }
+
+    // Callers that joined a call already in flight instead of starting their own
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.userpet_api.service;
+
+import com.example.userpet_api.cache.ImageDiskCache;
+import com.example.userpet_api.config.Constants;
+import com.example.userpet_api.config.ImageProxyProperties;
+import com.example.userpet_api.config.ThumbnailProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Downscales proxied pet images into the configured thumbnail sizes and serves them from their own
+ * {@link ImageDiskCache}. When enabled, users get a {@code petThumbnail} link next to
+ * {@code petImage}, pointing at {@code /api/thumbnails/<size>/<upstream path>}.
+ *
+ * <p>Handing out a link queues the image on a bounded worker pool, so thumbnails are usually ready
+ * before the browser asks for them. A request for a thumbnail that is not ready yet waits for it up
+ * to {@code wait-timeout}; callers then serve the full image instead. When the queue is full, new
+ * images are skipped and generated on their first request.
+ */
+@Service
+@Slf4j
+public class ThumbnailService {
+    private static final String CACHE_KEY_FORMAT = "%d/%s";
+
+    private final ThumbnailProperties properties;
+    private final ImageProxyService imageProxy;
+    private final ImageDiskCache cache;
+    private final ThreadPoolExecutor workers;
+    // One job per source image, producing every size from a single decode
+    private final SingleFlight<String, Void> jobs = new SingleFlight<>();
+    private volatile boolean enabled;
+
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public ThumbnailService(ThumbnailProperties properties, ImageProxyService imageProxy) {
+        this.properties = properties;
+        this.imageProxy = imageProxy;
+        this.enabled = properties.isEnabled();
+        this.cache = new ImageDiskCache(cacheProperties(properties));
+        this.workers = new ThreadPoolExecutor(properties.getWorkers(), properties.getWorkers(), 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(properties.getQueueCapacity()), daemon("thumbnail"));
+    }
+
+    /**
+     * Thumbnail service that never adds thumbnails, for code constructed outside Spring.
+     */
+    public static ThumbnailService disabled() {
+        return new ThumbnailService(new ThumbnailProperties(), ImageProxyService.disabled());
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        if (!imageProxy.isEnabled()) {
+            log.warn("Thumbnails need the image proxy for the original images; set userpet.image-proxy.enabled=true. "
+                + "Thumbnails stay off.");
+            enabled = false;
+            return;
+        }
+        cache.load();
+        log.info("Thumbnails enabled (sizes {}, {} workers, queue of {})",
+            properties.getSizes(), properties.getWorkers(), properties.getQueueCapacity());
+    }
+
+    @PreDestroy
+    void close() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * The local URL of the first thumbnail size for {@code imageUrl}, or {@code null} when
+     * thumbnails are off or the image cannot be thumbnailed. Queues generation if the thumbnails
+     * are not stored yet.
+     */
+    public String toThumbnailUrl(String imageUrl) {
+        if (!enabled) {
+            return null;
+        }
+        String path = imageProxy.toPath(imageUrl);
+        if (path == null || format(path) == null) {
+            return null;
+        }
+        if (!missingSizes(path).isEmpty()) {
+            submit(path);
+        }
+        return Constants.ENDPOINT_THUMBNAILS + "/" + properties.getSizes().get(0) + "/" + path;
+    }
+
+    /**
+     * Returns the {@code size} thumbnail of the upstream image at {@code path}, generating it first
+     * if needed.
+     *
+     * @return the thumbnail, or {@code null} when it was not ready within {@code wait-timeout}
+     * @throws ResponseStatusException 404 when thumbnails are off, {@code size} is not configured,
+     *                                 the path is not a supported image or the upstream has no
+     *                                 such image
+     */
+    public ImageDiskCache.CachedImage getThumbnail(int size, String path) {
+        if (!enabled || !properties.getSizes().contains(size) || !ImageProxyService.isImagePath(path)
+                || format(path) == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        String key = cacheKey(size, path);
+        ImageDiskCache.CachedImage cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        try {
+            submit(path).get(properties.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (TimeoutException e) {
+            log.debug("Thumbnail {} was not ready within {}", key, properties.getWaitTimeout());
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ResponseStatusException
+                    && ((ResponseStatusException) e.getCause()).getStatusCode() == HttpStatus.NOT_FOUND) {
+                throw (ResponseStatusException) e.getCause();
+            }
+            log.debug("Thumbnail {} could not be generated: {}", key, e.getCause().getMessage());
+            return null;
+        }
+        return cache.get(key);
+    }
+
+    public int getQueueDepth() {
+        return workers.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return workers.getActiveCount();
+    }
+
+    public long getGeneratedCount() {
+        return generated.get();
+    }
+
+    // Images skipped because the queue was full
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public ImageDiskCache getCache() {
+        return cache;
+    }
+
+    private CompletableFuture<Void> submit(String path) {
+        return jobs.execute(path, () -> {
+            try {
+                return CompletableFuture.runAsync(() -> generate(path), workers);
+            } catch (RejectedExecutionException e) {
+                rejected.incrementAndGet();
+                throw e;
+            }
+        });
+    }
+
+    private void generate(String path) {
+        List<Integer> sizes = missingSizes(path);
+        if (sizes.isEmpty()) {
+            return;
+        }
+        try {
+            // Downloads the original into the proxy cache if it is not there yet
+            ImageDiskCache.CachedImage source = imageProxy.getImage(path);
+            BufferedImage image = ImageScaler.read(source.getFile(), Collections.max(sizes));
+            for (int size : sizes) {
+                String key = cacheKey(size, path);
+                // Small originals, and formats ImageIO cannot decode such as CMYK JPEGs, are kept as
+                // they are, so they are not retried on every request
+                if (image == null || Math.max(image.getWidth(), image.getHeight()) <= size) {
+                    try (InputStream original = Files.newInputStream(source.getFile())) {
+                        cache.put(key, original);
+                    }
+                } else {
+                    byte[] thumbnail = ImageScaler.write(ImageScaler.scale(image, size), format(path),
+                        properties.getJpegQuality());
+                    cache.put(key, new ByteArrayInputStream(thumbnail));
+                }
+                generated.incrementAndGet();
+            }
+        } catch (IOException e) {
+            failed.incrementAndGet();
+            log.warn("Failed to generate thumbnails for {}: {}", path, e.getMessage());
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            throw e;
+        }
+    }
+
+    private List<Integer> missingSizes(String path) {
+        List<Integer> missing = new ArrayList<>(properties.getSizes().size());
+        for (int size : properties.getSizes()) {
+            if (!cache.contains(cacheKey(size, path))) {
+                missing.add(size);
+            }
+        }
+        return missing;
+    }
+
+    private static String cacheKey(int size, String path) {
+        return String.format(CACHE_KEY_FORMAT, size, path);
+    }
+
+    // ImageIO format name for the thumbnail, which keeps the format of the original
+    private static String format(String path) {
+        String lower = path.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) {
+            return "jpeg";
+        }
+        return lower.endsWith(".png") ? "png" : null;
+    }
+
+    private static ImageProxyProperties cacheProperties(ThumbnailProperties properties) {
+        ImageProxyProperties cacheProperties = new ImageProxyProperties();
+        cacheProperties.setEnabled(properties.isEnabled());
+        cacheProperties.setDirectory(properties.getDirectory());
+        cacheProperties.setMaxCacheSize(properties.getMaxCacheSize());
+        return cacheProperties;
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,12 +1,31 @@
 package com.example.userpet_api.service;
 
+import com.example.userpet_api.config.AggregatorProperties;
 import com.example.userpet_api.config.Constants;
+import com.example.userpet_api.metrics.UserPetMetrics;
 import com.example.userpet_api.model.UserWithPet;
+import com.example.userpet_api.query.BatchQuery;
+import com.example.userpet_api.query.IndexedUsers;
+import com.example.userpet_api.query.UserIndex;
+import com.example.userpet_api.query.UserQuery;
+import com.example.userpet_api.resilience.UpstreamUnavailableException;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -16,6 +35,12 @@ import java.util.stream.IntStream;
 public class UserWithPetAggregatorService {
     private final RandomUserService randomUserService;
     private final DogImageService dogImageService;
+    private final ExecutorService upstreamExecutor;
+    private final AggregatorProperties properties;
+    private final UserPetMetrics metrics;
+    private final ImageProxyService imageProxy;
+    private final ThumbnailService thumbnails;
+    private final SingleFlight<FetchKey, UpstreamResult> inFlight = new SingleFlight<>();
 
     public List<UserWithPet> getUsersWithPets(int count) {
         // Delegate to overloaded method with no nationality filter
@@ -23,41 +48,318 @@ public class UserWithPetAggregatorService {
     }
 
     public List<UserWithPet> getUsersWithPets(int count, String nationality) {
+        return getUsersWithPets(count, nationality, UserQuery.NONE);
+    }
+
+    /**
+     * Aggregates {@code count} users as usual and returns those matching {@code query}, each with
+     * the image it is paired with in the unfiltered result.
+     */
+    public List<UserWithPet> getUsersWithPets(int count, String nationality, UserQuery query) {
         log.debug("Aggregating {} users with pet images (nationality: {})", count,
                 nationality != null ? nationality : "all");
 
         // Validate and normalize count
         count = normalizeCount(count);
 
+        UpstreamResult upstream = fetchConcurrently(count, nationality);
+
+        return merge(upstream.getUsers(), upstream.getImages(), query);
+    }
+
+    /**
+     * Pairs fetched users with images, or with catalog images when {@code images} is null, and
+     * applies {@code query}. Shared with {@link ReactiveUserWithPetAggregatorService}.
+     */
+    List<UserWithPet> merge(List<UserWithPet> users, List<String> images, UserQuery query) {
+        long start = System.nanoTime();
+        List<UserWithPet> usersWithPets;
+        if (!query.isEmpty()) {
+            usersWithPets = selectUsersWithImages(users, images, query);
+        } else if (images == null) {
+            usersWithPets = aggregateUsersWithCatalogImages(users);
+        } else {
+            usersWithPets = aggregateUsersWithImages(users, images);
+        }
+        metrics.recordStage(UserPetMetrics.Stage.MERGE, System.nanoTime() - start);
+        metrics.recordResultUsers(usersWithPets.size());
+        return usersWithPets;
+    }
+
+    /**
+     * Streaming variant of {@link #getUsersWithPets(int, String)}: users are handed to {@code sink}
+     * one at a time and never collected into a result list. The users arrive as one list, from the
+     * user cache or from a guarded upstream call that may be retried or hedged. The images are
+     * loaded alongside them, chunk by chunk, on the calling thread, and each user is handed over
+     * as soon as the chunk holding its image has arrived. The first users therefore go out after
+     * one Dog CEO call instead of all of them, and only the chunk being paired is held. With an
+     * image catalog every user is handed over as soon as the users arrive.
+     *
+     * <p>The aggregation deadline covers the users; each image chunk is bounded by the upstream
+     * timeouts instead. Streams do not share fetches with identical concurrent requests. The sink
+     * runs on the calling thread, so a sink that blocks on a slow client delays the pairing of
+     * later chunks, but not their loading.
+     *
+     * @return the number of users handed to the sink
+     */
+    public int streamUsersWithPets(int count, String nationality, Consumer<UserWithPet> sink) {
+        log.debug("Streaming {} users with pet images (nationality: {})", count,
+                nationality != null ? nationality : "all");
+
+        int normalized = normalizeCount(count);
+        long start = System.nanoTime();
+        CompletableFuture<List<UserWithPet>> usersFetch = CompletableFuture.supplyAsync(
+                () -> randomUserService.fetchRandomUsers(normalized, nationality), upstreamExecutor);
         try {
-            List<UserWithPet> users = randomUserService.fetchRandomUsers(count, nationality);
-            List<String> images = dogImageService.fetchRandomDogImages(count);
+            ChunkPairing pairing = new ChunkPairing(usersFetch, start, sink);
+            if (dogImageService.isCatalogReady()) {
+                pairing.acceptCatalogImages();
+            } else {
+                dogImageService.streamRandomDogImages(normalized, pairing);
+            }
+            metrics.recordResultUsers(pairing.streamed);
+            return pairing.streamed;
+        } finally {
+            // Stops the users fetch when the images failed before it was needed
+            usersFetch.cancel(true);
+        }
+    }
+
+    /**
+     * Pairs {@code users} from {@code offset} on with one chunk of {@code images}, skipping users
+     * that cannot be paired. Shared with {@link ReactiveUserWithPetAggregatorService}.
+     */
+    List<UserWithPet> pairChunk(List<UserWithPet> users, int offset, List<String> images) {
+        int end = Math.min(users.size(), offset + images.size());
+        List<UserWithPet> paired = new ArrayList<>(Math.max(0, end - offset));
+        for (int i = offset; i < end; i++) {
+            UserWithPet user = enhanceUserWithImage(users.get(i), images.get(i - offset));
+            if (user != null) {
+                paired.add(user);
+            }
+        }
+        return paired;
+    }
 
-            log.debug("Retrieved {} users and {} pet images", users.size(), images.size());
+    // Hands each chunk's users to the sink; waits for the users when the first chunk arrives
+    private final class ChunkPairing implements Consumer<List<String>> {
+        private final CompletableFuture<List<UserWithPet>> usersFetch;
+        private final long start;
+        private final Consumer<UserWithPet> sink;
+        private List<UserWithPet> users;
+        private int position;
+        private int streamed;
 
-            return aggregateUsersWithImages(users, images);
+        private ChunkPairing(CompletableFuture<List<UserWithPet>> usersFetch, long start, Consumer<UserWithPet> sink) {
+            this.usersFetch = usersFetch;
+            this.start = start;
+            this.sink = sink;
+        }
 
-        } catch (Exception e) {
-            log.error("Error during user-pet aggregation", e);
+        @Override
+        public void accept(List<String> images) {
+            List<UserWithPet> fetched = users();
+            for (UserWithPet user : pairChunk(fetched, position, images)) {
+                sink.accept(user);
+                streamed++;
+            }
+            position += images.size();
+        }
+
+        private void acceptCatalogImages() {
+            for (UserWithPet user : users()) {
+                UserWithPet enhanced = enhanceUserWithImage(user, catalogImageFor(user));
+                if (enhanced != null) {
+                    sink.accept(enhanced);
+                    streamed++;
+                }
+            }
+        }
+
+        private List<UserWithPet> users() {
+            if (users == null) {
+                users = await(usersFetch);
+                metrics.recordStage(UserPetMetrics.Stage.UPSTREAM, System.nanoTime() - start);
+            }
+            return users;
+        }
+    }
+
+    // Identical concurrent requests share one pair of upstream calls instead of each starting their own
+    private UpstreamResult fetchConcurrently(int count, String nationality) {
+        CompletableFuture<UpstreamResult> upstream = properties.isCoalesce()
+            ? inFlight.execute(new FetchKey(count, normalizeNationality(nationality)),
+                () -> startFetch(count, nationality))
+            : startFetch(count, nationality);
+
+        long start = System.nanoTime();
+        UpstreamResult result = await(upstream);
+        metrics.recordStage(UserPetMetrics.Stage.UPSTREAM, System.nanoTime() - start);
+        log.debug("Retrieved {} users and {} pet images", result.getUsers().size(),
+                result.getImages() == null ? "catalog" : result.getImages().size());
+        return result;
+    }
+
+    // Waits for upstream work under the single aggregation deadline, cancelling it on timeout
+    private <T> T await(CompletableFuture<T> upstream) {
+        try {
+            return upstream.get(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+
+        } catch (TimeoutException e) {
+            upstream.cancel(true);
+            log.error("Upstream fetches did not complete within {}", properties.getTimeout());
+            throw new RuntimeException("Failed to aggregate users with pet images", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            upstream.cancel(true);
             throw new RuntimeException("Failed to aggregate users with pet images", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UpstreamUnavailableException) {
+                throw (UpstreamUnavailableException) e.getCause();
+            }
+            log.error("Error during user-pet aggregation", e.getCause());
+            throw new RuntimeException("Failed to aggregate users with pet images", e.getCause());
+        }
+    }
+
+    /**
+     * Answers several queries with the fewest upstream calls: one user fetch per nationality, of
+     * the largest count asked for it, and one image fetch of the largest count overall. RandomUser
+     * results are seeded, so a smaller query is answered by a prefix of the larger fetch, as the
+     * user cache does. Queries share the image list: position {@code i} gets image {@code i} in
+     * every result. Equal queries are answered once.
+     *
+     * @return the users for each query, in the order of {@code queries}
+     */
+    public List<List<UserWithPet>> getUsersWithPetsBatch(List<BatchQuery> queries) {
+        if (queries.isEmpty()) {
+            return List.of();
+        }
+        List<BatchQuery> normalized = queries.stream()
+            .map(q -> new BatchQuery(normalizeCount(q.getCount()), normalizeNationality(q.getNationality()),
+                q.getQuery() == null ? UserQuery.NONE : q.getQuery()))
+            .collect(Collectors.toList());
+
+        Map<String, FetchKey> largestFetches = new LinkedHashMap<>();
+        for (BatchQuery query : normalized) {
+            largestFetches.merge(sharedFetchKey(query), new FetchKey(query.getCount(), query.getNationality()),
+                (a, b) -> a.getCount() >= b.getCount() ? a : b);
         }
+        int imageCount = largestFetches.values().stream().mapToInt(FetchKey::getCount).max().orElse(0);
+        log.debug("Batch of {} queries needs {} user fetches and {} images", queries.size(),
+                largestFetches.size(), imageCount);
+
+        Map<String, CompletableFuture<List<UserWithPet>>> userFetches = new LinkedHashMap<>();
+        largestFetches.forEach((key, fetch) -> userFetches.put(key, CompletableFuture.supplyAsync(
+                () -> randomUserService.fetchRandomUsers(fetch.getCount(),
+                    fetch.getNationality().isEmpty() ? null : fetch.getNationality()),
+                upstreamExecutor)));
+        CompletableFuture<List<String>> imagesFetch = dogImageService.isCatalogReady()
+            ? CompletableFuture.completedFuture(null)
+            : CompletableFuture.supplyAsync(() -> dogImageService.fetchRandomDogImages(imageCount), upstreamExecutor);
+
+        List<CompletableFuture<?>> fetches = new ArrayList<>(userFetches.values());
+        fetches.add(imagesFetch);
+        long start = System.nanoTime();
+        CompletableFuture<Void> all = CompletableFuture.allOf(fetches.toArray(new CompletableFuture<?>[0]));
+        // Fail as soon as any fetch fails instead of waiting out the others
+        fetches.forEach(fetch -> fetch.whenComplete((value, error) -> {
+            if (error != null) {
+                all.completeExceptionally(error);
+            }
+        }));
+        await(all);
+        metrics.recordStage(UserPetMetrics.Stage.UPSTREAM, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        List<String> images = imagesFetch.join();
+        Map<String, UserIndex> indexes = new HashMap<>();
+        Map<BatchQuery, List<UserWithPet>> answered = new HashMap<>();
+        List<List<UserWithPet>> results = new ArrayList<>(normalized.size());
+        for (BatchQuery query : normalized) {
+            List<UserWithPet> result = answered.get(query);
+            if (result == null) {
+                String key = sharedFetchKey(query);
+                List<UserWithPet> users = userFetches.get(key).join();
+                List<UserWithPet> prefix = users.subList(0, Math.min(query.getCount(), users.size()));
+                if (query.getQuery().isEmpty()) {
+                    result = images == null
+                        ? aggregateUsersWithCatalogImages(prefix)
+                        : aggregateUsersWithImages(prefix, images);
+                } else {
+                    // One index per fetched list, shared by every filtered query over its prefixes
+                    UserIndex index = indexes.computeIfAbsent(key, unused -> UserIndex.of(users));
+                    result = selectUsersWithImages(new IndexedUsers(prefix, index), images, query.getQuery());
+                }
+                answered.put(query, result);
+                metrics.recordResultUsers(result.size());
+            }
+            results.add(result);
+        }
+        metrics.recordStage(UserPetMetrics.Stage.MERGE, System.nanoTime() - start);
+        return results;
+    }
+
+    // A single nationality's smaller fetches are prefixes of its largest one. Several nationalities
+    // are interleaved by quota, which depends on the count, so those fetches are only shared per count.
+    private static String sharedFetchKey(BatchQuery query) {
+        return query.getNationality().indexOf(',') < 0
+            ? query.getNationality()
+            : query.getNationality() + "#" + query.getCount();
     }
 
-    private int normalizeCount(int count) {
+    // Both upstream calls run concurrently, so latency is the slower of the two rather than their sum.
+    // With an image catalog only the users are fetched; images are null and assigned from the catalog.
+    private CompletableFuture<UpstreamResult> startFetch(int count, String nationality) {
+        CompletableFuture<List<UserWithPet>> usersFuture = CompletableFuture.supplyAsync(
+                () -> randomUserService.fetchRandomUsers(count, nationality), upstreamExecutor);
+        if (dogImageService.isCatalogReady()) {
+            return usersFuture.thenApply(users -> new UpstreamResult(users, null));
+        }
+        CompletableFuture<List<String>> imagesFuture = CompletableFuture.supplyAsync(
+                () -> dogImageService.fetchRandomDogImages(count), upstreamExecutor);
+        return usersFuture.thenCombine(imagesFuture, UpstreamResult::new);
+    }
+
+    private static String normalizeNationality(String nationality) {
+        return nationality == null ? "" : nationality.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Coalescing statistics for identical concurrent requests.
+     */
+    public SingleFlight<?, ?> getSingleFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Clamps a requested user count to the supported range, as every aggregation does before
+     * fetching, and logs a warning when it had to; counts below the minimum fall back to the default.
+     */
+    public static int normalizeCount(int count) {
         if (count < Constants.MIN_USER_COUNT) {
             log.warn("Count {} is below minimum {}. Using default {}.", 
                     count, Constants.MIN_USER_COUNT, Constants.DEFAULT_USER_COUNT);
-            return Constants.DEFAULT_USER_COUNT;
-        }
-        if (count > Constants.MAX_USER_COUNT) {
+        } else if (count > Constants.MAX_USER_COUNT) {
             log.warn("Count {} exceeds maximum {}. Limiting to {}.", 
                     count, Constants.MAX_USER_COUNT, Constants.MAX_USER_COUNT);
-            return Constants.MAX_USER_COUNT;
         }
-        return count;
+        return clampCount(count);
     }
 
-    private List<UserWithPet> aggregateUsersWithImages(List<UserWithPet> users, List<String> images) {
+    /**
+     * The count {@link #normalizeCount} would use, without logging, for callers such as cache
+     * lookups that only need to agree with it.
+     */
+    public static int clampCount(int count) {
+        if (count < Constants.MIN_USER_COUNT) {
+            return Constants.DEFAULT_USER_COUNT;
+        }
+        return Math.min(count, Constants.MAX_USER_COUNT);
+    }
+
+    // Package-private so AggregationBenchmark can measure it without the upstream calls
+    List<UserWithPet> aggregateUsersWithImages(List<UserWithPet> users, List<String> images) {
         return IntStream.range(0, users.size())
             .filter(i -> i < images.size()) // Only include users with corresponding images
             .mapToObj(i -> enhanceUserWithImage(users.get(i), images.get(i)))
@@ -65,6 +367,40 @@ public class UserWithPetAggregatorService {
             .collect(Collectors.toList());
     }
 
+    // Only users that have an image are candidates, as in the unfiltered result
+    private List<UserWithPet> selectUsersWithImages(List<UserWithPet> users, List<String> images, UserQuery query) {
+        int limit = images == null ? users.size() : Math.min(users.size(), images.size());
+        int[] positions = UserIndex.of(users).select(query, limit);
+        List<UserWithPet> selected = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            UserWithPet user = users.get(position);
+            String image = images == null ? catalogImageFor(user) : images.get(position);
+            UserWithPet enhanced = enhanceUserWithImage(user, image);
+            if (enhanced != null) {
+                selected.add(enhanced);
+            }
+        }
+        return selected;
+    }
+
+    // Same user, same image: responses stay identical while the catalog is unchanged
+    List<UserWithPet> aggregateUsersWithCatalogImages(List<UserWithPet> users) {
+        List<UserWithPet> usersWithPets = new ArrayList<>(users.size());
+        for (UserWithPet user : users) {
+            UserWithPet enhanced = enhanceUserWithImage(user, catalogImageFor(user));
+            if (enhanced != null) {
+                usersWithPets.add(enhanced);
+            }
+        }
+        return usersWithPets;
+    }
+
+    // Keyed by email, not id: RandomUser sends a null id for whole nationalities (UA, NZ, TR and IR),
+    // which would give all their users one image, while every valid user has its own email
+    private String catalogImageFor(UserWithPet user) {
+        return dogImageService.catalogImageFor(user.getEmail());
+    }
+
     private UserWithPet enhanceUserWithImage(UserWithPet user, String imageUrl) {
         try {
             // Create a new user with pet image instead of modifying the original one
@@ -76,11 +412,25 @@ public class UserWithPetAggregatorService {
                 .email(user.getEmail())
                 .dob(user.getDob())
                 .phone(user.getPhone())
-                .petImage(imageUrl)
+                .petImage(imageProxy.toLocalUrl(imageUrl))
+                .petThumbnail(thumbnails.toThumbnailUrl(imageUrl))
                 .build();
         } catch (Exception e) {
             log.warn("Failed to enhance user {} with image: {}", user.getId(), e.getMessage());
             return null;
         }
     }
+
+    @Value
+    private static class FetchKey {
+        int count;
+        String nationality;
+    }
+
+    @Value
+    private static class UpstreamResult {
+        List<UserWithPet> users;
+        // Null when images come from the catalog
+        List<String> images;
+    }
 }
@@ -0,0 +1,117 @@
+package com.example.userpet_api.cache;
+
+import com.example.userpet_api.config.ImageProxyProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageDiskCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private ImageProxyProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ImageProxyProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory);
+        properties.setMaxCacheSize(DataSize.ofBytes(250));
+    }
+
+    @Test
+    void testPut_ThenGet_ShouldServeFileUnderUpstreamPath() throws IOException {
+        // Given
+        ImageDiskCache cache = new ImageDiskCache(properties);
+
+        // When
+        cache.put("breeds/pug/1.jpg", image(100));
+        ImageDiskCache.CachedImage cached = cache.get("breeds/pug/1.jpg");
+
+        // Then
+        assertNotNull(cached, "Stored image should be cached");
+        assertEquals(directory.resolve("breeds/pug/1.jpg"), cached.getFile(), "File should mirror the upstream path");
+        assertArrayEquals(image(100).readAllBytes(), Files.readAllBytes(cached.getFile()), "Content should be stored");
+        assertEquals(100, cache.getTotalBytes(), "Size should be tracked");
+        assertNull(cache.get("breeds/pug/2.jpg"), "Unknown image should miss");
+        assertEquals(1, cache.getHitCount(), "One hit should be counted");
+        assertEquals(1, cache.getMissCount(), "One miss should be counted");
+    }
+
+    @Test
+    void testPut_OverMaxCacheSize_ShouldEvictLeastRecentlyServed() throws IOException {
+        // Given
+        ImageDiskCache cache = new ImageDiskCache(properties);
+        cache.put("a.jpg", image(100));
+        cache.put("b.jpg", image(100));
+        cache.get("a.jpg");
+
+        // When
+        cache.put("c.jpg", image(100));
+
+        // Then
+        assertNotNull(cache.get("a.jpg"), "Recently served image should stay");
+        assertNull(cache.get("b.jpg"), "Least recently served image should be evicted");
+        assertFalse(Files.exists(directory.resolve("b.jpg")), "Evicted file should be deleted");
+        assertEquals(200, cache.getTotalBytes(), "Total size should be back under the limit");
+        assertEquals(1, cache.getEvictionCount(), "One eviction should be counted");
+    }
+
+    @Test
+    void testPut_LargerThanMaxImageSize_ShouldFailAndLeaveNoFile() throws IOException {
+        // Given
+        properties.setMaxImageSize(DataSize.ofBytes(50));
+        ImageDiskCache cache = new ImageDiskCache(properties);
+
+        // When & Then
+        assertThrows(IOException.class, () -> cache.put("big.jpg", image(100)), "Oversized image should be rejected");
+        assertNull(cache.get("big.jpg"), "Oversized image should not be cached");
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count(), "No partial or temporary file should remain");
+        }
+    }
+
+    @Test
+    void testLoad_AfterRestart_ShouldRestoreIndexAndDropTemporaryFiles() throws IOException {
+        // Given
+        new ImageDiskCache(properties).put("breeds/husky/1.jpg", image(80));
+        Files.write(directory.resolve("breeds/husky/.123.tmp"), new byte[10]);
+
+        // When
+        ImageDiskCache restarted = new ImageDiskCache(properties);
+        restarted.load();
+
+        // Then
+        assertNotNull(restarted.get("breeds/husky/1.jpg"), "Cached image should survive a restart");
+        assertEquals(80, restarted.getTotalBytes(), "Only complete images should be counted");
+        assertFalse(Files.exists(directory.resolve("breeds/husky/.123.tmp")), "Unfinished write should be removed");
+    }
+
+    @Test
+    void testResolve_OutsideDirectory_ShouldBeRejected() {
+        // Given
+        ImageDiskCache cache = new ImageDiskCache(properties);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> cache.resolve("../escape.jpg"),
+            "Keys must not leave the cache directory");
+    }
+
+    private static ByteArrayInputStream image(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) i;
+        }
+        return new ByteArrayInputStream(bytes);
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.userpet_api.cache;
+
+import com.example.userpet_api.config.UserCacheProperties;
+import com.example.userpet_api.model.UserWithPet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RandomUserCacheTest {
+
+    private UserCacheProperties properties;
+    private MutableClock clock;
+    private RandomUserCache cache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new UserCacheProperties();
+        clock = new MutableClock();
+        cache = new RandomUserCache(properties, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.close();
+    }
+
+    @Test
+    void testGet_WhenEmpty_ShouldMiss() {
+        // When
+        List<UserWithPet> users = cache.get("FI", 10);
+
+        // Then
+        assertNull(users, "Empty cache should miss");
+        assertEquals(1, cache.getMissCount(), "Miss should be counted");
+        assertEquals(0, cache.getHitCount(), "No hit should be counted");
+    }
+
+    @Test
+    void testGet_WithSmallerCount_ShouldServePrefix() {
+        // Given
+        cache.put("FI", 10, users(10), positions(10));
+
+        // When
+        List<UserWithPet> users = cache.get("FI", 4);
+
+        // Then
+        assertNotNull(users, "Smaller count should be served from cache");
+        assertEquals(4, users.size(), "Should return the requested prefix");
+        assertEquals("user-0", users.get(0).getId(), "Prefix should start at the first user");
+        assertEquals("user-3", users.get(3).getId(), "Prefix should keep upstream order");
+        assertEquals(1, cache.getHitCount(), "Hit should be counted");
+    }
+
+    @Test
+    void testGet_WithLargerCount_ShouldMiss() {
+        // Given
+        cache.put("FI", 10, users(10), positions(10));
+
+        // When
+        List<UserWithPet> users = cache.get("FI", 20);
+
+        // Then
+        assertNull(users, "Larger count needs an upstream fetch");
+        assertEquals(1, cache.getMissCount(), "Miss should be counted");
+    }
+
+    @Test
+    void testGet_WithGapsFromInvalidUsers_ShouldSliceByUpstreamPosition() {
+        // Given - upstream positions 1 and 4 failed validation
+        List<UserWithPet> valid = users(4);
+        int[] positions = {0, 2, 3, 5};
+        cache.put(null, 6, valid, positions);
+
+        // When
+        List<UserWithPet> firstFour = cache.get(null, 4);
+
+        // Then - a fresh request for 4 would have returned positions 0, 2 and 3
+        assertEquals(3, firstFour.size(), "Only users from the first 4 upstream positions should be returned");
+    }
+
+    @Test
+    void testPut_WithSmallerResult_ShouldKeepLargerEntry() {
+        // Given
+        cache.put("US", 50, users(50), positions(50));
+
+        // When
+        cache.put("US", 5, users(5), positions(5));
+
+        // Then
+        assertNotNull(cache.get("US", 50), "Larger entry should be kept");
+    }
+
+    @Test
+    void testGet_ShouldNormalizeNationalityKey() {
+        // Given
+        cache.put("gb", 5, users(5), positions(5));
+
+        // When & Then
+        assertNotNull(cache.get("GB", 5), "Nationality key should be case-insensitive");
+        assertNull(cache.get(null, 5), "No-filter entry should be separate from GB");
+    }
+
+    @Test
+    void testGet_AfterTtl_ShouldMiss() {
+        // Given
+        properties.setTtl(Duration.ofMinutes(1));
+        cache.put("FI", 10, users(10), positions(10));
+
+        // When
+        clock.advance(Duration.ofMinutes(2));
+
+        // Then
+        assertNull(cache.get("FI", 5), "Expired entry should not be served");
+    }
+
+    @Test
+    void testGet_AfterTtlWithRefresher_ShouldServeStaleEntryAndRefreshOnce() throws InterruptedException {
+        // Given
+        properties.setTtl(Duration.ofMinutes(1));
+        cache.put("FI", 10, users(10), positions(10));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger refreshes = new AtomicInteger();
+        cache.startRefreshing((nationality, count) -> {
+            refreshes.incrementAndGet();
+            await(release);
+            cache.put(nationality, count, users(count, "fresh-"), positions(count));
+        });
+        clock.advance(Duration.ofMinutes(2));
+
+        // When
+        List<UserWithPet> first = cache.get("FI", 5);
+        List<UserWithPet> second = cache.get("FI", 5);
+        release.countDown();
+
+        // Then
+        assertEquals("user-0", first.get(0).getId(), "Expired entry should be served without waiting");
+        assertEquals("user-0", second.get(0).getId(), "Entry should keep being served while it refreshes");
+        assertEquals(2, cache.getStaleHitCount(), "Both requests should count as stale hits");
+        awaitTrue(() -> cache.getRefreshCount() == 1, "Refresh should complete");
+        assertEquals("fresh-0", cache.get("FI", 5).get(0).getId(), "Refreshed users should replace the stale ones");
+        assertEquals(1, refreshes.get(), "Concurrent stale reads should share one refresh");
+    }
+
+    @Test
+    void testGet_WhenRefreshFails_ShouldKeepStaleEntryUntilMaxStaleness() {
+        // Given
+        properties.setTtl(Duration.ofMinutes(1));
+        properties.setMaxStaleness(Duration.ofMinutes(5));
+        cache.put("FI", 10, users(10), positions(10));
+        cache.startRefreshing((nationality, count) -> {
+            throw new IllegalStateException("upstream down");
+        });
+        clock.advance(Duration.ofMinutes(3));
+
+        // When
+        List<UserWithPet> stale = cache.get("FI", 5);
+        awaitTrue(() -> cache.getRefreshFailureCount() == 1, "Refresh should fail");
+        List<UserWithPet> afterFailure = cache.get("FI", 5);
+        clock.advance(Duration.ofMinutes(4));
+        List<UserWithPet> tooStale = cache.get("FI", 5);
+
+        // Then
+        assertNotNull(stale, "Entry within max staleness should be served");
+        assertNotNull(afterFailure, "A failed refresh should keep the stale entry");
+        assertNull(tooStale, "Entry past max staleness should not be served");
+    }
+
+    @Test
+    void testRefreshHotEntries_ShouldRefreshOnlyReadEntriesAboutToExpire() {
+        // Given
+        properties.setTtl(Duration.ofMinutes(10));
+        properties.setRefreshAhead(Duration.ZERO);
+        List<String> refreshed = new ArrayList<>();
+        cache.startRefreshing((nationality, count) -> {
+            synchronized (refreshed) {
+                refreshed.add(nationality);
+            }
+        });
+        cache.put("FI", 10, users(10), positions(10));
+        cache.put("US", 10, users(10), positions(10));
+        clock.advance(Duration.ofSeconds(1));
+        cache.get("FI", 5);
+        properties.setRefreshAhead(Duration.ofMinutes(1));
+
+        // When
+        clock.advance(Duration.ofSeconds(30));
+        cache.refreshHotEntries();
+        clock.advance(Duration.ofMinutes(9));
+        cache.refreshHotEntries();
+
+        // Then
+        awaitTrue(() -> cache.getRefreshCount() == 1, "Hot entry should be refreshed");
+        assertEquals(List.of("FI"), refreshed,
+            "Only the entry read since its fetch should be refreshed, and only once it is near expiry");
+    }
+
+    @Test
+    void testPut_AfterTtl_ShouldReplaceExpiredLargerEntry() {
+        // Given
+        properties.setTtl(Duration.ofMinutes(1));
+        cache.put("FI", 100, users(100), positions(100));
+        clock.advance(Duration.ofMinutes(2));
+
+        // When
+        cache.put("FI", 10, users(10), positions(10));
+
+        // Then
+        assertNotNull(cache.get("FI", 10), "Fresh smaller entry should replace expired one");
+        assertNull(cache.get("FI", 100), "Expired larger entry should be gone");
+    }
+
+    @Test
+    void testPut_BeyondMaxEntries_ShouldEvictLeastRecentlyUsed() {
+        // Given
+        properties.setMaxEntries(2);
+        cache.put("FI", 5, users(5), positions(5));
+        clock.advance(Duration.ofSeconds(1));
+        cache.put("US", 5, users(5), positions(5));
+        clock.advance(Duration.ofSeconds(1));
+        cache.get("FI", 5);
+
+        // When
+        clock.advance(Duration.ofSeconds(1));
+        cache.put("GB", 5, users(5), positions(5));
+
+        // Then
+        assertEquals(2, cache.size(), "Cache should stay within max entries");
+        assertEquals(1, cache.getEvictionCount(), "Eviction should be counted");
+        assertNull(cache.get("US", 5), "Least recently used entry should be evicted");
+        assertNotNull(cache.get("FI", 5), "Recently used entry should be kept");
+    }
+
+    @Test
+    void testGet_WhenDisabled_ShouldAlwaysMiss() {
+        // Given
+        properties.setEnabled(false);
+        cache.put("FI", 10, users(10), positions(10));
+
+        // When & Then
+        assertNull(cache.get("FI", 5), "Disabled cache should not serve entries");
+    }
+
+    private static List<UserWithPet> users(int count) {
+        return users(count, "user-");
+    }
+
+    private static List<UserWithPet> users(int count, String idPrefix) {
+        List<UserWithPet> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(UserWithPet.builder().id(idPrefix + i).name("User " + i).email("user" + i + "@example.com").build());
+        }
+        return users;
+    }
+
+    private static int[] positions(int count) {
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = i;
+        }
+        return positions;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Refreshes run on the cache's own thread
+    private static void awaitTrue(BooleanSupplier condition, String message) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail(message);
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(message);
+            }
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
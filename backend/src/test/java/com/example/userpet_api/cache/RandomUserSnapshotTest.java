@@ -0,0 +1,165 @@
+package com.example.userpet_api.cache;
+
+import com.example.userpet_api.config.UserCacheProperties;
+import com.example.userpet_api.model.UserWithPet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RandomUserSnapshotTest {
+
+    private static final Clock NOW = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    @TempDir
+    Path directory;
+
+    private UserCacheProperties properties;
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        file = directory.resolve("users.snapshot");
+        properties = new UserCacheProperties();
+        properties.getSnapshot().setEnabled(true);
+        properties.getSnapshot().setPath(file);
+    }
+
+    @Test
+    void testLoad_AfterWrite_ShouldRestoreCachedUsers() throws IOException {
+        // Given - users with gaps in their upstream positions and non-ASCII names
+        RandomUserCache cache = new RandomUserCache(properties);
+        List<UserWithPet> users = users(3);
+        users.get(1).setName("Väinö Mäkelä");
+        cache.put("FI", 10, users, new int[]{0, 2, 7});
+        new RandomUserSnapshot(cache, properties, NOW).write();
+
+        // When
+        RandomUserCache restarted = new RandomUserCache(properties);
+        int restored = new RandomUserSnapshot(restarted, properties, NOW).load();
+
+        // Then
+        assertEquals(1, restored, "One entry should be restored");
+        assertEquals(users, restarted.get("FI", 10), "Restored users should equal the written ones");
+        assertEquals(users.subList(0, 2), restarted.get("fi", 5), "Positions should survive so prefixes stay correct");
+        assertNull(restarted.get("FI", 11), "Fetched count should survive");
+    }
+
+    @Test
+    void testLoad_WithCorruptPayload_ShouldStartCold() throws IOException {
+        // Given
+        writeSnapshot();
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 5] ^= 0x40;
+        Files.write(file, bytes);
+
+        // When & Then
+        assertColdStart("Checksum mismatch should be ignored");
+    }
+
+    @Test
+    void testLoad_WithTruncatedFile_ShouldStartCold() throws IOException {
+        // Given
+        writeSnapshot();
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+
+        // When & Then
+        assertColdStart("Truncated snapshot should be ignored");
+    }
+
+    @Test
+    void testLoad_WithUnknownVersion_ShouldStartCold() throws IOException {
+        // Given
+        writeSnapshot();
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putShort(4, (short) (RandomUserSnapshot.VERSION + 1));
+        Files.write(file, bytes);
+
+        // When & Then
+        assertColdStart("Snapshot from another format version should be ignored");
+    }
+
+    @Test
+    void testLoad_WithSnapshotOlderThanMaxAge_ShouldStartCold() throws IOException {
+        // Given
+        writeSnapshot();
+        properties.getSnapshot().setMaxAge(Duration.ofHours(1));
+        Clock later = Clock.offset(NOW, Duration.ofHours(2));
+
+        // When
+        RandomUserCache cache = new RandomUserCache(properties);
+        int restored = new RandomUserSnapshot(cache, properties, later).load();
+
+        // Then
+        assertEquals(0, restored, "Stale snapshot should not be restored");
+        assertEquals(0, cache.size(), "Cache should start empty");
+    }
+
+    @Test
+    void testClose_WithScheduledWrite_ShouldWriteBeforeShutdown() {
+        // Given
+        properties.getSnapshot().setWriteDelay(Duration.ofMinutes(1));
+        RandomUserCache cache = new RandomUserCache(properties);
+        RandomUserSnapshot snapshot = new RandomUserSnapshot(cache, properties, NOW);
+        cache.put("US", 5, users(5), positions(5));
+        snapshot.scheduleWrite();
+
+        // When
+        snapshot.close();
+
+        // Then
+        assertTrue(Files.exists(file), "Pending write should be flushed on shutdown");
+        RandomUserCache restarted = new RandomUserCache(properties);
+        assertEquals(1, new RandomUserSnapshot(restarted, properties, NOW).load(), "Flushed snapshot should load");
+    }
+
+    private void writeSnapshot() throws IOException {
+        RandomUserCache cache = new RandomUserCache(properties);
+        cache.put("FI", 5, users(5), positions(5));
+        new RandomUserSnapshot(cache, properties, NOW).write();
+    }
+
+    private void assertColdStart(String message) {
+        RandomUserCache cache = new RandomUserCache(properties);
+        assertEquals(0, new RandomUserSnapshot(cache, properties, NOW).load(), message);
+        assertEquals(0, cache.size(), "Cache should start empty");
+    }
+
+    private static List<UserWithPet> users(int count) {
+        List<UserWithPet> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(UserWithPet.builder()
+                .id("user-" + i)
+                .gender("female")
+                .country("FI")
+                .name("User " + i)
+                .email("user" + i + "@example.com")
+                .dob(UserWithPet.Dob.builder().date("1990-01-0" + (i % 9 + 1) + "T00:00:00.000Z").age(30 + i).build())
+                .phone("040-" + i)
+                .build());
+        }
+        return users;
+    }
+
+    private static int[] positions(int count) {
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = i;
+        }
+        return positions;
+    }
+}
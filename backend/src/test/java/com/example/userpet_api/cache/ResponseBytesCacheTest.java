@@ -0,0 +1,127 @@
+package com.example.userpet_api.cache;
+
+import com.example.userpet_api.config.Constants;
+import com.example.userpet_api.config.ResponseCacheProperties;
+import com.example.userpet_api.query.UserQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseBytesCacheTest {
+
+    private static final byte[] SMALL = "[{\"id\":\"1\"}]".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] LARGE = "[{\"id\":\"1\"}]".repeat(200).getBytes(StandardCharsets.UTF_8);
+
+    private ResponseCacheProperties properties;
+    private Instant now;
+    private ResponseBytesCache cache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ResponseCacheProperties();
+        now = Instant.parse("2025-01-01T00:00:00Z");
+        cache = new ResponseBytesCache(properties, new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        });
+    }
+
+    @Test
+    void testPut_ShouldDeriveStrongEtagFromContent() {
+        // When
+        ResponseBytesCache.CachedResponse first = cache.put(50, "FI", UserQuery.NONE, SMALL);
+        ResponseBytesCache.CachedResponse same = cache.put(50, "US", UserQuery.NONE, SMALL.clone());
+        ResponseBytesCache.CachedResponse other = cache.put(50, "GB", UserQuery.NONE, LARGE);
+
+        // Then
+        assertTrue(first.getEtag().startsWith("\"") && !first.getEtag().startsWith("W/"), "ETag should be strong");
+        assertEquals(first.getEtag(), same.getEtag(), "Same bytes should give the same ETag");
+        assertNotEquals(first.getEtag(), other.getEtag(), "Different bytes should give a different ETag");
+    }
+
+    @Test
+    void testPut_WithSmallResponse_ShouldNotCompress() {
+        // When
+        ResponseBytesCache.CachedResponse small = cache.put(1, null, UserQuery.NONE, SMALL);
+        ResponseBytesCache.CachedResponse large = cache.put(100, null, UserQuery.NONE, LARGE);
+
+        // Then
+        assertNull(small.getGzip(), "Small responses should not be compressed");
+        assertNotNull(large.getGzip(), "Large responses should have a gzip copy");
+        assertTrue(large.getGzip().length < LARGE.length / 10, "Repetitive JSON should compress well");
+    }
+
+    @Test
+    void testGet_WithOutOfRangeCount_ShouldShareEntryWithNormalizedCount() {
+        // Given
+        cache.put(0, "FI", UserQuery.NONE, SMALL);
+        cache.put(99_999, "FI", UserQuery.NONE, LARGE);
+
+        // When & Then
+        assertEquals(2, cache.size(), "Each normalized count should have one entry");
+        assertArrayEquals(SMALL, cache.get(Constants.DEFAULT_USER_COUNT, "FI", UserQuery.NONE).getJson(),
+            "Count below the minimum should share the default count's entry");
+        assertArrayEquals(LARGE, cache.get(Constants.MAX_USER_COUNT, "FI", UserQuery.NONE).getJson(),
+            "Count above the maximum should share the maximum count's entry");
+    }
+
+    @Test
+    void testGet_AfterTtl_ShouldMiss() {
+        // Given
+        cache.put(50, "FI", UserQuery.NONE, SMALL);
+        now = now.plus(properties.getTtl());
+
+        // When & Then
+        assertNull(cache.get(50, "FI", UserQuery.NONE), "Expired response should not be served");
+        assertEquals(1, cache.getMissCount(), "Miss should be counted");
+    }
+
+    @Test
+    void testPut_BeyondMaxEntries_ShouldEvictLeastRecentlyUsed() {
+        // Given
+        properties.setMaxEntries(2);
+        cache.put(10, "FI", UserQuery.NONE, SMALL);
+        now = now.plus(Duration.ofSeconds(1));
+        cache.put(10, "US", UserQuery.NONE, SMALL);
+        now = now.plus(Duration.ofSeconds(1));
+        cache.get(10, "FI", UserQuery.NONE);
+
+        // When
+        cache.put(10, "GB", UserQuery.NONE, SMALL);
+
+        // Then
+        assertEquals(2, cache.size(), "Cache should stay within max entries");
+        assertNull(cache.get(10, "US", UserQuery.NONE), "Least recently used response should be evicted");
+        assertNotNull(cache.get(10, "fi", UserQuery.NONE), "Recently used response should be kept");
+    }
+
+    @Test
+    void testAcceptsGzip_ShouldHonourZeroQuality() {
+        assertTrue(ResponseBytesCache.acceptsGzip("gzip, deflate, br"), "Plain gzip should be accepted");
+        assertTrue(ResponseBytesCache.acceptsGzip("br;q=1.0, GZIP;q=0.5"), "Weighted gzip should be accepted");
+        assertTrue(ResponseBytesCache.acceptsGzip("*"), "Wildcard should accept gzip");
+        assertFalse(ResponseBytesCache.acceptsGzip("gzip;q=0"), "Zero weight should refuse gzip");
+        assertFalse(ResponseBytesCache.acceptsGzip("identity"), "Other codings should not accept gzip");
+        assertFalse(ResponseBytesCache.acceptsGzip(null), "Missing header should not accept gzip");
+    }
+}
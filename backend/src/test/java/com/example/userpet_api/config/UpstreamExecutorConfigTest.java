@@ -0,0 +1,51 @@
+package com.example.userpet_api.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamExecutorConfigTest {
+
+    private ExecutorService executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCreateNested_WithFixedStrategy_ShouldNotDeadlockWhenTasksWaitOnEachOther() throws Exception {
+        // Given
+        UpstreamExecutorProperties properties = new UpstreamExecutorProperties();
+        properties.setNestedStrategy(UpstreamExecutorProperties.Strategy.FIXED);
+        properties.setPoolSize(1);
+        executor = UpstreamExecutorConfig.createNested(properties);
+
+        // When - a partition waiting on its hedged attempt, as in RandomUserServiceImpl
+        Future<String> outer = executor.submit(() -> executor.submit(() -> "attempt").get(5, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals("attempt", outer.get(5, TimeUnit.SECONDS), "Nested task should run while its caller waits");
+    }
+
+    @Test
+    void testCreateNested_WithCachedStrategy_ShouldNameThreadsApartFromUpstreamExecutor() throws Exception {
+        // Given
+        UpstreamExecutorProperties properties = new UpstreamExecutorProperties();
+        properties.setNestedStrategy(UpstreamExecutorProperties.Strategy.CACHED);
+        executor = UpstreamExecutorConfig.createNested(properties);
+
+        // When
+        String name = executor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(name.startsWith("upstream-nested-"), "Nested threads should be recognisable in thread dumps");
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.userpet_api.config;
+
+import com.example.userpet_api.metrics.UserPetMetrics;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamHttpClientConfigTest {
+
+    private static final byte[] BODY = "{\"message\":[\"https://images.dog.ceo/breeds/pug/1.jpg\"],\"status\":\"success\"}"
+        .getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private Set<Integer> clientPorts;
+    private volatile long responseDelayMillis;
+    private String url;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        clientPorts = ConcurrentHashMap.newKeySet();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/breeds/image/random", exchange -> {
+            // Each distinct client port is a distinct TCP connection
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            sleep(responseDelayMillis);
+            exchange.sendResponseHeaders(200, BODY.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(BODY);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/api/breeds/image/random/1";
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testRestTemplate_WithSequentialRequests_ShouldReuseOneConnection() {
+        // Given
+        RestTemplate restTemplate = UpstreamHttpClientConfig.createRestTemplate();
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            assertNotNull(restTemplate.getForObject(url, String.class), "Response should have a body");
+        }
+
+        // Then
+        assertEquals(1, clientPorts.size(), "Sequential requests should share one keep-alive connection");
+    }
+
+    @Test
+    void testRestTemplate_WithConcurrentRequests_ShouldStayWithinPerHostLimit() throws Exception {
+        // Given
+        UpstreamHttpProperties properties = new UpstreamHttpProperties();
+        properties.setMaxConnectionsPerHost(3);
+        RestTemplate restTemplate = UpstreamHttpClientConfig.createRestTemplate(properties);
+        responseDelayMillis = 5;
+
+        // When - 16 callers issue 20 requests each
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        List<Future<?>> calls = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            calls.add(callers.submit(() -> {
+                for (int j = 0; j < 20; j++) {
+                    restTemplate.getForObject(url, String.class);
+                }
+            }));
+        }
+        for (Future<?> call : calls) {
+            call.get(30, TimeUnit.SECONDS);
+        }
+        callers.shutdown();
+
+        // Then
+        assertTrue(clientPorts.size() <= 3,
+            "At most 3 connections should be opened to the host, saw " + clientPorts.size());
+    }
+
+    @Test
+    void testRestTemplate_WithTotalLimitBelowPerHostLimit_ShouldStayWithinTotalLimit() throws Exception {
+        // Given
+        UpstreamHttpProperties properties = new UpstreamHttpProperties();
+        properties.setMaxConnectionsPerHost(4);
+        properties.setMaxConnectionsTotal(2);
+        RestTemplate restTemplate = UpstreamHttpClientConfig.createRestTemplate(properties);
+        responseDelayMillis = 5;
+
+        // When - 8 callers issue 10 requests each
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<?>> calls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            calls.add(callers.submit(() -> {
+                for (int j = 0; j < 10; j++) {
+                    restTemplate.getForObject(url, String.class);
+                }
+            }));
+        }
+        for (Future<?> call : calls) {
+            call.get(30, TimeUnit.SECONDS);
+        }
+        callers.shutdown();
+
+        // Then
+        assertTrue(clientPorts.size() <= 2,
+            "The pool should open at most 2 connections in total, saw " + clientPorts.size());
+    }
+
+    @Test
+    void testRestTemplate_WhenResponseIsSlowerThanReadTimeout_ShouldFailFast() {
+        // Given
+        UpstreamHttpProperties properties = new UpstreamHttpProperties();
+        properties.setReadTimeout(Duration.ofMillis(200));
+        RestTemplate restTemplate = UpstreamHttpClientConfig.createRestTemplate(properties);
+        responseDelayMillis = 2_000;
+
+        // When & Then
+        long start = System.nanoTime();
+        assertThrows(ResourceAccessException.class, () -> restTemplate.getForObject(url, String.class));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_500,
+            "Call should give up at the read timeout");
+    }
+
+    @Test
+    void testRestTemplate_WhenNoSlotFreesUpWithinTotalTimeout_ShouldFail() throws Exception {
+        // Given - a single slot that is held by a slow call
+        UpstreamHttpProperties properties = new UpstreamHttpProperties();
+        properties.setMaxConnectionsPerHost(1);
+        properties.setTotalTimeout(Duration.ofMillis(200));
+        RestTemplate restTemplate = UpstreamHttpClientConfig.createRestTemplate(properties);
+        responseDelayMillis = 1_000;
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        caller.submit(() -> restTemplate.getForObject(url, String.class));
+        Thread.sleep(100);
+
+        // When & Then
+        assertThrows(ResourceAccessException.class, () -> restTemplate.getForObject(url, String.class),
+            "Waiting for a slot should be bounded by the total timeout");
+        caller.shutdownNow();
+    }
+
+    @Test
+    void testRestTemplate_WhenBodyStallsPastTotalTimeout_ShouldAbortAtTotalTimeout() {
+        // Given - a body that stalls for 3 s after its first byte, within the read timeout
+        server.createContext("/stall", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write('x');
+                out.flush();
+                sleep(3_000);
+                out.write(BODY);
+            } catch (IOException e) {
+                // The client gave up
+            }
+        });
+        UpstreamHttpProperties properties = new UpstreamHttpProperties();
+        properties.setTotalTimeout(Duration.ofMillis(300));
+        properties.setReadTimeout(Duration.ofSeconds(5));
+        RestTemplate restTemplate = UpstreamHttpClientConfig.createRestTemplate(properties);
+
+        // When & Then
+        long start = System.nanoTime();
+        RestClientException e = assertThrows(RestClientException.class,
+            () -> restTemplate.getForObject("http://127.0.0.1:" + server.getAddress().getPort() + "/stall",
+                String.class));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_500,
+            "The blocked read should be aborted at the total timeout");
+        assertEquals("Total upstream timeout exceeded", e.getCause().getMessage(),
+            "Failure should be caused by the total timeout");
+    }
+
+    @Test
+    void testRestTemplate_WithJdkClient_ShouldReuseConnectionsAndRespectLimits() throws Exception {
+        // Given
+        UpstreamHttpProperties properties = new UpstreamHttpProperties();
+        properties.setClient(UpstreamHttpProperties.Client.JDK);
+        properties.setMaxConnectionsPerHost(2);
+        RestTemplate restTemplate = UpstreamHttpClientConfig.createRestTemplate(properties);
+
+        // When
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<?>> calls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            calls.add(callers.submit(() -> {
+                for (int j = 0; j < 10; j++) {
+                    restTemplate.getForObject(url, String.class);
+                }
+            }));
+        }
+        for (Future<?> call : calls) {
+            call.get(30, TimeUnit.SECONDS);
+        }
+        callers.shutdown();
+
+        // Then
+        assertTrue(clientPorts.size() <= 2, "At most 2 connections should be opened, saw " + clientPorts.size());
+    }
+
+    @Test
+    void testRestTemplate_WithMetrics_ShouldTimeCallsAndCountResponseBytes() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RestTemplate restTemplate = UpstreamHttpClientConfig.createRestTemplate(
+            new UpstreamHttpProperties(), new UserPetMetrics(registry));
+
+        // When
+        restTemplate.getForObject(url + "?seed=x&nat=fi", String.class);
+        restTemplate.getForObject(url, String.class);
+
+        // Then
+        assertEquals(1, registry.get(UserPetMetrics.UPSTREAM_REQUESTS)
+            .tags("host", "127.0.0.1", "outcome", "success", "nationality", "FI").timer().count(),
+            "Nationality should be taken from the nat parameter");
+        assertEquals(1, registry.get(UserPetMetrics.UPSTREAM_REQUESTS)
+            .tags("nationality", "none").timer().count(), "Calls without nat should be tagged none");
+        assertEquals(2L * BODY.length, registry.get(UserPetMetrics.UPSTREAM_RESPONSE_SIZE).summary().totalAmount(),
+            0.001, "Every body byte should be counted");
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
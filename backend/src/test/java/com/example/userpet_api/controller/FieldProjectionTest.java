@@ -0,0 +1,94 @@
+package com.example.userpet_api.controller;
+
+import com.example.userpet_api.model.UserWithPet;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldProjectionTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    @Test
+    void testParse_WithBlankOrEveryField_ShouldReturnNull() {
+        // When & Then
+        assertNull(FieldProjection.parse(null), "Missing parameter should keep the full response");
+        assertNull(FieldProjection.parse(" , "), "Empty selection should keep the full response");
+        assertNull(FieldProjection.parse("id,gender,country,name,email,dob,phone,petImage,petThumbnail"),
+            "Selecting every field should use the full response");
+    }
+
+    @Test
+    void testParse_WithSameFieldsInAnyOrder_ShouldShareCompiledProjection() {
+        // When
+        FieldProjection first = FieldProjection.parse("petImage,name");
+        FieldProjection second = FieldProjection.parse(" name , petImage,name");
+
+        // Then
+        assertSame(first, second, "Equivalent selections should reuse one compiled projection");
+        assertEquals("name,petImage", first.key(), "Key should list fields in response order");
+    }
+
+    @Test
+    void testParse_WithUnknownField_ShouldThrow() {
+        // When
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+            () -> FieldProjection.parse("name,dob.year"));
+
+        // Then
+        assertTrue(error.getMessage().contains("dob.year"), "Message should name the unknown field");
+    }
+
+    @Test
+    void testWriteValueAsBytes_WithoutThumbnailField_ShouldMatchFullSerialization() {
+        // Given
+        List<UserWithPet> users = List.of(user("1", "Aino \"Ace\" Virtanen"), user("2", "Jane Smith"));
+        FieldProjection projection = FieldProjection.parse("id,gender,country,name,email,dob,phone,petImage");
+
+        // When
+        byte[] projected = projection.writeValueAsBytes(objectMapper, users);
+
+        // Then
+        assertArrayEquals(objectMapper.writeValueAsBytes(users), projected,
+            "Projection should write fields exactly as the full response does");
+    }
+
+    @Test
+    void testWriteValueAsBytes_WithNestedAndOptionalFields_ShouldWriteThemLikeFullResponse() {
+        // Given
+        UserWithPet withoutDob = user("1", "John Doe");
+        withoutDob.setDob(null);
+        UserWithPet withThumbnail = user("2", "Jane Smith");
+        withThumbnail.setPetThumbnail("/api/thumbnails/400/breeds/pug/2.jpg");
+
+        // When
+        String json = new String(FieldProjection.parse("dob.date,petThumbnail")
+            .writeValueAsBytes(objectMapper, List.of(withoutDob, withThumbnail)), StandardCharsets.UTF_8);
+
+        // Then
+        assertEquals("[{\"dob\":null},"
+                + "{\"dob\":{\"date\":\"1990-01-01T00:00:00.000Z\"},\"petThumbnail\":\"/api/thumbnails/400/breeds/pug/2.jpg\"}]",
+            json, "Missing dob should be null and a missing thumbnail left out");
+    }
+
+    private UserWithPet user(String id, String name) {
+        return UserWithPet.builder()
+            .id(id)
+            .gender("female")
+            .country("FI")
+            .name(name)
+            .email(id + "@example.com")
+            .dob(UserWithPet.Dob.builder()
+                .date("1990-01-01T00:00:00.000Z")
+                .age(34)
+                .build())
+            .phone("123-456-7890")
+            .petImage("https://dog" + id + ".jpg")
+            .build();
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.userpet_api.controller;
+
+import com.example.userpet_api.cache.ImageDiskCache;
+import com.example.userpet_api.config.ImageProxyProperties;
+import com.example.userpet_api.metrics.UserPetMetrics;
+import com.example.userpet_api.service.ImageProxyService;
+import com.example.userpet_api.service.ThumbnailService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ImageProxyController.class)
+@EnableConfigurationProperties(ImageProxyProperties.class)
+class ImageProxyControllerTest {
+
+    private static final String IMAGE_PATH = "breeds/pug/1.jpg";
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ImageProxyService imageProxy;
+
+    @MockitoBean
+    private ThumbnailService thumbnails;
+
+    // Needed by the serialization timing interceptor registered for /api/**
+    @MockitoBean
+    private UserPetMetrics metrics;
+
+    private byte[] content;
+    private ImageDiskCache.CachedImage image;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        content = new byte[100];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Path file = Files.write(directory.resolve("1.jpg"), content);
+        image = new ImageDiskCache.CachedImage(IMAGE_PATH, file, content.length, 1_700_000_000_000L);
+        when(imageProxy.getImage(IMAGE_PATH)).thenReturn(image);
+    }
+
+    @Test
+    void testGetImage_WithoutHeaders_ShouldServeWholeImageWithCacheHeaders() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/images/" + IMAGE_PATH))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("image/jpeg"))
+            .andExpect(content().bytes(content))
+            .andExpect(header().string(HttpHeaders.ETAG, image.getEtag()))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+            .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"));
+    }
+
+    @Test
+    void testGetImage_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/images/" + IMAGE_PATH).header(HttpHeaders.IF_NONE_MATCH, image.getEtag()))
+            .andExpect(status().isNotModified())
+            .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void testGetImage_WithRange_ShouldReturnPartialContent() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/images/" + IMAGE_PATH).header(HttpHeaders.RANGE, "bytes=10-19"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-19/100"))
+            .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+            .andExpect(content().bytes(Arrays.copyOfRange(content, 10, 20)));
+    }
+
+    @Test
+    void testGetImage_WithRangePastEnd_ShouldReturnRangeNotSatisfiable() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/images/" + IMAGE_PATH).header(HttpHeaders.RANGE, "bytes=200-"))
+            .andExpect(status().isRequestedRangeNotSatisfiable())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */100"));
+    }
+
+    @Test
+    void testGetImage_WithStaleIfRange_ShouldIgnoreRange() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/images/" + IMAGE_PATH)
+                .header(HttpHeaders.RANGE, "bytes=10-19")
+                .header(HttpHeaders.IF_RANGE, "\"old\""))
+            .andExpect(status().isOk())
+            .andExpect(content().bytes(content));
+    }
+
+    @Test
+    void testGetImage_WhenNotProxied_ShouldReturnNotFound() throws Exception {
+        // Given
+        when(imageProxy.getImage("missing.jpg")).thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND));
+
+        // When & Then
+        mockMvc.perform(get("/api/images/missing.jpg"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetThumbnail_WhenReady_ShouldServeThumbnailWithCacheHeaders() throws Exception {
+        // Given
+        when(thumbnails.getThumbnail(400, IMAGE_PATH)).thenReturn(image);
+
+        // When & Then
+        mockMvc.perform(get("/api/thumbnails/400/" + IMAGE_PATH))
+            .andExpect(status().isOk())
+            .andExpect(content().bytes(content))
+            .andExpect(header().string(HttpHeaders.ETAG, image.getEtag()))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")));
+    }
+
+    @Test
+    void testGetThumbnail_WhenNotReady_ShouldRedirectToFullImage() throws Exception {
+        // Given
+        when(thumbnails.getThumbnail(400, IMAGE_PATH)).thenReturn(null);
+
+        // When & Then
+        mockMvc.perform(get("/api/thumbnails/400/" + IMAGE_PATH))
+            .andExpect(status().isTemporaryRedirect())
+            .andExpect(header().string(HttpHeaders.LOCATION, "/api/images/" + IMAGE_PATH))
+            .andExpect(header().doesNotExist(HttpHeaders.CACHE_CONTROL));
+    }
+}
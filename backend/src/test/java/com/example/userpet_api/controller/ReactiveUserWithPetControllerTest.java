@@ -0,0 +1,172 @@
+package com.example.userpet_api.controller;
+
+import com.example.userpet_api.cache.ResponseBytesCache;
+import com.example.userpet_api.config.ResponseCacheProperties;
+import com.example.userpet_api.model.UserWithPet;
+import com.example.userpet_api.query.UserQuery;
+import com.example.userpet_api.resilience.UpstreamUnavailableException;
+import com.example.userpet_api.service.ReactiveUserWithPetAggregatorService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.webflux.test.autoconfigure.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.json.JsonCompareMode;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@WebFluxTest(ReactiveUserWithPetController.class)
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+@Import(ResponseBytesCache.class)
+class ReactiveUserWithPetControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ResponseCacheProperties responseCacheProperties;
+
+    @Autowired
+    private ResponseBytesCache responseCache;
+
+    @MockitoBean
+    private ReactiveUserWithPetAggregatorService aggregatorService;
+
+    private final List<UserWithPet> users = List.of(
+        createUser("1", "John Doe", "https://dog1.jpg"),
+        createUser("2", "Jane Smith", "https://dog2.jpg"));
+
+    @AfterEach
+    void tearDown() {
+        responseCacheProperties.setEnabled(false);
+        responseCache.clear();
+    }
+
+    @Test
+    void testGetUsersWithPet_WithFilters_ShouldPassQueryToReactiveAggregator() {
+        // Given
+        when(aggregatorService.getUsersWithPets(eq(20), eq("FI"), any(UserQuery.class))).thenReturn(Mono.just(users));
+
+        // When & Then
+        webTestClient.get().uri("/api/users-with-pet?results=20&nat=FI&gender=female&sort=-age")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.length()").isEqualTo(2)
+            .jsonPath("$[1].petImage").isEqualTo("https://dog2.jpg");
+
+        verify(aggregatorService).getUsersWithPets(eq(20), eq("FI"),
+            argThat(query -> "female".equals(query.getGender()) && query.getSort() != null));
+    }
+
+    @Test
+    void testGetUsersWithPet_WithInvalidSort_ShouldReturnBadRequest() {
+        // When & Then
+        webTestClient.get().uri("/api/users-with-pet?sort=shoeSize")
+            .exchange()
+            .expectStatus().isBadRequest();
+
+        verifyNoInteractions(aggregatorService);
+    }
+
+    @Test
+    void testGetUsersWithPet_WithFields_ShouldReturnOnlySelectedFields() {
+        // Given
+        when(aggregatorService.getUsersWithPets(eq(50), isNull(), any(UserQuery.class))).thenReturn(Mono.just(users));
+
+        // When & Then
+        webTestClient.get().uri("/api/users-with-pet?fields=name,petImage")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .json("[{\"name\":\"John Doe\",\"petImage\":\"https://dog1.jpg\"},"
+                + "{\"name\":\"Jane Smith\",\"petImage\":\"https://dog2.jpg\"}]", JsonCompareMode.STRICT);
+    }
+
+    @Test
+    void testGetUsersWithPet_WithResponseCache_ShouldServeRepeatAndAnswerNotModified() {
+        // Given
+        responseCacheProperties.setEnabled(true);
+        when(aggregatorService.getUsersWithPets(eq(50), isNull(), any(UserQuery.class))).thenReturn(Mono.just(users));
+
+        // When
+        String etag = webTestClient.get().uri("/api/users-with-pet")
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(String.class)
+            .getResponseHeaders().getETag();
+
+        // Then
+        assertNotNull(etag, "Cached response should carry an ETag");
+        webTestClient.get().uri("/api/users-with-pet")
+            .header(HttpHeaders.IF_NONE_MATCH, etag)
+            .exchange()
+            .expectStatus().isNotModified();
+        verify(aggregatorService, times(1)).getUsersWithPets(eq(50), isNull(), any(UserQuery.class));
+    }
+
+    @Test
+    void testStreamUsersWithPet_AsNdjson_ShouldWriteOneLinePerUser() {
+        // Given
+        when(aggregatorService.streamUsersWithPets(10, null)).thenReturn(Flux.fromIterable(users));
+
+        // When
+        List<UserWithPet> streamed = webTestClient.get().uri("/api/users-with-pet/stream?results=10")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(UserWithPet.class)
+            .getResponseBody()
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        // Then
+        assertEquals(users, streamed, "Every user should arrive as its own record");
+    }
+
+    @Test
+    void testGetUsersWithPet_WhenCircuitOpen_ShouldReturnServiceUnavailable() {
+        // Given
+        when(aggregatorService.getUsersWithPets(eq(50), isNull(), any(UserQuery.class)))
+            .thenReturn(Mono.error(new UpstreamUnavailableException("randomuser", Duration.ofSeconds(7))));
+
+        // When & Then
+        webTestClient.get().uri("/api/users-with-pet")
+            .exchange()
+            .expectStatus().isEqualTo(503)
+            .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "7");
+    }
+
+    private static UserWithPet createUser(String id, String name, String petImage) {
+        return UserWithPet.builder()
+            .id(id)
+            .name(name)
+            .email(id + "@example.com")
+            .country("FI")
+            .gender("female")
+            .phone("123-456-7890")
+            .dob(UserWithPet.Dob.builder()
+                .date("1990-01-01T00:00:00.000Z")
+                .age(34)
+                .build())
+            .petImage(petImage)
+            .build();
+    }
+}
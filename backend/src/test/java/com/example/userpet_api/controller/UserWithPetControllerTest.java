@@ -1,29 +1,98 @@
 package com.example.userpet_api.controller;
 
+import com.example.userpet_api.cache.ResponseBytesCache;
+import com.example.userpet_api.config.AggregatorProperties;
+import com.example.userpet_api.config.BulkheadProperties;
+import com.example.userpet_api.config.ResponseCacheProperties;
+import com.example.userpet_api.config.StreamProperties;
+import com.example.userpet_api.metrics.UserPetMetrics;
 import com.example.userpet_api.model.UserWithPet;
+import com.example.userpet_api.query.BatchQuery;
+import com.example.userpet_api.query.UserQuery;
+import com.example.userpet_api.resilience.AdaptiveBulkhead;
+import com.example.userpet_api.resilience.BulkheadFullException;
+import com.example.userpet_api.resilience.UpstreamUnavailableException;
 import com.example.userpet_api.service.UserWithPetAggregatorService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
-import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.test.web.servlet.MockMvc;
-
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(UserWithPetController.class)
+@EnableConfigurationProperties({StreamProperties.class, ResponseCacheProperties.class, AggregatorProperties.class,
+    BulkheadProperties.class})
+@Import({UserPetMetrics.class, ResponseBytesCache.class, AdaptiveBulkhead.class})
 class UserWithPetControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
-    @MockBean
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ResponseCacheProperties responseCacheProperties;
+
+    @Autowired
+    private ResponseBytesCache responseCache;
+
+    @Autowired
+    private BulkheadProperties bulkheadProperties;
+
+    @Autowired
+    private AdaptiveBulkhead bulkhead;
+
+    @Autowired
+    private ThreadPoolTaskExecutor streamExecutor;
+
+    @MockitoBean
     private UserWithPetAggregatorService aggregatorService;
 
     private List<UserWithPet> mockUsers;
@@ -37,6 +106,13 @@ class UserWithPetControllerTest {
         );
     }
 
+    @AfterEach
+    void tearDown() {
+        responseCacheProperties.setEnabled(false);
+        responseCacheProperties.setGzipMinSize(new ResponseCacheProperties().getGzipMinSize());
+        responseCache.clear();
+    }
+
     @Test
     void testGetUsersWithPet_NoParameters_ShouldReturnDefaultUsers() throws Exception {
         // Given
@@ -219,6 +295,400 @@ class UserWithPetControllerTest {
         }
     }
 
+    @Test
+    void testGetUsersWithPet_ShouldTimeResponseSerialization() throws Exception {
+        // Given
+        when(aggregatorService.getUsersWithPets(50, null)).thenReturn(mockUsers);
+        Timer serialization = meterRegistry.get(UserPetMetrics.STAGE).tag("stage", "serialize").timer();
+        long before = serialization.count();
+
+        // When
+        mockMvc.perform(get("/api/users-with-pet"))
+            .andExpect(status().isOk());
+
+        // Then
+        assertEquals(before + 1, serialization.count(), "Serialization of the response should be timed");
+    }
+
+    @Test
+    void testGetUsersWithPet_WhenUpstreamIsUnavailable_ShouldReturn503WithRetryAfter() throws Exception {
+        // Given
+        when(aggregatorService.getUsersWithPets(50, null))
+            .thenThrow(new UpstreamUnavailableException("randomuser", Duration.ofMillis(4_200)));
+
+        // When & Then
+        mockMvc.perform(get("/api/users-with-pet"))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string("Retry-After", "5"))
+            .andExpect(jsonPath("$.status", is(503)));
+    }
+
+    @Test
+    void testStreamUsersWithPet_AsNdjson_ShouldWriteOneUserPerLine() throws Exception {
+        // Given
+        stubStream(50, null);
+
+        // When
+        MvcResult pending = mockMvc.perform(get("/api/users-with-pet/stream")
+                .accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Then
+        String body = mockMvc.perform(asyncDispatch(pending))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length, "Should write one line per user");
+        assertTrue(lines[0].contains("\"id\":\"1\""), "First line should be the first user");
+        assertTrue(lines[2].contains("\"petImage\":\"https://dog3.jpg\""), "Last line should be the last user");
+    }
+
+    @Test
+    void testStreamUsersWithPet_AsServerSentEvents_ShouldWriteOneEventPerUser() throws Exception {
+        // Given
+        stubStream(20, "FI");
+
+        // When
+        MvcResult pending = mockMvc.perform(get("/api/users-with-pet/stream")
+                .param("results", "20")
+                .param("nat", "FI")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Then
+        String body = mockMvc.perform(asyncDispatch(pending))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+            .andReturn().getResponse().getContentAsString();
+        String[] events = body.split("\n\n");
+        assertEquals(3, events.length, "Should write one event per user");
+        for (String event : events) {
+            assertTrue(event.startsWith("data: {"), "Each event should carry the user as data");
+        }
+        verify(aggregatorService, times(1)).streamUsersWithPets(eq(20), eq("FI"), any());
+    }
+
+    @Test
+    void testGetUsersWithPet_WithResponseCache_ShouldServeRepeatsFromCachedBytes() throws Exception {
+        // Given
+        responseCacheProperties.setEnabled(true);
+        when(aggregatorService.getUsersWithPets(20, "FI")).thenReturn(mockUsers);
+        String first = mockMvc.perform(get("/api/users-with-pet").param("results", "20").param("nat", "FI"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("ETag"))
+            .andReturn().getResponse().getContentAsString();
+
+        // When & Then
+        mockMvc.perform(get("/api/users-with-pet").param("results", "20").param("nat", "fi"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/json"))
+            .andExpect(content().string(first))
+            .andExpect(jsonPath("$", hasSize(3)))
+            .andExpect(jsonPath("$[1].name", is("Jane Smith")));
+
+        verify(aggregatorService, times(1)).getUsersWithPets(eq(20), any());
+    }
+
+    @Test
+    void testGetUsersWithPet_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        // Given
+        responseCacheProperties.setEnabled(true);
+        when(aggregatorService.getUsersWithPets(50, null)).thenReturn(mockUsers);
+        String etag = mockMvc.perform(get("/api/users-with-pet"))
+            .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then
+        mockMvc.perform(get("/api/users-with-pet").header("If-None-Match", etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", etag))
+            .andExpect(content().string(""));
+
+        verify(aggregatorService, times(1)).getUsersWithPets(50, null);
+    }
+
+    @Test
+    void testGetUsersWithPet_WithGzipAccepted_ShouldReturnCompressedCopy() throws Exception {
+        // Given
+        responseCacheProperties.setEnabled(true);
+        responseCacheProperties.setGzipMinSize(0);
+        when(aggregatorService.getUsersWithPets(50, null)).thenReturn(mockUsers);
+        MvcResult plain = mockMvc.perform(get("/api/users-with-pet")).andReturn();
+
+        // When
+        MvcResult compressed = mockMvc.perform(get("/api/users-with-pet").header("Accept-Encoding", "gzip, deflate"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Encoding", "gzip"))
+            .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+            .andReturn();
+
+        // Then
+        assertEquals(plain.getResponse().getContentAsString(), gunzip(compressed.getResponse().getContentAsByteArray()),
+            "Compressed copy should decode to the same JSON");
+        assertNotEquals(plain.getResponse().getHeader("ETag"), compressed.getResponse().getHeader("ETag"),
+            "Each encoding should have its own strong ETag");
+    }
+
+    @Test
+    void testGetUsersWithPet_WithResponseCacheAndNoUsers_ShouldNotCacheEmptyResult() throws Exception {
+        // Given
+        responseCacheProperties.setEnabled(true);
+        when(aggregatorService.getUsersWithPets(50, null)).thenReturn(List.of()).thenReturn(mockUsers);
+
+        // When
+        mockMvc.perform(get("/api/users-with-pet")).andExpect(jsonPath("$", hasSize(0)));
+
+        // Then
+        mockMvc.perform(get("/api/users-with-pet")).andExpect(jsonPath("$", hasSize(3)));
+        verify(aggregatorService, times(2)).getUsersWithPets(50, null);
+    }
+
+    @Test
+    void testGetUsersWithPet_WithFilterParameters_ShouldPassQueryToAggregator() throws Exception {
+        // Given
+        UserQuery query = UserQuery.builder()
+            .minAge(30).maxAge(40).gender("female").country("FI").sort(UserQuery.Sort.AGE_DESC).build();
+        when(aggregatorService.getUsersWithPets(200, null, query)).thenReturn(List.of(mockUsers.get(1)));
+
+        // When & Then
+        mockMvc.perform(get("/api/users-with-pet")
+                .param("results", "200")
+                .param("minAge", "30")
+                .param("maxAge", "40")
+                .param("gender", "female")
+                .param("country", "FI")
+                .param("sort", "-age"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].name", is("Jane Smith")));
+
+        verify(aggregatorService, never()).getUsersWithPets(anyInt(), any());
+    }
+
+    @Test
+    void testGetUsersWithPet_WithUnsupportedSort_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/users-with-pet").param("sort", "email"))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(aggregatorService);
+    }
+
+    @Test
+    void testGetUsersWithPet_WithResponseCache_ShouldCacheEachQuerySeparately() throws Exception {
+        // Given
+        responseCacheProperties.setEnabled(true);
+        UserQuery query = UserQuery.builder().country("US").build();
+        when(aggregatorService.getUsersWithPets(50, null)).thenReturn(mockUsers);
+        when(aggregatorService.getUsersWithPets(50, null, query)).thenReturn(List.of(mockUsers.get(0)));
+
+        // When
+        mockMvc.perform(get("/api/users-with-pet")).andExpect(jsonPath("$", hasSize(3)));
+        mockMvc.perform(get("/api/users-with-pet").param("country", "US")).andExpect(jsonPath("$", hasSize(1)));
+
+        // Then
+        mockMvc.perform(get("/api/users-with-pet").param("country", "US")).andExpect(jsonPath("$", hasSize(1)));
+        verify(aggregatorService, times(1)).getUsersWithPets(50, null, query);
+    }
+
+    @Test
+    void testGetUsersWithPet_WithFields_ShouldReturnOnlySelectedFields() throws Exception {
+        // Given
+        when(aggregatorService.getUsersWithPets(50, null)).thenReturn(mockUsers);
+
+        // When & Then
+        mockMvc.perform(get("/api/users-with-pet").param("fields", "petImage,name,dob.age"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/json"))
+            .andExpect(content().string(org.hamcrest.Matchers.startsWith(
+                "[{\"name\":\"John Doe\",\"dob\":{\"age\":34},\"petImage\":\"https://dog1.jpg\"}")))
+            .andExpect(jsonPath("$", hasSize(3)))
+            .andExpect(jsonPath("$[0].email").doesNotExist());
+    }
+
+    @Test
+    void testGetUsersWithPet_WithUnknownField_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/users-with-pet").param("fields", "name,password"))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(aggregatorService);
+    }
+
+    @Test
+    void testGetUsersWithPet_WithResponseCache_ShouldCacheEachProjectionSeparately() throws Exception {
+        // Given
+        responseCacheProperties.setEnabled(true);
+        when(aggregatorService.getUsersWithPets(50, null)).thenReturn(mockUsers);
+        mockMvc.perform(get("/api/users-with-pet")).andExpect(jsonPath("$[0].email", is("john@example.com")));
+
+        // When & Then
+        mockMvc.perform(get("/api/users-with-pet").param("fields", "name"))
+            .andExpect(jsonPath("$[0].name", is("John Doe")))
+            .andExpect(jsonPath("$[0].email").doesNotExist());
+        mockMvc.perform(get("/api/users-with-pet").param("fields", " name,"))
+            .andExpect(jsonPath("$[0].email").doesNotExist());
+        verify(aggregatorService, times(2)).getUsersWithPets(50, null);
+    }
+
+    @Test
+    void testGetUsersWithPetBatch_ShouldReturnResultsInQueryOrder() throws Exception {
+        // Given
+        List<BatchQuery> expected = List.of(
+            new BatchQuery(2, "FI", UserQuery.NONE),
+            new BatchQuery(50, null, UserQuery.builder().sort(UserQuery.Sort.NAME).build()));
+        when(aggregatorService.getUsersWithPetsBatch(expected))
+            .thenReturn(List.of(mockUsers.subList(0, 2), mockUsers));
+
+        // When & Then
+        mockMvc.perform(post("/api/users-with-pet/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"queries\": [{\"results\": 2, \"nat\": \"FI\"}, {\"sort\": \"name\"}]}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.results", hasSize(2)))
+            .andExpect(jsonPath("$.results[0].query.nat", is("FI")))
+            .andExpect(jsonPath("$.results[0].users", hasSize(2)))
+            .andExpect(jsonPath("$.results[1].query.sort", is("name")))
+            .andExpect(jsonPath("$.results[1].users", hasSize(3)));
+
+        verify(aggregatorService, times(1)).getUsersWithPetsBatch(expected);
+    }
+
+    @Test
+    void testGetUsersWithPetBatch_WithoutQueries_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/users-with-pet/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"queries\": []}"))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(aggregatorService);
+    }
+
+    @Test
+    void testGetUsersWithPetBatch_WithTooManyQueries_ShouldReturnBadRequest() throws Exception {
+        // Given
+        String queries = String.join(",", Collections.nCopies(21, "{\"results\": 5}"));
+
+        // When & Then
+        mockMvc.perform(post("/api/users-with-pet/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"queries\": [" + queries + "]}"))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(aggregatorService);
+    }
+
+    @Test
+    void testGetUsersWithPet_WhenBulkheadQueueIsFull_ShouldReturnTooManyRequestsWithRetryAfter() throws Exception {
+        // Given
+        when(aggregatorService.getUsersWithPets(50, null))
+            .thenThrow(new BulkheadFullException(BulkheadFullException.Reason.QUEUE_FULL, Duration.ofMillis(1500)));
+
+        // When & Then
+        mockMvc.perform(get("/api/users-with-pet"))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After", "2"));
+    }
+
+    @Test
+    void testStreamUsersWithPet_WhenBulkheadIsFull_ShouldRejectBeforeStreaming() throws Exception {
+        // Given - every slot is taken and nothing may queue
+        bulkheadProperties.setQueueSize(0);
+        List<AdaptiveBulkhead.Permit> permits = new ArrayList<>();
+        try {
+            while (bulkhead.getInFlight() < bulkhead.getLimit()) {
+                permits.add(bulkhead.acquire());
+            }
+
+            // When & Then
+            mockMvc.perform(get("/api/users-with-pet/stream").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+            verifyNoInteractions(aggregatorService);
+        } finally {
+            permits.forEach(AdaptiveBulkhead.Permit::close);
+            bulkheadProperties.setQueueSize(new BulkheadProperties().getQueueSize());
+        }
+    }
+
+    @Test
+    void testStreamUsersWithPet_WhenTimedOutBeforeStarting_ShouldReleaseBulkheadSlot() throws Exception {
+        // Given - the only stream thread is busy, so the stream queues behind it
+        CountDownLatch busy = new CountDownLatch(1);
+        streamExecutor.execute(() -> {
+            try {
+                busy.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            MvcResult pending = mockMvc.perform(get("/api/users-with-pet/stream").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            assertEquals(1, bulkhead.getInFlight(), "Queued stream should hold its bulkhead slot");
+
+            // When - the container times the request out and completes it
+            MockAsyncContext asyncContext = (MockAsyncContext) pending.getRequest().getAsyncContext();
+            for (AsyncListener listener : asyncContext.getListeners()) {
+                listener.onTimeout(new AsyncEvent(asyncContext));
+            }
+            asyncContext.complete();
+
+            // Then
+            assertEquals(0, bulkhead.getInFlight(), "Timed-out stream should free its slot without ever running");
+            verifyNoInteractions(aggregatorService);
+        } finally {
+            busy.countDown();
+        }
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void stubStream(int count, String nat) {
+        doAnswer(invocation -> {
+            Consumer<UserWithPet> sink = invocation.getArgument(2);
+            mockUsers.forEach(sink);
+            return mockUsers.size();
+        }).when(aggregatorService).streamUsersWithPets(eq(count), nat == null ? isNull() : eq(nat),
+            ArgumentMatchers.<Consumer<UserWithPet>>any());
+    }
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        // One thread, so a test can keep a stream queued until it times out
+        @Bean
+        ThreadPoolTaskExecutor streamExecutor() {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(1);
+            executor.setMaxPoolSize(1);
+            executor.setThreadNamePrefix("stream-test-");
+            return executor;
+        }
+
+        @Bean
+        WebMvcConfigurer streamExecutorConfigurer(ThreadPoolTaskExecutor streamExecutor) {
+            return new WebMvcConfigurer() {
+                @Override
+                public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                    configurer.setTaskExecutor(streamExecutor);
+                }
+            };
+        }
+    }
+
     // Helper method to create mock users
     private UserWithPet createMockUser(String id, String name, String email, String country, String petImage) {
         return UserWithPet.builder()
@@ -0,0 +1,76 @@
+package com.example.userpet_api.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPetMetricsTest {
+
+    private MeterRegistry registry;
+    private UserPetMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new UserPetMetrics(registry);
+    }
+
+    @Test
+    void testRecordUpstream_ShouldTagByHostOutcomeAndNationality() {
+        // When
+        metrics.recordUpstream("randomuser.me", UserPetMetrics.Outcome.SUCCESS, "fi",
+            TimeUnit.MILLISECONDS.toNanos(120), 4_096);
+        metrics.recordUpstream("randomuser.me", UserPetMetrics.Outcome.SUCCESS, "FI",
+            TimeUnit.MILLISECONDS.toNanos(80), 2_048);
+
+        // Then
+        Timer timer = registry.get(UserPetMetrics.UPSTREAM_REQUESTS)
+            .tags("host", "randomuser.me", "outcome", "success", "nationality", "FI").timer();
+        assertEquals(2, timer.count(), "Both calls should share one timer");
+        assertEquals(200, timer.totalTime(TimeUnit.MILLISECONDS), 0.001, "Durations should be summed");
+        DistributionSummary sizes = registry.get(UserPetMetrics.UPSTREAM_RESPONSE_SIZE)
+            .tag("host", "randomuser.me").summary();
+        assertEquals(6_144, sizes.totalAmount(), 0.001, "Response bytes should be recorded");
+    }
+
+    @Test
+    void testRecordUpstream_WithFailedCall_ShouldNotRecordSize() {
+        // When
+        metrics.recordUpstream("dog.ceo", UserPetMetrics.Outcome.IO_ERROR, null, 1_000, -1);
+
+        // Then
+        assertEquals(1, registry.get(UserPetMetrics.UPSTREAM_REQUESTS)
+            .tags("outcome", "io_error", "nationality", "none").timer().count(), "Failure should be timed");
+        assertNull(registry.find(UserPetMetrics.UPSTREAM_RESPONSE_SIZE).summary(), "No body, no size");
+    }
+
+    @Test
+    void testNationalityTag_ShouldBoundCardinality() {
+        assertEquals("none", UserPetMetrics.nationalityTag(null), "Missing nationality");
+        assertEquals("none", UserPetMetrics.nationalityTag(" "), "Blank nationality");
+        assertEquals("GB", UserPetMetrics.nationalityTag("gb"), "Known nationality is upper-cased");
+        assertEquals("other", UserPetMetrics.nationalityTag("xx-<script>"), "Unknown values collapse to one tag");
+        assertEquals("multiple", UserPetMetrics.nationalityTag("FI,US"), "Lists collapse to one tag");
+    }
+
+    @Test
+    void testRecordStage_ShouldUsePrecreatedTimers() {
+        // Given - all stage timers exist before anything is recorded
+        assertEquals(UserPetMetrics.Stage.values().length, registry.find(UserPetMetrics.STAGE).timers().size(),
+            "Stage timers should be registered up front");
+
+        // When
+        metrics.recordStage(UserPetMetrics.Stage.MERGE, 5_000);
+
+        // Then
+        assertEquals(1, registry.get(UserPetMetrics.STAGE).tag("stage", "merge").timer().count(),
+            "Merge should be timed");
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.userpet_api.query;
+
+import com.example.userpet_api.model.UserWithPet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserIndexTest {
+
+    private UserIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = UserIndex.build(List.of(
+            user("Bea", "female", "FI", 41),
+            user("adam", "male", "US", 25),
+            user("Cecilia", "female", "US", 33),
+            user("Dan", "male", "FI", 33),
+            user(null, "female", "FI", null),
+            user("Eve", "Female", "fi", 58)
+        ));
+    }
+
+    @Test
+    void testSelect_WithEmptyQuery_ShouldKeepListOrder() {
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5}, index.select(UserQuery.NONE, 10),
+            "Every position should be selected in list order");
+    }
+
+    @Test
+    void testSelect_WithAgeRange_ShouldIncludeBothBoundsAndSkipUnknownAges() {
+        // When
+        int[] selected = index.select(UserQuery.builder().minAge(33).maxAge(41).build(), 10);
+
+        // Then
+        assertArrayEquals(new int[]{0, 2, 3}, selected, "Ages 33 to 41 inclusive should match");
+        assertArrayEquals(new int[]{1, 2, 3, 0, 5}, index.select(UserQuery.builder().minAge(0).sort(UserQuery.Sort.AGE).build(), 10),
+            "A user without a date of birth should never match an age filter");
+    }
+
+    @Test
+    void testSelect_WithGenderAndCountry_ShouldAndFiltersIgnoringCase() {
+        // When
+        int[] selected = index.select(UserQuery.builder().gender("FEMALE").country("fi").build(), 10);
+
+        // Then
+        assertArrayEquals(new int[]{0, 4, 5}, selected, "Both filters should apply, case-insensitively");
+        assertEquals(0, index.select(UserQuery.builder().country("BR").build(), 10).length,
+            "Unknown country should match nobody");
+    }
+
+    @Test
+    void testSelect_WithSort_ShouldOrderMatches() {
+        // When
+        int[] byAgeDesc = index.select(UserQuery.builder().gender("female").sort(UserQuery.Sort.AGE_DESC).build(), 10);
+        int[] byName = index.select(UserQuery.builder().sort(UserQuery.Sort.NAME).build(), 10);
+
+        // Then
+        assertArrayEquals(new int[]{5, 0, 2, 4}, byAgeDesc, "Oldest first, unknown age last");
+        assertArrayEquals(new int[]{1, 0, 2, 3, 5, 4}, byName, "Names case-insensitive, missing names last");
+    }
+
+    @Test
+    void testSelect_WithLimit_ShouldOnlyConsiderLeadingUsers() {
+        // When
+        int[] selected = index.select(UserQuery.builder().country("FI").sort(UserQuery.Sort.NAME_DESC).build(), 4);
+
+        // Then
+        assertArrayEquals(new int[]{3, 0}, selected, "Users past the limit should not be selected");
+    }
+
+    @Test
+    void testSortParse_ShouldAcceptKnownValuesOnly() {
+        assertEquals(UserQuery.Sort.AGE_DESC, UserQuery.Sort.parse(" -Age "), "Descending age");
+        assertNull(UserQuery.Sort.parse(""), "Blank means unsorted");
+        assertThrows(IllegalArgumentException.class, () -> UserQuery.Sort.parse("email"), "Unknown field");
+    }
+
+    private static UserWithPet user(String name, String gender, String country, Integer age) {
+        return UserWithPet.builder()
+            .id("id-" + name)
+            .name(name)
+            .gender(gender)
+            .country(country)
+            .dob(age == null ? null : UserWithPet.Dob.builder().age(age).build())
+            .build();
+    }
+}
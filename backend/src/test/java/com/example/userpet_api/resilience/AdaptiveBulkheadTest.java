@@ -0,0 +1,148 @@
+package com.example.userpet_api.resilience;
+
+import com.example.userpet_api.config.BulkheadProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveBulkheadTest {
+
+    private static final long FAST = Duration.ofMillis(50).toNanos();
+    private static final long SLOW = Duration.ofSeconds(5).toNanos();
+
+    private BulkheadProperties properties;
+    private AdaptiveBulkhead bulkhead;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new BulkheadProperties();
+        properties.setInitialLimit(4);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(6);
+        properties.setQueueSize(1);
+        properties.setMaxWait(Duration.ofMillis(100));
+        properties.setLatencyThreshold(Duration.ofSeconds(1));
+        properties.setBackoffRatio(0.5);
+        bulkhead = new AdaptiveBulkhead(properties);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testRelease_WithFastCallsUnderLoad_ShouldRaiseLimitUpToMaximum() {
+        // When - every call finishes in time while all slots are in use
+        for (int round = 0; round < 5; round++) {
+            List<AdaptiveBulkhead.Permit> permits = acquire(bulkhead.getLimit());
+            permits.forEach(permit -> permit.release(FAST, false));
+        }
+
+        // Then
+        assertEquals(6, bulkhead.getLimit(), "Limit should grow but stop at the maximum");
+        assertEquals(0, bulkhead.getInFlight(), "Every slot should be free again");
+    }
+
+    @Test
+    void testRelease_WithLightLoad_ShouldNotRaiseLimit() {
+        // When - one call at a time never uses half of the limit
+        for (int i = 0; i < 10; i++) {
+            bulkhead.acquire().release(FAST, false);
+        }
+
+        // Then
+        assertEquals(4, bulkhead.getLimit(), "An unused limit should not grow");
+    }
+
+    @Test
+    void testRelease_WithSlowOrFailedCalls_ShouldBackOffToMinimum() {
+        // When
+        bulkhead.acquire().release(SLOW, false);
+        int afterSlowCall = bulkhead.getLimit();
+        bulkhead.acquire().release(FAST, true);
+        bulkhead.acquire().release(FAST, true);
+
+        // Then
+        assertEquals(2, afterSlowCall, "A slow call should halve the limit");
+        assertEquals(2, bulkhead.getLimit(), "Limit should not drop below the minimum");
+    }
+
+    @Test
+    void testAcquire_WhenLimitAndQueueAreFull_ShouldRejectImmediately() throws Exception {
+        // Given - all slots taken and one request already queued
+        properties.setMaxWait(Duration.ofMillis(300));
+        acquire(4);
+        Future<?> queued = executor.submit(() -> bulkhead.acquire());
+        awaitWaiting(1);
+
+        // When
+        BulkheadFullException error = assertThrows(BulkheadFullException.class, () -> bulkhead.acquire());
+
+        // Then
+        assertEquals(BulkheadFullException.Reason.QUEUE_FULL, error.getReason(), "Queue was full");
+        assertEquals(1, bulkhead.getQueueFullCount(), "Rejection should be counted");
+        Exception timedOut = assertThrows(Exception.class, () -> queued.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(BulkheadFullException.class, timedOut.getCause(), "Queued request should time out");
+        assertEquals(1, bulkhead.getWaitTimeoutCount(), "Timeout should be counted");
+    }
+
+    @Test
+    void testAcquire_WhenSlotFreesWhileWaiting_ShouldAdmitQueuedRequest() throws Exception {
+        // Given
+        properties.setMaxWait(Duration.ofSeconds(5));
+        List<AdaptiveBulkhead.Permit> permits = acquire(4);
+        Future<AdaptiveBulkhead.Permit> queued = executor.submit(() -> bulkhead.acquire());
+        awaitWaiting(1);
+
+        // When
+        permits.get(0).close();
+
+        // Then
+        assertNotNull(queued.get(1, TimeUnit.SECONDS), "Queued request should get the freed slot");
+        assertEquals(4, bulkhead.getInFlight(), "Freed slot should be taken again");
+        assertEquals(4, bulkhead.getLimit(), "Closing a permit should not adjust the limit");
+    }
+
+    @Test
+    void testExecute_WhenDisabled_ShouldNotLimit() {
+        // Given
+        properties.setEnabled(false);
+        acquire(10);
+
+        // When
+        String result = bulkhead.execute(() -> "ok");
+
+        // Then
+        assertEquals("ok", result, "Call should run");
+        assertEquals(0, bulkhead.getInFlight(), "Disabled bulkhead should not track calls");
+    }
+
+    private List<AdaptiveBulkhead.Permit> acquire(int count) {
+        List<AdaptiveBulkhead.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            permits.add(bulkhead.acquire());
+        }
+        return permits;
+    }
+
+    private void awaitWaiting(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (bulkhead.getWaiting() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, bulkhead.getWaiting(), "Request should be queued");
+    }
+}
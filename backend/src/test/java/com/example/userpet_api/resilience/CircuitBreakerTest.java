@@ -0,0 +1,208 @@
+package com.example.userpet_api.resilience;
+
+import com.example.userpet_api.config.ResilienceProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final long FAST = Duration.ofMillis(50).toNanos();
+    private static final long SLOW = Duration.ofSeconds(5).toNanos();
+
+    private ResilienceProperties.Breaker properties;
+    private MutableClock clock;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ResilienceProperties.Breaker();
+        properties.setWindowSize(10);
+        properties.setMinimumCalls(10);
+        properties.setFailureRateThreshold(50);
+        properties.setSlowCallRateThreshold(80);
+        properties.setSlowCallDuration(Duration.ofSeconds(1));
+        properties.setOpenDuration(Duration.ofSeconds(10));
+        properties.setHalfOpenCalls(2);
+        clock = new MutableClock();
+        breaker = new CircuitBreaker("test", properties, clock);
+    }
+
+    @Test
+    void testBreaker_WithFewFailures_ShouldStayClosed() {
+        // When
+        record(6, FAST, false);
+        record(4, FAST, true);
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "40% failures is below the threshold");
+        assertTrue(breaker.tryAcquirePermission(), "Closed breaker should permit calls");
+    }
+
+    @Test
+    void testBreaker_WhenFailureRateReachesThreshold_ShouldOpenAndRejectCalls() {
+        // When
+        record(5, FAST, false);
+        record(5, FAST, true);
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(), "50% failures should open the breaker");
+        assertFalse(breaker.tryAcquirePermission(), "Open breaker should reject calls");
+        assertEquals(1, breaker.getRejectedCount(), "Rejection should be counted");
+        assertEquals(Duration.ofSeconds(10), breaker.getRemainingOpenDuration(), "Should report time until probing");
+    }
+
+    @Test
+    void testBreaker_BeforeMinimumCalls_ShouldNotOpen() {
+        // When
+        record(9, FAST, true);
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "Too few calls to judge the failure rate");
+    }
+
+    @Test
+    void testBreaker_WhenCallsAreSlow_ShouldOpen() {
+        // When
+        record(2, FAST, false);
+        record(8, SLOW, false);
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(), "80% slow calls should open the breaker");
+    }
+
+    @Test
+    void testBreaker_ShouldOnlyCountCallsInWindow() {
+        // Given - old failures fall out of the window
+        record(4, FAST, true);
+        record(10, FAST, false);
+
+        // When
+        record(4, FAST, true);
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "Only 4 of the last 10 calls failed");
+    }
+
+    @Test
+    void testBreaker_AfterOpenDuration_ShouldProbeAndCloseOnSuccess() {
+        // Given
+        record(10, FAST, true);
+        clock.advance(Duration.ofSeconds(10));
+
+        // When
+        assertTrue(breaker.tryAcquirePermission(), "First probe should be permitted");
+        assertTrue(breaker.tryAcquirePermission(), "Second probe should be permitted");
+        assertFalse(breaker.tryAcquirePermission(), "Probes beyond the limit should be rejected");
+        breaker.onSuccess(FAST);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(), "Should wait for all probes");
+        breaker.onSuccess(FAST);
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "Successful probes should close the breaker");
+        record(9, FAST, true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "Window should start fresh after closing");
+    }
+
+    @Test
+    void testBreaker_WhenProbeFails_ShouldReopen() {
+        // Given
+        record(10, FAST, true);
+        clock.advance(Duration.ofSeconds(10));
+        assertTrue(breaker.tryAcquirePermission(), "Probe should be permitted");
+
+        // When
+        breaker.onError(FAST);
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(), "Failed probe should reopen the breaker");
+        assertFalse(breaker.tryAcquirePermission(), "Reopened breaker should reject calls");
+    }
+
+    @Test
+    void testBreaker_WhenCallsAreCancelled_ShouldOnlyCountSlowOnes() {
+        // When
+        for (int i = 0; i < 10; i++) {
+            breaker.onCancel(FAST);
+        }
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "Cancelled calls are not failures");
+        for (int i = 0; i < 10; i++) {
+            breaker.onCancel(SLOW);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(), "Calls cancelled after running slow still count");
+    }
+
+    @Test
+    void testBreaker_WhenProbeIsCancelled_ShouldPermitAnotherProbe() {
+        // Given
+        properties.setHalfOpenCalls(1);
+        record(10, FAST, true);
+        clock.advance(Duration.ofSeconds(10));
+        assertTrue(breaker.tryAcquirePermission(), "Probe should be permitted");
+
+        // When
+        breaker.onCancel(FAST);
+
+        // Then
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(), "Cancelled probe should not reopen");
+        assertTrue(breaker.tryAcquirePermission(), "Cancelled probe's slot should be handed back");
+        breaker.onSuccess(FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "Replacement probe should close the breaker");
+    }
+
+    @Test
+    void testBreaker_WhenDisabled_ShouldAlwaysPermit() {
+        // Given
+        properties.setEnabled(false);
+
+        // When
+        record(10, FAST, true);
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "Disabled breaker should not open");
+        assertTrue(breaker.tryAcquirePermission(), "Disabled breaker should permit calls");
+    }
+
+    private void record(int calls, long durationNanos, boolean failed) {
+        for (int i = 0; i < calls; i++) {
+            assertTrue(breaker.tryAcquirePermission(), "Call should be permitted while recording");
+            if (failed) {
+                breaker.onError(durationNanos);
+            } else {
+                breaker.onSuccess(durationNanos);
+            }
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
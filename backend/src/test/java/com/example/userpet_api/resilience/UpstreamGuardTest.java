@@ -0,0 +1,230 @@
+package com.example.userpet_api.resilience;
+
+import com.example.userpet_api.config.ResilienceProperties;
+import com.example.userpet_api.config.UpstreamExecutorConfig;
+import com.example.userpet_api.config.UpstreamExecutorProperties;
+import com.example.userpet_api.config.UpstreamHttpClientConfig;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the guard against a local stub that injects latency and errors per request
+class UpstreamGuardTest {
+
+    private static final byte[] BODY = "{\"message\":[\"https://images.dog.ceo/breeds/pug/1.jpg\"],\"status\":\"success\"}"
+        .getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private Queue<Long> scriptedDelays;
+    private volatile long defaultDelayMillis;
+    private volatile int status;
+    private AtomicInteger requests;
+    private String url;
+
+    private RestTemplate restTemplate;
+    private ExecutorService attemptExecutor;
+    private ResilienceProperties properties;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        scriptedDelays = new ConcurrentLinkedQueue<>();
+        requests = new AtomicInteger();
+        status = 200;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/breeds/image/random", exchange -> {
+            requests.incrementAndGet();
+            Long delay = scriptedDelays.poll();
+            sleep(delay != null ? delay : defaultDelayMillis);
+            exchange.sendResponseHeaders(status, BODY.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(BODY);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/api/breeds/image/random/1";
+
+        restTemplate = UpstreamHttpClientConfig.createRestTemplate();
+        attemptExecutor = UpstreamExecutorConfig.create(new UpstreamExecutorProperties());
+        properties = new ResilienceProperties();
+        properties.getHedge().setMinDelay(Duration.ofMillis(50));
+        properties.getHedge().setInitialDelay(Duration.ofMillis(50));
+        properties.getHedge().setMaxRatio(1.0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        attemptExecutor.shutdownNow();
+    }
+
+    @Test
+    void testExecute_WhenFirstAttemptIsSlow_ShouldReturnHedgedResponse() {
+        // Given
+        UpstreamGuard guard = newGuard();
+        scriptedDelays.add(2_000L);
+
+        // When
+        long start = System.nanoTime();
+        String body = guard.execute(() -> restTemplate.getForObject(url, String.class));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then
+        assertNotNull(body, "Hedged response should be returned");
+        assertTrue(elapsedMillis < 1_000, "Hedge should answer long before the slow attempt (took " + elapsedMillis + " ms)");
+        assertEquals(1, guard.getHedgeCount(), "One hedge should be sent");
+        assertEquals(1, guard.getHedgeWinCount(), "Hedge should win");
+        assertEquals(2, requests.get(), "Upstream should see the original and the hedge");
+    }
+
+    @Test
+    void testExecute_WhenAnswersAreFast_ShouldNotHedge() {
+        // Given - a generous delay until the percentile is known, so connection setup is not hedged
+        properties.getHedge().setInitialDelay(Duration.ofSeconds(1));
+        properties.getHedge().setMinDelay(Duration.ofMillis(200));
+        UpstreamGuard guard = newGuard();
+
+        // When
+        for (int i = 0; i < 40; i++) {
+            guard.execute(() -> restTemplate.getForObject(url, String.class));
+        }
+
+        // Then
+        assertEquals(0, guard.getHedgeCount(), "Fast answers should not be hedged");
+        assertEquals(40, requests.get(), "Each call should reach upstream once");
+        assertTrue(guard.getHedgeDelayNanos() < TimeUnit.SECONDS.toNanos(1),
+            "Hedge delay should follow recent latencies once enough are recorded");
+    }
+
+    @Test
+    void testExecute_WithHedgeBudgetSpent_ShouldNotHedgeAgain() {
+        // Given
+        properties.getHedge().setMaxRatio(0.1);
+        UpstreamGuard guard = newGuard();
+        scriptedDelays.add(300L);
+        guard.execute(() -> restTemplate.getForObject(url, String.class));
+        defaultDelayMillis = 150;
+
+        // When
+        guard.execute(() -> restTemplate.getForObject(url, String.class));
+
+        // Then
+        assertEquals(1, guard.getHedgeCount(), "Hedges should stay within the configured share of calls");
+    }
+
+    @Test
+    void testExecute_WhenUpstreamFails_ShouldOpenBreakerAndFailFast() {
+        // Given
+        properties.getHedge().setEnabled(false);
+        properties.getBreaker().setMinimumCalls(5);
+        properties.getBreaker().setWindowSize(5);
+        UpstreamGuard guard = newGuard();
+        status = 500;
+        for (int i = 0; i < 5; i++) {
+            assertThrows(HttpServerErrorException.class,
+                () -> guard.execute(() -> restTemplate.getForObject(url, String.class)));
+        }
+
+        // When
+        UpstreamUnavailableException rejected = assertThrows(UpstreamUnavailableException.class,
+            () -> guard.execute(() -> restTemplate.getForObject(url, String.class)));
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, guard.getCircuitBreaker().getState(), "Breaker should be open");
+        assertEquals(5, requests.get(), "Rejected call should not reach upstream");
+        assertTrue(rejected.getRetryAfter().toMillis() > 0, "Rejection should say when to retry");
+    }
+
+    @Test
+    void testExecute_WhenUpstreamIsSlow_ShouldOpenBreaker() {
+        // Given
+        properties.getHedge().setEnabled(false);
+        properties.getBreaker().setMinimumCalls(3);
+        properties.getBreaker().setWindowSize(3);
+        properties.getBreaker().setSlowCallDuration(Duration.ofMillis(50));
+        UpstreamGuard guard = newGuard();
+        defaultDelayMillis = 100;
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            guard.execute(() -> restTemplate.getForObject(url, String.class));
+        }
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, guard.getCircuitBreaker().getState(),
+            "Slow but successful calls should still open the breaker");
+    }
+
+    @Test
+    void testExecute_AfterUpstreamRecovers_ShouldCloseBreakerThroughProbes() throws Exception {
+        // Given
+        properties.getHedge().setEnabled(false);
+        properties.getBreaker().setMinimumCalls(2);
+        properties.getBreaker().setWindowSize(2);
+        properties.getBreaker().setHalfOpenCalls(1);
+        properties.getBreaker().setOpenDuration(Duration.ofMillis(200));
+        UpstreamGuard guard = newGuard();
+        status = 503;
+        for (int i = 0; i < 2; i++) {
+            assertThrows(HttpServerErrorException.class,
+                () -> guard.execute(() -> restTemplate.getForObject(url, String.class)));
+        }
+        status = 200;
+
+        // When
+        Thread.sleep(250);
+        String body = guard.execute(() -> restTemplate.getForObject(url, String.class));
+
+        // Then
+        assertNotNull(body, "Probe should reach the recovered upstream");
+        assertEquals(CircuitBreaker.State.CLOSED, guard.getCircuitBreaker().getState(), "Successful probe should close the breaker");
+    }
+
+    @Test
+    void testExecuteMono_WhenCallsAreCancelled_ShouldNotOpenBreaker() {
+        // Given
+        properties.getBreaker().setMinimumCalls(5);
+        properties.getBreaker().setWindowSize(5);
+        UpstreamGuard guard = newGuard();
+
+        // When - as when a client disconnects or Mono.zip drops the call after the other API failed
+        for (int i = 0; i < 10; i++) {
+            guard.execute(Mono.never()).subscribe().dispose();
+        }
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, guard.getCircuitBreaker().getState(),
+            "Cancellations say nothing about the upstream's health");
+        assertEquals("ok", guard.execute(Mono.just("ok")).block(), "Guard should still let calls through");
+    }
+
+    private UpstreamGuard newGuard() {
+        return new UpstreamGuard("dog-ceo", properties, attemptExecutor);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.userpet_api.service;
+
+import com.example.userpet_api.resilience.UpstreamUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedImageFetcherTest {
+
+    private ExecutorService executor;
+    private ChunkedImageFetcher fetcher;
+    private List<Integer> chunkSizes;
+    private List<String> callerThreads;
+    private AtomicInteger inFlight;
+    private AtomicInteger maxInFlight;
+    private AtomicInteger nextImage;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+        fetcher = new ChunkedImageFetcher(50, 4, executor);
+        chunkSizes = new CopyOnWriteArrayList<>();
+        callerThreads = new CopyOnWriteArrayList<>();
+        inFlight = new AtomicInteger();
+        maxInFlight = new AtomicInteger();
+        nextImage = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testFetch_WithinOneChunk_ShouldMakeOneCallOnCallerThread() {
+        // When
+        List<String> images = fetcher.fetch(50, count -> load(count, 0));
+
+        // Then
+        assertEquals(50, images.size(), "All images should be returned");
+        assertEquals(List.of(50), chunkSizes, "One upstream call should be made");
+        assertEquals(List.of(Thread.currentThread().getName()), callerThreads, "Small counts should not use the executor");
+    }
+
+    @Test
+    void testFetch_WithLargeCount_ShouldSplitIntoUpstreamSizedChunks() {
+        // When
+        List<String> images = fetcher.fetch(1_000, count -> load(count, 0));
+
+        // Then
+        assertEquals(1_000, images.size(), "Large requests should be complete");
+        assertEquals(20, chunkSizes.size(), "1000 images should take 20 calls");
+        assertTrue(chunkSizes.stream().allMatch(size -> size == 50), "Every chunk should be full size");
+        assertEquals(1_000, images.stream().distinct().count(), "Every chunk should be merged exactly once");
+    }
+
+    @Test
+    void testFetch_WithPartialLastChunk_ShouldRequestOnlyTheRemainder() {
+        // When
+        List<String> images = fetcher.fetch(120, count -> load(count, 0));
+
+        // Then
+        assertEquals(120, images.size(), "All images should be returned");
+        assertEquals(List.of(20, 50, 50), chunkSizes.stream().sorted().toList(), "Last chunk should be the remainder");
+    }
+
+    @Test
+    void testFetch_ShouldKeepChunkOrder() {
+        // Given - the first call answers last
+        AtomicInteger calls = new AtomicInteger();
+        ChunkedImageFetcher smallChunks = new ChunkedImageFetcher(2, 3, executor);
+
+        // When
+        List<String> images = smallChunks.fetch(6, count -> {
+            int call = calls.getAndIncrement();
+            sleep(call == 0 ? 150 : 0);
+            return List.of("chunk-" + call + "-a", "chunk-" + call + "-b");
+        });
+
+        // Then - each chunk's images stay together in their slot, whichever answered first
+        assertEquals(6, images.size(), "All chunks should be merged");
+        assertEquals(images.get(0).substring(0, 7), images.get(1).substring(0, 7), "Chunks should stay contiguous");
+        assertEquals(images.get(2).substring(0, 7), images.get(3).substring(0, 7), "Chunks should stay contiguous");
+        assertEquals(images.get(4).substring(0, 7), images.get(5).substring(0, 7), "Chunks should stay contiguous");
+    }
+
+    @Test
+    void testFetchStreaming_ShouldHandOverFirstChunkWithoutWaitingForTheRest() {
+        // Given - the caller loads the first chunk, the helpers' chunks are slow
+        Thread caller = Thread.currentThread();
+        List<Long> handedOverMillis = new ArrayList<>();
+        List<String> images = new ArrayList<>();
+        long start = System.nanoTime();
+
+        // When
+        fetcher.fetch(200, count -> load(count, Thread.currentThread() == caller ? 0 : 300), chunk -> {
+            handedOverMillis.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            images.addAll(chunk);
+        });
+
+        // Then
+        assertEquals(4, handedOverMillis.size(), "Every chunk should be handed over");
+        assertTrue(handedOverMillis.get(0) < 200, "First chunk should not wait for the others, took "
+            + handedOverMillis.get(0) + " ms");
+        assertTrue(handedOverMillis.get(3) >= 300, "Later chunks should be handed over as they load");
+        assertEquals(200, images.stream().distinct().count(), "Every image should be handed over once");
+    }
+
+    @Test
+    void testFetch_ShouldBoundConcurrencyAndOverlapCalls() {
+        // When
+        long start = System.nanoTime();
+        List<String> images = fetcher.fetch(400, count -> load(count, 100));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then
+        assertEquals(400, images.size(), "All images should be returned");
+        assertEquals(4, maxInFlight.get(), "At most four chunks should be in flight");
+        assertTrue(elapsedMillis < 700, "8 chunks of 100 ms over 4 lanes should take about 200 ms, took " + elapsedMillis);
+    }
+
+    @Test
+    void testFetch_WithFailedChunk_ShouldReturnTheOthers() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        List<String> images = fetcher.fetch(200, count -> calls.incrementAndGet() == 2 ? List.of() : load(count, 0));
+
+        // Then
+        assertEquals(150, images.size(), "Images from successful chunks should be kept");
+    }
+
+    @Test
+    void testFetch_WhenUpstreamIsUnavailable_ShouldPropagate() {
+        // When & Then
+        assertThrows(UpstreamUnavailableException.class, () -> fetcher.fetch(200, count -> {
+            throw new UpstreamUnavailableException("dog-ceo", Duration.ofSeconds(5));
+        }));
+    }
+
+    private List<String> load(int count, long delayMillis) {
+        chunkSizes.add(count);
+        callerThreads.add(Thread.currentThread().getName());
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            sleep(delayMillis);
+            List<String> images = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                images.add("https://images.dog.ceo/breeds/pug/" + nextImage.incrementAndGet() + ".jpg");
+            }
+            return images;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.userpet_api.service;
+
+import com.example.userpet_api.config.DogImageCatalogProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DogImageCatalogTest {
+
+    @TempDir
+    Path directory;
+
+    private DogImageCatalogProperties properties;
+    private AtomicInteger loaderCalls;
+    private AtomicInteger nextImage;
+    private int callBudget = Integer.MAX_VALUE;
+    private DogImageCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        properties = new DogImageCatalogProperties();
+        properties.setEnabled(true);
+        properties.setSize(120);
+        properties.setRefreshInterval(Duration.ofHours(1));
+        loaderCalls = new AtomicInteger();
+        nextImage = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (catalog != null) {
+            catalog.close();
+        }
+    }
+
+    @Test
+    void testRefresh_ShouldFillCatalogInBatchesOfFifty() {
+        // Given
+        catalog = new DogImageCatalog(properties, this::load);
+
+        // When
+        catalog.refresh();
+
+        // Then
+        assertTrue(catalog.isReady(), "Catalog should be ready after a refresh");
+        assertEquals(120, catalog.size(), "Catalog should hold the configured number of images");
+        assertEquals(3, loaderCalls.get(), "120 images should take three Dog CEO calls");
+    }
+
+    @Test
+    void testImageFor_ShouldBeStableAndSpreadOverCatalog() {
+        // Given
+        catalog = new DogImageCatalog(properties, this::load);
+        catalog.refresh();
+
+        // When
+        Set<String> assigned = new HashSet<>();
+        for (int i = 0; i < 1_000; i++) {
+            String image = catalog.imageFor("user-" + i);
+            assertEquals(image, catalog.imageFor("user-" + i), "Same id should always get the same image");
+            assigned.add(image);
+        }
+
+        // Then
+        assertTrue(assigned.size() > 100, "Similar ids should spread over the catalog, got " + assigned.size());
+    }
+
+    @Test
+    void testIndex_ShouldNotDependOnTheJvm() {
+        // Pinned: a change here reassigns every user's image
+        assertEquals(440, DogImageCatalog.index("1234567", 500), "Index should be the same on every JVM");
+        assertEquals(107, DogImageCatalog.index("NNNNNNNN", 500), "Index should be the same on every JVM");
+        assertTrue(DogImageCatalog.index(null, 10) >= 0, "Missing ids should still get an image");
+        for (int i = 0; i < 100; i++) {
+            int index = DogImageCatalog.index("id-" + i, 7);
+            assertTrue(index >= 0 && index < 7, "Index should be within the catalog");
+        }
+    }
+
+    @Test
+    void testRefresh_WhenUpstreamFails_ShouldKeepCurrentCatalog() {
+        // Given
+        catalog = new DogImageCatalog(properties, this::load);
+        catalog.refresh();
+        String before = catalog.imageFor("user-1");
+        callBudget = loaderCalls.get() + 1;
+
+        // When - the next refresh gets one batch, then nothing
+        catalog.refresh();
+
+        // Then
+        assertEquals(120, catalog.size(), "Partial refresh should not shrink the catalog");
+        assertEquals(before, catalog.imageFor("user-1"), "Users should keep their image");
+    }
+
+    @Test
+    void testImageFor_WhenRefreshesFailPastMaxStaleness_ShouldStopServingCatalog() {
+        // Given
+        properties.setMaxStaleness(Duration.ofHours(2));
+        MutableClock clock = new MutableClock();
+        catalog = new DogImageCatalog(properties, this::load, clock);
+        catalog.refresh();
+        callBudget = loaderCalls.get();
+
+        // When
+        clock.advance(Duration.ofHours(2));
+        catalog.refresh();
+        boolean readyWithinBound = catalog.isReady();
+        clock.advance(Duration.ofHours(2));
+        catalog.refresh();
+
+        // Then
+        assertTrue(readyWithinBound, "Failed refreshes should keep the catalog within max staleness");
+        assertFalse(catalog.isReady(), "Catalog past max staleness should not be used");
+        assertNull(catalog.imageFor("user-1"), "Users should get random images again");
+    }
+
+    @Test
+    void testRefresh_WithPartialFirstResult_ShouldUseWhatItGot() {
+        // Given
+        callBudget = 1;
+        catalog = new DogImageCatalog(properties, this::load);
+
+        // When
+        catalog.refresh();
+
+        // Then
+        assertEquals(50, catalog.size(), "A partial catalog is better than none");
+        assertNotNull(catalog.imageFor("user-1"), "Partial catalog should assign images");
+    }
+
+    @Test
+    void testStart_WithSavedCatalog_ShouldBeReadyWithoutUpstream() throws IOException {
+        // Given
+        properties.setPath(directory.resolve("catalog.txt"));
+        catalog = new DogImageCatalog(properties, this::load);
+        catalog.refresh();
+        String image = catalog.imageFor("user-7");
+        catalog.close();
+        loaderCalls.set(0);
+
+        // When
+        catalog = new DogImageCatalog(properties, this::load);
+        catalog.start();
+
+        // Then
+        assertTrue(catalog.isReady(), "Saved catalog should be loaded synchronously");
+        assertEquals(image, catalog.imageFor("user-7"), "Users should keep their image across restarts");
+        assertEquals(120, Files.readAllLines(properties.getPath()).size(), "Saved file should hold one URL per line");
+        assertEquals(0, loaderCalls.get(), "A fresh saved catalog should not be refetched on startup");
+    }
+
+    private List<String> load(int count) {
+        if (loaderCalls.incrementAndGet() > callBudget) {
+            return List.of();
+        }
+        List<String> images = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            images.add("https://images.dog.ceo/breeds/pug/" + nextImage.incrementAndGet() + ".jpg");
+        }
+        return images;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.userpet_api.service;
+
+import com.example.userpet_api.config.DogImagePoolProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DogImagePoolTest {
+
+    private DogImagePoolProperties properties;
+    private List<Integer> loaderCalls;
+    private AtomicInteger nextImage;
+    private DogImagePool pool;
+
+    @BeforeEach
+    void setUp() {
+        properties = new DogImagePoolProperties();
+        properties.setEnabled(true);
+        properties.setCapacity(100);
+        properties.setLowWaterMark(40);
+        properties.setBatchSize(20);
+        properties.setRefillConcurrency(2);
+        properties.setRefillInterval(Duration.ofMillis(50));
+        loaderCalls = new CopyOnWriteArrayList<>();
+        nextImage = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void testStart_ShouldFillBufferInBatches() {
+        // Given
+        pool = new DogImagePool(properties, this::load);
+
+        // When
+        pool.start();
+
+        // Then
+        awaitTrue(() -> pool.getDepth() == 100, "Pool should fill to capacity");
+        assertTrue(loaderCalls.stream().allMatch(size -> size == 20), "Refill should use the configured batch size");
+    }
+
+    @Test
+    void testTake_FromFilledPool_ShouldNotCallUpstream() {
+        // Given
+        pool = new DogImagePool(properties, this::load);
+        pool.start();
+        awaitTrue(() -> pool.getDepth() == 100, "Pool should fill to capacity");
+        int callsBefore = loaderCalls.size();
+
+        // When
+        List<String> images = pool.take(30);
+
+        // Then
+        assertEquals(30, images.size(), "Should return requested number of images");
+        assertEquals(callsBefore, loaderCalls.size(), "Buffer above low-water mark should not trigger upstream calls");
+        assertEquals(0, pool.getDirectFetchCount(), "No direct fetch should be needed");
+        assertEquals(70, pool.getDepth(), "Depth should drop by the number taken");
+    }
+
+    @Test
+    void testTake_WhenPoolIsDry_ShouldFallBackToDirectFetch() {
+        // Given - pool never started, so the buffer is empty
+        pool = new DogImagePool(properties, this::load);
+
+        // When
+        List<String> images = pool.take(5);
+
+        // Then
+        assertEquals(5, images.size(), "Should still return requested images");
+        assertEquals(1, pool.getDirectFetchCount(), "Direct fetch should be counted");
+        assertTrue(loaderCalls.contains(5), "Shortfall should be loaded directly");
+    }
+
+    @Test
+    void testTake_BelowLowWaterMark_ShouldRefillInBackground() {
+        // Given
+        properties.setRefillInterval(Duration.ofHours(1));
+        pool = new DogImagePool(properties, this::load);
+        pool.start();
+        awaitTrue(() -> pool.getDepth() == 100, "Pool should fill to capacity");
+
+        // When
+        pool.take(80);
+
+        // Then
+        awaitTrue(() -> pool.getDepth() >= 80, "Taking below the low-water mark should trigger a refill");
+        assertEquals(80, pool.getTakenCount(), "Taken images should be counted");
+    }
+
+    @Test
+    void testRefill_WhenUpstreamFails_ShouldKeepServingFromBuffer() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        pool = new DogImagePool(properties, count -> {
+            if (calls.incrementAndGet() > 5) {
+                return List.of();
+            }
+            return load(count);
+        });
+        pool.start();
+        awaitTrue(() -> pool.getDepth() == 100, "Pool should fill to capacity");
+        pool.take(70);
+        awaitTrue(() -> calls.get() > 5, "Refill should hit failing upstream");
+
+        // When
+        List<String> images = pool.take(10);
+
+        // Then
+        assertEquals(10, images.size(), "Buffered images should still be served");
+    }
+
+    @Test
+    void testDrainRate_ShouldReflectTakenImages() {
+        // Given
+        pool = new DogImagePool(properties, this::load);
+        pool.start();
+        awaitTrue(() -> pool.getDepth() == 100, "Pool should fill to capacity");
+
+        // When
+        pool.take(50);
+
+        // Then
+        awaitTrue(() -> pool.getDrainRatePerSecond() > 0, "Drain rate should become positive");
+    }
+
+    private List<String> load(int count) {
+        loaderCalls.add(count);
+        List<String> images = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            images.add("https://images.dog.ceo/breeds/test/" + nextImage.incrementAndGet() + ".jpg");
+        }
+        return images;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, String message) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail(message);
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(message);
+            }
+        }
+    }
+}
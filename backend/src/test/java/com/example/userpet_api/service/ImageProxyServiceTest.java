@@ -0,0 +1,127 @@
+package com.example.userpet_api.service;
+
+import com.example.userpet_api.cache.ImageDiskCache;
+import com.example.userpet_api.config.ImageProxyProperties;
+import com.example.userpet_api.config.UpstreamExecutorConfig;
+import com.example.userpet_api.config.UpstreamExecutorProperties;
+import com.example.userpet_api.config.UpstreamHttpProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageProxyServiceTest {
+
+    private static final String IMAGE_URL = "https://images.dog.ceo/breeds/pug/n02110958_1975.jpg";
+    private static final String IMAGE_PATH = "breeds/pug/n02110958_1975.jpg";
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private ExecutorService upstreamExecutor;
+    private ImageProxyProperties properties;
+    private ImageProxyService imageProxy;
+
+    @BeforeEach
+    void setUp() {
+        upstreamExecutor = UpstreamExecutorConfig.create(new UpstreamExecutorProperties());
+        properties = new ImageProxyProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory);
+        imageProxy = new ImageProxyService(properties, new ImageDiskCache(properties), restTemplate, upstreamExecutor,
+            new UpstreamHttpProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstreamExecutor.shutdownNow();
+    }
+
+    @Test
+    void testToLocalUrl_WithUpstreamImage_ShouldRewriteToImagesEndpoint() {
+        // When & Then
+        assertEquals("/api/images/" + IMAGE_PATH, imageProxy.toLocalUrl(IMAGE_URL), "Upstream image should be proxied");
+        assertEquals("https://example.com/dog.jpg", imageProxy.toLocalUrl("https://example.com/dog.jpg"),
+            "Other hosts should be left alone");
+        assertNull(imageProxy.toLocalUrl(null), "Missing image should stay missing");
+        assertEquals(IMAGE_URL, ImageProxyService.disabled().toLocalUrl(IMAGE_URL),
+            "Disabled proxy should not rewrite");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetImage_CalledTwice_ShouldDownloadOnceAndServeFromDisk() throws Exception {
+        // Given
+        ClientHttpResponse response = mock(ClientHttpResponse.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.IMAGE_JPEG);
+        when(response.getHeaders()).thenReturn(headers);
+        when(response.getBody()).thenReturn(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        when(restTemplate.execute(eq(URI.create(IMAGE_URL)), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+            .thenAnswer(call -> ((ResponseExtractor<?>) call.getArgument(3)).extractData(response));
+
+        // When
+        ImageDiskCache.CachedImage first = imageProxy.getImage(IMAGE_PATH);
+        ImageDiskCache.CachedImage second = imageProxy.getImage(IMAGE_PATH);
+
+        // Then
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(first.getFile()), "Image should be stored on disk");
+        assertEquals(first.getEtag(), second.getEtag(), "Second request should get the same cached file");
+        verify(restTemplate, times(1)).execute(any(URI.class), any(HttpMethod.class), isNull(), any(ResponseExtractor.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetImage_WithPathOutsideImages_ShouldReturnNotFoundWithoutUpstreamCall() {
+        // When
+        ResponseStatusException error = assertThrows(ResponseStatusException.class,
+            () -> imageProxy.getImage("../../etc/passwd.jpg"));
+
+        // Then
+        assertEquals(HttpStatus.NOT_FOUND, error.getStatusCode(), "Traversal should be answered with 404");
+        verify(restTemplate, never()).execute(any(URI.class), any(HttpMethod.class), any(), any(ResponseExtractor.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetImage_WhenUpstreamHasNoImage_ShouldReturnNotFound() {
+        // Given
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+            .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", HttpHeaders.EMPTY, null, null));
+
+        // When
+        ResponseStatusException error = assertThrows(ResponseStatusException.class,
+            () -> imageProxy.getImage(IMAGE_PATH));
+
+        // Then
+        assertEquals(HttpStatus.NOT_FOUND, error.getStatusCode(), "Upstream 404 should be passed on");
+    }
+}
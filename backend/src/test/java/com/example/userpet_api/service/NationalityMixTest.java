@@ -0,0 +1,62 @@
+package com.example.userpet_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NationalityMixTest {
+
+    @Test
+    void testParse_ShouldNormalizeCodesAndWeights() {
+        // When
+        NationalityMix mix = NationalityMix.parse(" fi:3, US ,gb:x,,FI:1, ch:0");
+
+        // Then
+        assertEquals(List.of("FI", "US", "GB", "CH"), mix.getCodes(), "Codes should be upper-cased and de-duplicated");
+        assertArrayEquals(new int[]{4, 1, 1, 1}, mix.getWeights(), "Repeated codes add up; invalid weights count as 1");
+        assertEquals("FI,US,GB,CH", mix.toUpstreamParameter(), "Upstream parameter should list the codes only");
+    }
+
+    @Test
+    void testParse_WithNoNationality_ShouldBeEmpty() {
+        assertEquals(0, NationalityMix.parse(null).size(), "Null should give no nationalities");
+        assertEquals(0, NationalityMix.parse(" , ").size(), "Blank entries should be ignored");
+    }
+
+    @Test
+    void testQuotas_ShouldSplitCountByWeightAndAssignRemainder() {
+        assertArrayEquals(new int[]{17, 17, 16}, NationalityMix.parse("FI,US,GB").quotas(50),
+            "Remainder should go to the earlier nationalities on ties");
+        assertArrayEquals(new int[]{8, 2}, NationalityMix.parse("FI:3,US").quotas(10),
+            "Remainder should go to the largest fractional share");
+        assertArrayEquals(new int[]{1, 0, 0}, NationalityMix.parse("FI,US,GB").quotas(1),
+            "Counts below the number of nationalities leave some empty");
+    }
+
+    @Test
+    void testMerge_ShouldInterleaveBySmoothWeightedRoundRobin() {
+        // Given
+        NationalityMix mix = NationalityMix.parse("A:2,B");
+
+        // When
+        List<String> merged = mix.merge(List.of(List.of("a1", "a2", "a3", "a4"), List.of("b1", "b2")));
+
+        // Then
+        assertEquals(List.of("a1", "b1", "a2", "a3", "b2", "a4"), merged,
+            "Heavier partition should be spread out, not bunched");
+    }
+
+    @Test
+    void testMerge_WhenPartitionRunsShort_ShouldContinueWithOthers() {
+        // Given
+        NationalityMix mix = NationalityMix.parse("A,B,C");
+
+        // When
+        List<String> merged = mix.merge(List.of(List.of("a1", "a2", "a3"), List.of(), List.of("c1")));
+
+        // Then
+        assertEquals(List.of("a1", "c1", "a2", "a3"), merged, "Exhausted partitions should drop out");
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.userpet_api.service;
+
+import com.example.userpet_api.model.UserWithPet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RandomUserJsonParserTest {
+
+    private RandomUserJsonParser parser;
+    private RandomUserServiceImpl treeReference;
+
+    @BeforeEach
+    void setUp() {
+        parser = new RandomUserJsonParser();
+        treeReference = new RandomUserServiceImpl();
+    }
+
+    @Test
+    void testParse_WithRecordedResponse_ShouldMatchTreeMapping() throws IOException {
+        // Given
+        byte[] body = fixture("randomuser-1000.json");
+
+        // When
+        ParsedUsers streamed = parser.parse(new ByteArrayInputStream(body));
+        ParsedUsers tree = treeReference.parseTree(new String(body, StandardCharsets.UTF_8));
+
+        // Then
+        assertEquals(1000, streamed.getUsers().size(), "All recorded users should be parsed");
+        assertEquals(tree.getUsers(), streamed.getUsers(), "Streaming and tree parsing should produce the same users");
+        assertArrayEquals(tree.getPositions(), streamed.getPositions(), "Upstream positions should match");
+    }
+
+    @Test
+    void testParse_WithEdgeCases_ShouldMatchTreeMapping() throws IOException {
+        // Given - null id value, missing fields, non-object entries, odd types and duplicate keys
+        String json = "{\"info\":{\"seed\":\"x\",\"results\":[1,2]},\"results\":["
+            + "{\"gender\":\"male\",\"name\":{\"first\":\"A\",\"last\":\"B\"},\"email\":\"a@b.c\","
+            + "\"dob\":{\"date\":\"d\",\"age\":\"42\"},\"id\":{\"name\":\"\",\"value\":null},\"nat\":\"NZ\",\"phone\":7},"
+            + "{\"name\":{\"first\":\"NoId\"},\"email\":\"x@y.z\",\"id\":{}},"
+            + "\"not-an-object\","
+            + "{\"name\":\"flat\",\"email\":\"flat@x.y\",\"id\":{\"value\":\"9\"}},"
+            + "{\"name\":{\"first\":\"C\",\"last\":\"D\"},\"email\":\"no-at-sign\",\"id\":{\"value\":\"1\"}},"
+            + "{\"name\":{\"first\":\"E\",\"last\":\"F\"},\"email\":\"e@f.g\",\"id\":{\"value\":12.5},"
+            + "\"dob\":{\"age\":33.9},\"gender\":true,\"nat\":null,\"extra\":{\"deep\":[{\"a\":[1,{}]}]}},"
+            + "{\"name\":{\"first\":\"G\",\"last\":\"H\"},\"name\":{\"last\":\"I\"},\"email\":\"g@h.i\",\"id\":{\"value\":\"5\"}}"
+            + "]}";
+
+        // When
+        ParsedUsers streamed = parser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        ParsedUsers tree = treeReference.parseTree(json);
+
+        // Then
+        assertEquals(tree.getUsers(), streamed.getUsers(), "Streaming and tree parsing should produce the same users");
+        assertArrayEquals(tree.getPositions(), streamed.getPositions(), "Upstream positions should match");
+        assertArrayEquals(new int[]{0, 5, 6}, streamed.getPositions(), "Invalid entries should leave gaps");
+    }
+
+    @Test
+    void testParse_WithoutResults_ShouldReturnEmpty() throws IOException {
+        // When
+        ParsedUsers parsed = parser.parse(new ByteArrayInputStream("{\"error\":\"Uh oh\"}".getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        assertTrue(parsed.getUsers().isEmpty(), "Response without results should yield no users");
+    }
+
+    @Test
+    void testParse_WithEmptyBody_ShouldReturnEmpty() throws IOException {
+        // When
+        ParsedUsers parsed = parser.parse(new ByteArrayInputStream(new byte[0]));
+
+        // Then
+        assertTrue(parsed.getUsers().isEmpty(), "Empty body should yield no users");
+    }
+
+    @Test
+    void testParse_ShouldMapAllFields() throws IOException {
+        // Given
+        String json = "{\"results\":[{\"gender\":\"female\",\"name\":{\"title\":\"Ms\",\"first\":\"Aino\",\"last\":\"Korhonen\"},"
+            + "\"email\":\"aino@example.com\",\"dob\":{\"date\":\"1990-01-01T00:00:00.000Z\",\"age\":35},"
+            + "\"phone\":\"02-123\",\"id\":{\"name\":\"HETU\",\"value\":\"NaNNA\"},\"nat\":\"FI\"}]}";
+
+        // When
+        UserWithPet user = parser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))).getUsers().get(0);
+
+        // Then
+        assertEquals("NaNNA", user.getId());
+        assertEquals("female", user.getGender());
+        assertEquals("FI", user.getCountry());
+        assertEquals("Aino Korhonen", user.getName());
+        assertEquals("aino@example.com", user.getEmail());
+        assertEquals("1990-01-01T00:00:00.000Z", user.getDob().getDate());
+        assertEquals(35, user.getDob().getAge());
+        assertEquals("02-123", user.getPhone());
+        assertNull(user.getPetImage(), "Pet image is assigned later by the aggregator");
+    }
+
+    static byte[] fixture(String name) throws IOException {
+        try (InputStream in = RandomUserJsonParserTest.class.getResourceAsStream("/fixtures/" + name)) {
+            assertNotNull(in, "Fixture " + name + " should exist");
+            return in.readAllBytes();
+        }
+    }
+}
@@ -1,14 +1,27 @@
 package com.example.userpet_api.service;
 
+import com.example.userpet_api.cache.RandomUserCache;
+import com.example.userpet_api.cache.RandomUserSnapshot;
+import com.example.userpet_api.config.RandomUserProperties;
+import com.example.userpet_api.config.UpstreamExecutorConfig;
+import com.example.userpet_api.config.UserCacheProperties;
+import com.example.userpet_api.metrics.UserPetMetrics;
 import com.example.userpet_api.model.UserWithPet;
+import com.example.userpet_api.resilience.UpstreamGuards;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
 
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 
 @ExtendWith(MockitoExtension.class)
 class RandomUserServiceImplTest {
@@ -195,4 +208,139 @@ class RandomUserServiceImplTest {
             assertTrue(user.getEmail().contains("@"), "Email should contain @");
         }
     }
+
+    @Test
+    void testFetchRandomUsers_WithSmallerCountAfterLargerFetch_ShouldServeFromCache() {
+        // Given
+        RestTemplate restTemplate = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        RandomUserCache cache = new RandomUserCache(new UserCacheProperties());
+        RandomUserService service = new RandomUserServiceImpl(restTemplate, cache,
+            new RandomUserSnapshot(cache, new UserCacheProperties()), new RandomUserProperties(),
+            new UpstreamGuards(), UserPetMetrics.standalone(), UpstreamExecutorConfig.standaloneNestedExecutor());
+        server.expect(once(), requestTo("https://randomuser.me/api/?results=10&seed=aimopark2025&nat=FI"))
+            .andRespond(withSuccess(randomUserResponse(10, "FI"), MediaType.APPLICATION_JSON));
+
+        // When
+        List<UserWithPet> all = service.fetchRandomUsers(10, "FI");
+        List<UserWithPet> prefix = service.fetchRandomUsers(4, "fi");
+
+        // Then - only one upstream call was made
+        server.verify();
+        assertEquals(10, all.size(), "First call should return all users");
+        assertEquals(4, prefix.size(), "Second call should be sliced from the cached result");
+        assertEquals(all.subList(0, 4), prefix, "Cached prefix should match the first users");
+        assertEquals(1, cache.getHitCount(), "Second call should be a cache hit");
+    }
+
+    @Test
+    void testFetchRandomUsers_WithLargerCountThanCached_ShouldFetchUpstream() {
+        // Given
+        RestTemplate restTemplate = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        RandomUserCache cache = new RandomUserCache(new UserCacheProperties());
+        RandomUserService service = new RandomUserServiceImpl(restTemplate, cache,
+            new RandomUserSnapshot(cache, new UserCacheProperties()), new RandomUserProperties(),
+            new UpstreamGuards(), UserPetMetrics.standalone(), UpstreamExecutorConfig.standaloneNestedExecutor());
+        server.expect(once(), requestTo("https://randomuser.me/api/?results=5&seed=aimopark2025"))
+            .andRespond(withSuccess(randomUserResponse(5, "US"), MediaType.APPLICATION_JSON));
+        server.expect(once(), requestTo("https://randomuser.me/api/?results=8&seed=aimopark2025"))
+            .andRespond(withSuccess(randomUserResponse(8, "US"), MediaType.APPLICATION_JSON));
+
+        // When
+        service.fetchRandomUsers(5);
+        List<UserWithPet> users = service.fetchRandomUsers(8);
+
+        // Then
+        server.verify();
+        assertEquals(8, users.size(), "Larger request should be fetched upstream");
+    }
+
+    // Builds a minimal RandomUser API response body
+    @Test
+    void testFetchRandomUsers_WithNationalityList_ShouldFetchPartitionsAndInterleave() {
+        // Given
+        RestTemplate restTemplate = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+        RandomUserCache cache = new RandomUserCache(new UserCacheProperties());
+        RandomUserService service = new RandomUserServiceImpl(restTemplate, cache,
+            new RandomUserSnapshot(cache, new UserCacheProperties()), new RandomUserProperties(),
+            new UpstreamGuards(), UserPetMetrics.standalone(), UpstreamExecutorConfig.standaloneNestedExecutor());
+        for (String nat : List.of("FI", "US", "GB")) {
+            server.expect(once(), requestTo("https://randomuser.me/api/?results=2&seed=aimopark2025&nat=" + nat))
+                .andRespond(withSuccess(randomUserResponse(2, nat), MediaType.APPLICATION_JSON));
+        }
+
+        // When
+        List<UserWithPet> users = service.fetchRandomUsers(6, "fi, US,GB");
+        List<UserWithPet> finnish = service.fetchRandomUsers(2, "FI");
+
+        // Then
+        server.verify();
+        assertEquals(6, users.size(), "Each nationality should contribute its share");
+        assertEquals(List.of("FI", "US", "GB", "FI", "US", "GB"),
+            users.stream().map(UserWithPet::getCountry).toList(), "Partitions should be interleaved round-robin");
+        assertEquals(users.get(0), finnish.get(0), "Each partition should be cached on its own");
+        assertEquals(3, cache.size(), "One cache entry per nationality");
+    }
+
+    @Test
+    void testFetchRandomUsers_WithWeightedNationalities_ShouldSplitCountByWeight() {
+        // Given
+        RestTemplate restTemplate = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+        RandomUserCache cache = new RandomUserCache(new UserCacheProperties());
+        RandomUserService service = new RandomUserServiceImpl(restTemplate, cache,
+            new RandomUserSnapshot(cache, new UserCacheProperties()), new RandomUserProperties(),
+            new UpstreamGuards(), UserPetMetrics.standalone(), UpstreamExecutorConfig.standaloneNestedExecutor());
+        server.expect(once(), requestTo("https://randomuser.me/api/?results=6&seed=aimopark2025&nat=FI"))
+            .andRespond(withSuccess(randomUserResponse(6, "FI"), MediaType.APPLICATION_JSON));
+        server.expect(once(), requestTo("https://randomuser.me/api/?results=3&seed=aimopark2025&nat=US"))
+            .andRespond(withSuccess(randomUserResponse(3, "US"), MediaType.APPLICATION_JSON));
+
+        // When
+        List<UserWithPet> users = service.fetchRandomUsers(9, "FI:2,US");
+
+        // Then
+        server.verify();
+        assertEquals(List.of("FI", "US", "FI", "FI", "US", "FI", "FI", "US", "FI"),
+            users.stream().map(UserWithPet::getCountry).toList(), "Users should follow smooth weighted round-robin");
+    }
+
+    @Test
+    void testFetchRandomUsers_WithNationalityListInCombinedMode_ShouldMakeOneCall() {
+        // Given
+        RestTemplate restTemplate = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        RandomUserCache cache = new RandomUserCache(new UserCacheProperties());
+        RandomUserProperties properties = new RandomUserProperties();
+        properties.setMultiNationality(RandomUserProperties.MultiNationality.COMBINED);
+        RandomUserService service = new RandomUserServiceImpl(restTemplate, cache,
+            new RandomUserSnapshot(cache, new UserCacheProperties()), properties,
+            new UpstreamGuards(), UserPetMetrics.standalone(), UpstreamExecutorConfig.standaloneNestedExecutor());
+        server.expect(once(), requestTo("https://randomuser.me/api/?results=4&seed=aimopark2025&nat=FI,US"))
+            .andRespond(withSuccess(randomUserResponse(4, "FI"), MediaType.APPLICATION_JSON));
+
+        // When
+        List<UserWithPet> users = service.fetchRandomUsers(4, "fi:3,us");
+
+        // Then
+        server.verify();
+        assertEquals(4, users.size(), "Combined call should return all users");
+    }
+
+    private static String randomUserResponse(int count, String nat) {
+        StringBuilder json = new StringBuilder("{\"results\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"gender\":\"female\",\"name\":{\"first\":\"First").append(i)
+                .append("\",\"last\":\"Last").append(i).append("\"},\"email\":\"user").append(i)
+                .append("@example.com\",\"dob\":{\"date\":\"1990-01-01T00:00:00.000Z\",\"age\":35},")
+                .append("\"phone\":\"555-0100\",\"id\":{\"name\":\"SSN\",\"value\":\"id-").append(nat).append(i)
+                .append("\"},\"nat\":\"").append(nat).append("\"}");
+        }
+        return json.append("]}").toString();
+    }
 }
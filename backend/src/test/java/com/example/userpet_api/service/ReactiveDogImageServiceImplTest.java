@@ -0,0 +1,64 @@
+package com.example.userpet_api.service;
+
+import com.example.userpet_api.config.DogImageFetchProperties;
+import com.example.userpet_api.config.ReactiveUpstreamConfig;
+import com.example.userpet_api.config.UpstreamHttpProperties;
+import com.example.userpet_api.metrics.UserPetMetrics;
+import com.example.userpet_api.resilience.UpstreamGuards;
+import com.example.userpet_api.simulator.UpstreamSimulator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveDogImageServiceImplTest {
+
+    private UpstreamSimulator simulator;
+
+    @AfterEach
+    void tearDown() {
+        simulator.close();
+    }
+
+    @Test
+    void testFetchRandomDogImages_WithLargeCount_ShouldFetchChunksInOrder() throws IOException {
+        // Given
+        simulator = UpstreamSimulator.start(0, UpstreamSimulator.Behaviour.instant(),
+            UpstreamSimulator.Behaviour.instant());
+        ReactiveDogImageService service = service(simulator.getBaseUrl());
+
+        // When
+        List<String> images = service.fetchRandomDogImages(120).block();
+
+        // Then
+        assertNotNull(images, "Images should be returned");
+        assertEquals(120, images.size(), "Chunks should add up to the requested count");
+        assertEquals(3, simulator.getDogCeoRequests(), "120 images need three calls of at most 50");
+    }
+
+    @Test
+    void testFetchRandomDogImages_WhenUpstreamFails_ShouldReturnEmptyList() throws IOException {
+        // Given
+        simulator = UpstreamSimulator.start(0, UpstreamSimulator.Behaviour.instant(),
+            UpstreamSimulator.Behaviour.builder().errorRate(1).build());
+        ReactiveDogImageService service = service(simulator.getBaseUrl());
+
+        // When
+        List<String> images = service.fetchRandomDogImages(10).block();
+
+        // Then
+        assertEquals(List.of(), images, "A failed chunk should contribute no images");
+    }
+
+    private static ReactiveDogImageService service(String baseUrl) {
+        DogImageFetchProperties fetchProperties = new DogImageFetchProperties();
+        fetchProperties.setBaseUrl(baseUrl);
+        UpstreamHttpProperties httpProperties = new UpstreamHttpProperties();
+        return new ReactiveDogImageServiceImpl(
+            ReactiveUpstreamConfig.createWebClient(httpProperties, UserPetMetrics.standalone()),
+            fetchProperties, httpProperties, new UpstreamGuards());
+    }
+}
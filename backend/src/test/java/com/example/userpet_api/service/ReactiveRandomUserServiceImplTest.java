@@ -0,0 +1,95 @@
+package com.example.userpet_api.service;
+
+import com.example.userpet_api.cache.RandomUserCache;
+import com.example.userpet_api.cache.RandomUserSnapshot;
+import com.example.userpet_api.config.RandomUserProperties;
+import com.example.userpet_api.config.ReactiveUpstreamConfig;
+import com.example.userpet_api.config.UpstreamHttpProperties;
+import com.example.userpet_api.config.UserCacheProperties;
+import com.example.userpet_api.metrics.UserPetMetrics;
+import com.example.userpet_api.model.UserWithPet;
+import com.example.userpet_api.resilience.UpstreamGuards;
+import com.example.userpet_api.simulator.UpstreamSimulator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveRandomUserServiceImplTest {
+
+    private UpstreamSimulator simulator;
+    private RandomUserCache cache;
+    private ReactiveRandomUserService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        simulator = UpstreamSimulator.start(0, UpstreamSimulator.Behaviour.instant(),
+            UpstreamSimulator.Behaviour.instant());
+        RandomUserProperties properties = new RandomUserProperties();
+        properties.setBaseUrl(simulator.getBaseUrl());
+        UpstreamHttpProperties httpProperties = new UpstreamHttpProperties();
+        cache = new RandomUserCache(new UserCacheProperties());
+        UserPetMetrics metrics = UserPetMetrics.standalone();
+        service = new ReactiveRandomUserServiceImpl(ReactiveUpstreamConfig.createWebClient(httpProperties, metrics),
+            cache, new RandomUserSnapshot(cache, new UserCacheProperties()), properties, httpProperties,
+            new UpstreamGuards(), metrics);
+    }
+
+    @AfterEach
+    void tearDown() {
+        simulator.close();
+    }
+
+    @Test
+    void testFetchRandomUsers_WithSmallerCountAfterLargerFetch_ShouldServeFromSharedCache() {
+        // When
+        List<UserWithPet> all = service.fetchRandomUsers(20, "FI").block();
+        List<UserWithPet> prefix = service.fetchRandomUsers(5, "fi").block();
+
+        // Then
+        assertNotNull(all, "Users should be returned");
+        assertEquals(20, all.size(), "Every simulated user should be parsed");
+        assertEquals(all.subList(0, 5), prefix, "Smaller count should be a prefix of the cached result");
+        assertEquals(1, simulator.getRandomUserRequests(), "Second call should not go upstream");
+        assertEquals(1, cache.getHitCount(), "Second call should be a cache hit");
+    }
+
+    @Test
+    void testFetchRandomUsers_WithNationalityList_ShouldFetchPartitionsAndInterleave() {
+        // When
+        List<UserWithPet> users = service.fetchRandomUsers(6, "FI,US").block();
+
+        // Then
+        assertNotNull(users, "Users should be returned");
+        assertEquals(List.of("FI", "US", "FI", "US", "FI", "US"),
+            users.stream().map(UserWithPet::getCountry).toList(), "Partitions should be interleaved");
+        assertEquals(2, simulator.getRandomUserRequests(), "One call per nationality");
+    }
+
+    @Test
+    void testFetchRandomUsers_WhenUpstreamFails_ShouldReturnEmptyList() throws IOException {
+        // Given
+        simulator.close();
+        simulator = UpstreamSimulator.start(0, UpstreamSimulator.Behaviour.builder().errorRate(1).build(),
+            UpstreamSimulator.Behaviour.instant());
+        RandomUserProperties properties = new RandomUserProperties();
+        properties.setBaseUrl(simulator.getBaseUrl());
+        UpstreamHttpProperties httpProperties = new UpstreamHttpProperties();
+        UserPetMetrics metrics = UserPetMetrics.standalone();
+        ReactiveRandomUserService failing = new ReactiveRandomUserServiceImpl(
+            ReactiveUpstreamConfig.createWebClient(httpProperties, metrics), cache,
+            new RandomUserSnapshot(cache, new UserCacheProperties()), properties, httpProperties,
+            new UpstreamGuards(), metrics);
+
+        // When
+        List<UserWithPet> users = failing.fetchRandomUsers(5, null).block();
+
+        // Then
+        assertEquals(List.of(), users, "A 503 should give no users, as on the blocking path");
+        assertEquals(0, cache.size(), "Nothing should be cached");
+    }
+}
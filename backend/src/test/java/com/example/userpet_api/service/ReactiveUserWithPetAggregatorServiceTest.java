@@ -0,0 +1,186 @@
+package com.example.userpet_api.service;
+
+import com.example.userpet_api.config.AggregatorProperties;
+import com.example.userpet_api.config.UpstreamExecutorConfig;
+import com.example.userpet_api.config.UpstreamExecutorProperties;
+import com.example.userpet_api.metrics.UserPetMetrics;
+import com.example.userpet_api.model.UserWithPet;
+import com.example.userpet_api.query.UserQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveUserWithPetAggregatorServiceTest {
+
+    @Mock
+    private ReactiveRandomUserService randomUserService;
+
+    @Mock
+    private ReactiveDogImageService reactiveDogImageService;
+
+    @Mock
+    private RandomUserService blockingRandomUserService;
+
+    @Mock
+    private DogImageService dogImageService;
+
+    private ExecutorService upstreamExecutor;
+    private AggregatorProperties properties;
+    private ReactiveUserWithPetAggregatorService aggregatorService;
+
+    private final List<UserWithPet> users = List.of(
+        createUser("1", "John Doe", "male"),
+        createUser("2", "Jane Smith", "female"),
+        createUser("3", "Ann Lee", "female"));
+    private final List<String> images = List.of(
+        "https://images.dog.ceo/breeds/hound-afghan/1.jpg",
+        "https://images.dog.ceo/breeds/pug/2.jpg",
+        "https://images.dog.ceo/breeds/husky/3.jpg");
+
+    @BeforeEach
+    void setUp() {
+        upstreamExecutor = UpstreamExecutorConfig.create(new UpstreamExecutorProperties());
+        properties = new AggregatorProperties();
+        UserPetMetrics metrics = UserPetMetrics.standalone();
+        UserWithPetAggregatorService blockingAggregator = new UserWithPetAggregatorService(
+            blockingRandomUserService, dogImageService, upstreamExecutor, properties, metrics, ImageProxyService.disabled(),
+            ThumbnailService.disabled());
+        aggregatorService = new ReactiveUserWithPetAggregatorService(randomUserService, reactiveDogImageService,
+            dogImageService, blockingAggregator, properties, metrics);
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstreamExecutor.shutdownNow();
+    }
+
+    @Test
+    void testGetUsersWithPets_WithUsersAndImages_ShouldZipByPosition() {
+        // Given
+        when(randomUserService.fetchRandomUsers(3, "FI")).thenReturn(Mono.just(users));
+        when(reactiveDogImageService.fetchRandomDogImages(3)).thenReturn(Mono.just(images));
+
+        // When
+        List<UserWithPet> result = aggregatorService.getUsersWithPets(3, "FI", UserQuery.NONE).block();
+
+        // Then
+        assertNotNull(result, "Result should not be null");
+        assertEquals(3, result.size(), "Every user should be paired");
+        assertEquals(images.get(1), result.get(1).getPetImage(), "User i should get image i");
+        verifyNoInteractions(blockingRandomUserService);
+    }
+
+    @Test
+    void testGetUsersWithPets_WithQuery_ShouldFilterLikeBlockingAggregator() {
+        // Given
+        when(randomUserService.fetchRandomUsers(3, null)).thenReturn(Mono.just(users));
+        when(reactiveDogImageService.fetchRandomDogImages(3)).thenReturn(Mono.just(images));
+        UserQuery query = UserQuery.builder().gender("female").build();
+
+        // When
+        List<UserWithPet> result = aggregatorService.getUsersWithPets(3, null, query).block();
+
+        // Then
+        assertNotNull(result, "Result should not be null");
+        assertEquals(List.of("2", "3"), result.stream().map(UserWithPet::getId).toList(),
+            "Only matching users should be returned");
+        assertEquals(images.get(2), result.get(1).getPetImage(), "Filtered users should keep their image");
+    }
+
+    @Test
+    void testGetUsersWithPets_WhenCatalogReady_ShouldNotFetchImages() {
+        // Given
+        when(dogImageService.isCatalogReady()).thenReturn(true);
+        when(dogImageService.catalogImageFor(anyString())).thenAnswer(call -> "catalog-" + call.getArgument(0));
+        when(randomUserService.fetchRandomUsers(3, null)).thenReturn(Mono.just(users));
+
+        // When
+        List<UserWithPet> result = aggregatorService.getUsersWithPets(3, null, UserQuery.NONE).block();
+
+        // Then
+        assertNotNull(result, "Result should not be null");
+        assertEquals("catalog-1@example.com", result.get(0).getPetImage(), "Images should come from the catalog by email");
+        verify(reactiveDogImageService, never()).fetchRandomDogImages(anyInt());
+    }
+
+    @Test
+    void testGetUsersWithPets_WhenUpstreamTooSlow_ShouldFailAndCancelFetches() {
+        // Given
+        properties.setTimeout(Duration.ofMillis(100));
+        AtomicBoolean cancelled = new AtomicBoolean();
+        when(randomUserService.fetchRandomUsers(3, null))
+            .thenReturn(Mono.<List<UserWithPet>>never().doOnCancel(() -> cancelled.set(true)));
+        when(reactiveDogImageService.fetchRandomDogImages(3)).thenReturn(Mono.just(images));
+
+        // When
+        Mono<List<UserWithPet>> result = aggregatorService.getUsersWithPets(3, null, UserQuery.NONE);
+
+        // Then
+        RuntimeException error = assertThrows(RuntimeException.class, result::block);
+        assertEquals("Failed to aggregate users with pet images", error.getMessage(), "Timeout should be reported");
+        assertTrue(cancelled.get(), "Pending user fetch should be cancelled");
+    }
+
+    @Test
+    void testStreamUsersWithPets_WithImageChunks_ShouldEmitUsersBeforeLaterChunksArrive() {
+        // Given - the second chunk never arrives
+        when(randomUserService.fetchRandomUsers(3, null)).thenReturn(Mono.just(users));
+        when(reactiveDogImageService.streamRandomDogImages(3))
+            .thenReturn(Flux.concat(Flux.just(images.subList(0, 2)), Flux.never()));
+
+        // When
+        List<UserWithPet> first = aggregatorService.streamUsersWithPets(3, null).take(2).collectList()
+            .block(Duration.ofSeconds(5));
+
+        // Then
+        assertNotNull(first, "Result should not be null");
+        assertEquals(List.of(images.get(0), images.get(1)), first.stream().map(UserWithPet::getPetImage).toList(),
+            "First chunk's users should be emitted without waiting for the next chunk");
+    }
+
+    @Test
+    void testStreamUsersWithPets_WhenStreamIsCancelled_ShouldCancelUserFetch() {
+        // Given
+        AtomicBoolean cancelled = new AtomicBoolean();
+        when(randomUserService.fetchRandomUsers(3, null))
+            .thenReturn(Mono.<List<UserWithPet>>never().doOnCancel(() -> cancelled.set(true)));
+        when(reactiveDogImageService.streamRandomDogImages(3)).thenReturn(Flux.just(images));
+
+        // When
+        aggregatorService.streamUsersWithPets(3, null).subscribe().dispose();
+
+        // Then
+        assertTrue(cancelled.get(), "Pending user fetch should be cancelled with the stream");
+    }
+
+    private static UserWithPet createUser(String id, String name, String gender) {
+        return UserWithPet.builder()
+            .id(id)
+            .name(name)
+            .email(id + "@example.com")
+            .country("FI")
+            .gender(gender)
+            .phone("123-456-7890")
+            .dob(UserWithPet.Dob.builder()
+                .date("1990-01-01T00:00:00.000Z")
+                .age(34)
+                .build())
+            .build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.userpet_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void testExecute_WithSameKeyInFlight_ShouldShareOneCall() {
+        // Given
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        CompletableFuture<String> first = singleFlight.execute("50:FI", () -> {
+            loads.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> second = singleFlight.execute("50:FI", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        upstream.complete("users");
+
+        // Then
+        assertEquals(1, loads.get(), "Loader should run once for concurrent callers");
+        assertEquals("users", first.join(), "First caller should get the result");
+        assertEquals("users", second.join(), "Second caller should share the result");
+        assertEquals(1, singleFlight.getExecutionCount(), "Should count one execution");
+        assertEquals(1, singleFlight.getCoalescedCount(), "Should count one coalesced caller");
+    }
+
+    @Test
+    void testExecute_WithDifferentKeys_ShouldRunSeparately() {
+        // When
+        singleFlight.execute("50:FI", CompletableFuture::new);
+        singleFlight.execute("50:US", CompletableFuture::new);
+
+        // Then
+        assertEquals(2, singleFlight.getExecutionCount(), "Each key should run its own call");
+        assertEquals(0, singleFlight.getCoalescedCount(), "Nothing should be coalesced");
+        assertEquals(2, singleFlight.getInFlightCount(), "Both calls should be in flight");
+    }
+
+    @Test
+    void testExecute_AfterCompletion_ShouldStartNewCall() {
+        // Given
+        singleFlight.execute("50:FI", () -> CompletableFuture.completedFuture("first")).join();
+
+        // When
+        String result = singleFlight.execute("50:FI", () -> CompletableFuture.completedFuture("second")).join();
+
+        // Then
+        assertEquals("second", result, "A completed call should not be reused");
+        assertEquals(0, singleFlight.getInFlightCount(), "Completed calls should be removed");
+        assertEquals(0, singleFlight.getCoalescedCount(), "Sequential calls should not be coalesced");
+    }
+
+    @Test
+    void testExecute_WhenCallFails_ShouldFailAllCallersAndForgetKey() {
+        // Given
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.execute("50:FI", () -> upstream);
+        CompletableFuture<String> second = singleFlight.execute("50:FI", () -> upstream);
+
+        // When
+        upstream.completeExceptionally(new IllegalStateException("upstream down"));
+
+        // Then
+        ExecutionException error = assertThrows(ExecutionException.class, first::get);
+        assertInstanceOf(IllegalStateException.class, error.getCause(), "Failure should reach the first caller");
+        assertThrows(ExecutionException.class, second::get, "Failure should reach the coalesced caller");
+        assertEquals(0, singleFlight.getInFlightCount(), "Failed calls should be removed");
+    }
+
+    @Test
+    void testExecute_WhenOneCallerCancels_ShouldNotAffectOthers() {
+        // Given
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.execute("50:FI", () -> upstream);
+        CompletableFuture<String> second = singleFlight.execute("50:FI", () -> upstream);
+
+        // When
+        first.cancel(true);
+        upstream.complete("users");
+
+        // Then
+        assertTrue(first.isCancelled(), "Cancelled caller should see its own cancellation");
+        assertEquals("users", second.join(), "Other callers should still get the result");
+    }
+
+    @Test
+    void testExecute_WhenLoaderThrows_ShouldFailAndForgetKey() {
+        // When
+        CompletableFuture<String> result = singleFlight.execute("50:FI", () -> {
+            throw new IllegalStateException("no executor");
+        });
+
+        // Then
+        assertTrue(result.isCompletedExceptionally(), "Caller should see the loader failure");
+        assertEquals(0, singleFlight.getInFlightCount(), "Key should not stay in flight");
+    }
+}
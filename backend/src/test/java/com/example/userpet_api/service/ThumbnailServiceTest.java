@@ -0,0 +1,189 @@
+package com.example.userpet_api.service;
+
+import com.example.userpet_api.cache.ImageDiskCache;
+import com.example.userpet_api.config.ThumbnailProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ThumbnailServiceTest {
+
+    private static final String IMAGE_URL = "https://images.dog.ceo/breeds/pug/1.jpg";
+    private static final String IMAGE_PATH = "breeds/pug/1.jpg";
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private ImageProxyService imageProxy;
+
+    private ThumbnailProperties properties;
+    private ThumbnailService thumbnails;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ThumbnailProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.resolve("thumbnails"));
+        properties.setSizes(List.of(400, 128));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (thumbnails != null) {
+            thumbnails.close();
+        }
+    }
+
+    @Test
+    void testGetThumbnail_WithLargeJpeg_ShouldStoreEverySizeFromOneDownload() throws IOException {
+        // Given
+        ImageDiskCache.CachedImage original = original(IMAGE_PATH, 1600, 1200);
+        when(imageProxy.getImage(IMAGE_PATH)).thenReturn(original);
+        start();
+
+        // When
+        ImageDiskCache.CachedImage large = thumbnails.getThumbnail(400, IMAGE_PATH);
+        ImageDiskCache.CachedImage small = thumbnails.getThumbnail(128, IMAGE_PATH);
+
+        // Then
+        assertNotNull(large, "Thumbnail should be generated on request");
+        BufferedImage largeImage = ImageIO.read(large.getFile().toFile());
+        assertEquals(400, largeImage.getWidth(), "Longest edge should match the size");
+        assertEquals(300, largeImage.getHeight(), "Aspect ratio should be kept");
+        assertEquals(128, ImageIO.read(small.getFile().toFile()).getWidth(), "Second size should be stored too");
+        assertTrue(large.getSize() * 4 < original.getSize(), "Thumbnail should be much smaller than the original");
+        assertEquals(2, thumbnails.getGeneratedCount(), "Both sizes should come from one job");
+        verify(imageProxy, times(1)).getImage(IMAGE_PATH);
+    }
+
+    @Test
+    void testGetThumbnail_WithSmallOriginal_ShouldKeepOriginalBytes() throws IOException {
+        // Given
+        ImageDiskCache.CachedImage original = original(IMAGE_PATH, 200, 150);
+        when(imageProxy.getImage(IMAGE_PATH)).thenReturn(original);
+        start();
+
+        // When
+        ImageDiskCache.CachedImage thumbnail = thumbnails.getThumbnail(400, IMAGE_PATH);
+
+        // Then
+        assertArrayEquals(Files.readAllBytes(original.getFile()), Files.readAllBytes(thumbnail.getFile()),
+            "Images smaller than the thumbnail should not be upscaled or re-encoded");
+    }
+
+    @Test
+    void testToThumbnailUrl_WithProxiedImage_ShouldLinkFirstSizeAndQueueGeneration() throws IOException {
+        // Given
+        when(imageProxy.toPath(IMAGE_URL)).thenReturn(IMAGE_PATH);
+        when(imageProxy.getImage(IMAGE_PATH)).thenReturn(original(IMAGE_PATH, 800, 600));
+        start();
+
+        // When
+        String url = thumbnails.toThumbnailUrl(IMAGE_URL);
+
+        // Then
+        assertEquals("/api/thumbnails/400/breeds/pug/1.jpg", url, "Link should use the first size");
+        verify(imageProxy, timeout(5000)).getImage(IMAGE_PATH);
+        assertNull(thumbnails.toThumbnailUrl("https://images.dog.ceo/breeds/pug/1.webp"),
+            "Formats without a pure Java codec should get no thumbnail");
+    }
+
+    @Test
+    void testGetThumbnail_WithUnknownSize_ShouldReturnNotFound() {
+        // Given
+        start();
+
+        // When
+        ResponseStatusException error = assertThrows(ResponseStatusException.class,
+            () -> thumbnails.getThumbnail(999, IMAGE_PATH));
+
+        // Then
+        assertEquals(HttpStatus.NOT_FOUND, error.getStatusCode(), "Only configured sizes should be served");
+        verify(imageProxy, never()).getImage(anyString());
+    }
+
+    @Test
+    void testGetThumbnail_WhenQueueIsFull_ShouldSkipImageAndReturnNull() throws Exception {
+        // Given
+        properties.setWorkers(1);
+        properties.setQueueCapacity(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        when(imageProxy.getImage(anyString())).thenAnswer(call -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY);
+        });
+        when(imageProxy.toPath(anyString())).thenAnswer(call -> ((String) call.getArgument(0)).substring(23));
+        start();
+        thumbnails.toThumbnailUrl("https://images.dog.ceo/a.jpg");
+        assertTrue(started.await(5, TimeUnit.SECONDS), "First image should occupy the only worker");
+        thumbnails.toThumbnailUrl("https://images.dog.ceo/b.jpg");
+
+        // When
+        ImageDiskCache.CachedImage thumbnail = thumbnails.getThumbnail(400, "c.jpg");
+        release.countDown();
+
+        // Then
+        assertNull(thumbnail, "Caller should fall back to the full image");
+        assertEquals(1, thumbnails.getRejectedCount(), "Third image should not fit in the queue");
+    }
+
+    @Test
+    void testStart_WithoutImageProxy_ShouldKeepThumbnailsOff() {
+        // Given
+        when(imageProxy.isEnabled()).thenReturn(false);
+        thumbnails = new ThumbnailService(properties, imageProxy);
+
+        // When
+        thumbnails.start();
+
+        // Then
+        assertNull(thumbnails.toThumbnailUrl(IMAGE_URL), "No thumbnails without the originals");
+    }
+
+    private void start() {
+        lenient().when(imageProxy.isEnabled()).thenReturn(true);
+        thumbnails = new ThumbnailService(properties, imageProxy);
+        thumbnails.start();
+    }
+
+    // A photo-like gradient, so JPEG compression behaves as it would on a real picture
+    private ImageDiskCache.CachedImage original(String key, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        for (int y = 0; y < height; y += 4) {
+            for (int x = 0; x < width; x += 4) {
+                graphics.setColor(new Color((x * 7 + y) % 256, (x + y * 3) % 256, (x * y) % 256));
+                graphics.fillRect(x, y, 4, 4);
+            }
+        }
+        graphics.dispose();
+        Path file = directory.resolve("original-" + width + ".jpg");
+        ImageIO.write(image, "jpeg", file.toFile());
+        return new ImageDiskCache.CachedImage(key, file, Files.size(file), Files.getLastModifiedTime(file).toMillis());
+    }
+}
@@ -1,17 +1,38 @@
 package com.example.userpet_api.service;
 
+import com.example.userpet_api.config.AggregatorProperties;
+import com.example.userpet_api.config.ImageProxyProperties;
+import com.example.userpet_api.config.UpstreamExecutorConfig;
+import com.example.userpet_api.config.UpstreamExecutorProperties;
+import com.example.userpet_api.config.UpstreamHttpProperties;
+import com.example.userpet_api.metrics.UserPetMetrics;
 import com.example.userpet_api.model.UserWithPet;
+import com.example.userpet_api.query.BatchQuery;
+import com.example.userpet_api.query.UserQuery;
+import com.example.userpet_api.resilience.UpstreamUnavailableException;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,7 +44,9 @@ class UserWithPetAggregatorServiceTest {
     @Mock
     private DogImageService dogImageService;
 
-    @InjectMocks
+    private ExecutorService upstreamExecutor;
+    private AggregatorProperties properties;
+    private UserPetMetrics metrics;
     private UserWithPetAggregatorService aggregatorService;
 
     private List<UserWithPet> mockUsers;
@@ -31,6 +54,13 @@ class UserWithPetAggregatorServiceTest {
 
     @BeforeEach
     void setUp() {
+        upstreamExecutor = UpstreamExecutorConfig.create(new UpstreamExecutorProperties());
+        properties = new AggregatorProperties();
+        metrics = UserPetMetrics.standalone();
+        aggregatorService = new UserWithPetAggregatorService(
+            randomUserService, dogImageService, upstreamExecutor, properties, metrics, ImageProxyService.disabled(),
+            ThumbnailService.disabled());
+
         // Create mock users
         mockUsers = Arrays.asList(
             createMockUser("1", "John Doe", "john@example.com", "US"),
@@ -71,6 +101,29 @@ class UserWithPetAggregatorServiceTest {
         verify(dogImageService, times(1)).fetchRandomDogImages(count);
     }
 
+    @Test
+    void testGetUsersWithPets_WithImageProxyEnabled_ShouldRewritePetImagesToLocalPaths() {
+        // Given
+        ImageProxyProperties proxyProperties = new ImageProxyProperties();
+        proxyProperties.setEnabled(true);
+        UserWithPetAggregatorService proxied = new UserWithPetAggregatorService(randomUserService, dogImageService,
+            upstreamExecutor, properties, metrics,
+            new ImageProxyService(proxyProperties, null, null, null, new UpstreamHttpProperties()),
+            ThumbnailService.disabled());
+        when(randomUserService.fetchRandomUsers(3, null)).thenReturn(mockUsers);
+        when(dogImageService.fetchRandomDogImages(3)).thenReturn(mockImages);
+
+        // When
+        List<UserWithPet> result = proxied.getUsersWithPets(3);
+
+        // Then
+        assertEquals("/api/images/breeds/hound-afghan/1.jpg", result.get(0).getPetImage(),
+            "Dog CEO images should be served through the proxy");
+        assertEquals("/api/images/breeds/bulldog-french/3.jpg", result.get(2).getPetImage(),
+            "Every image should be rewritten");
+        assertNull(result.get(0).getPetThumbnail(), "Thumbnails should stay off unless enabled");
+    }
+
     @Test
     void testGetUsersWithPets_WithNationality_ShouldPassNationalityFilter() {
         // Given
@@ -216,6 +269,350 @@ class UserWithPetAggregatorServiceTest {
         verify(dogImageService, times(1)).fetchRandomDogImages(count);
     }
 
+    @Test
+    void testGetUsersWithPets_ShouldFetchUsersAndImagesConcurrently() {
+        // Given - each upstream call blocks until the other one has started,
+        // which can only succeed when both run at the same time
+        int count = 3;
+        CountDownLatch usersStarted = new CountDownLatch(1);
+        CountDownLatch imagesStarted = new CountDownLatch(1);
+        when(randomUserService.fetchRandomUsers(count, null)).thenAnswer(invocation -> {
+            usersStarted.countDown();
+            assertTrue(imagesStarted.await(2, TimeUnit.SECONDS), "Image fetch should start while users are in flight");
+            return mockUsers;
+        });
+        when(dogImageService.fetchRandomDogImages(count)).thenAnswer(invocation -> {
+            imagesStarted.countDown();
+            assertTrue(usersStarted.await(2, TimeUnit.SECONDS), "User fetch should start while images are in flight");
+            return mockImages;
+        });
+
+        // When
+        List<UserWithPet> result = aggregatorService.getUsersWithPets(count);
+
+        // Then
+        assertEquals(3, result.size(), "Should return 3 users with pets");
+    }
+
+    @Test
+    void testGetUsersWithPets_LatencyShouldBeMaxNotSumOfUpstreamCalls() {
+        // Given - both upstream calls take 300ms
+        int count = 3;
+        when(randomUserService.fetchRandomUsers(count, null)).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return mockUsers;
+        });
+        when(dogImageService.fetchRandomDogImages(count)).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return mockImages;
+        });
+
+        // When
+        long start = System.nanoTime();
+        List<UserWithPet> result = aggregatorService.getUsersWithPets(count);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then
+        assertEquals(3, result.size(), "Should return 3 users with pets");
+        assertTrue(elapsedMillis < 550, "Calls should overlap, took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    void testGetUsersWithPets_WhenUpstreamExceedsDeadline_ShouldFail() {
+        // Given
+        int count = 3;
+        properties.setTimeout(Duration.ofMillis(100));
+        when(randomUserService.fetchRandomUsers(count, null)).thenAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return mockUsers;
+        });
+        when(dogImageService.fetchRandomDogImages(count)).thenReturn(mockImages);
+
+        // When & Then
+        long start = System.nanoTime();
+        assertThrows(RuntimeException.class, () -> aggregatorService.getUsersWithPets(count));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000,
+            "Should give up at the deadline instead of waiting for the slow call");
+    }
+
+    @Test
+    void testGetUsersWithPets_WithFixedExecutorStrategy_ShouldWork() {
+        // Given
+        UpstreamExecutorProperties fixed = new UpstreamExecutorProperties();
+        fixed.setStrategy(UpstreamExecutorProperties.Strategy.FIXED);
+        fixed.setPoolSize(2);
+        ExecutorService fixedExecutor = UpstreamExecutorConfig.create(fixed);
+        UserWithPetAggregatorService service = new UserWithPetAggregatorService(
+            randomUserService, dogImageService, fixedExecutor, properties, metrics, ImageProxyService.disabled(),
+            ThumbnailService.disabled());
+        when(randomUserService.fetchRandomUsers(3, null)).thenReturn(mockUsers);
+        when(dogImageService.fetchRandomDogImages(3)).thenReturn(mockImages);
+
+        // When
+        List<UserWithPet> result = service.getUsersWithPets(3);
+        fixedExecutor.shutdownNow();
+
+        // Then
+        assertEquals(3, result.size(), "Should return 3 users with pets");
+    }
+
+    @Test
+    void testStreamUsersWithPets_ShouldHandEachPairedUserToSink() {
+        // Given
+        int count = 3;
+        List<String> twoImages = Arrays.asList(mockImages.get(0), mockImages.get(1));
+        when(randomUserService.fetchRandomUsers(count, "FI")).thenReturn(mockUsers);
+        doCallRealMethod().when(dogImageService).streamRandomDogImages(eq(count), any());
+        when(dogImageService.fetchRandomDogImages(count)).thenReturn(twoImages);
+        List<UserWithPet> received = new ArrayList<>();
+
+        // When
+        int streamed = aggregatorService.streamUsersWithPets(count, "FI", received::add);
+
+        // Then
+        assertEquals(2, streamed, "Only users with an image should be streamed");
+        assertEquals(2, received.size(), "Sink should receive each paired user");
+        assertEquals(mockImages.get(1), received.get(1).getPetImage(), "Users should arrive in order with their image");
+    }
+
+    @Test
+    void testStreamUsersWithPets_WithImageChunks_ShouldHandOverUsersBeforeLaterChunksLoad() {
+        // Given
+        when(randomUserService.fetchRandomUsers(3, null)).thenReturn(mockUsers);
+        List<UserWithPet> received = new ArrayList<>();
+        List<Integer> receivedBeforeSecondChunk = new ArrayList<>();
+        doAnswer(invocation -> {
+            Consumer<List<String>> chunks = invocation.getArgument(1);
+            chunks.accept(mockImages.subList(0, 2));
+            receivedBeforeSecondChunk.add(received.size());
+            chunks.accept(mockImages.subList(2, 3));
+            return null;
+        }).when(dogImageService).streamRandomDogImages(eq(3), any());
+
+        // When
+        int streamed = aggregatorService.streamUsersWithPets(3, null, received::add);
+
+        // Then
+        assertEquals(3, streamed, "Every user should be streamed");
+        assertEquals(List.of(2), receivedBeforeSecondChunk, "First chunk's users should be handed over at once");
+        assertEquals(mockImages.get(2), received.get(2).getPetImage(), "Later chunks should continue at the right user");
+        verify(dogImageService, never()).fetchRandomDogImages(anyInt());
+    }
+
+    @Test
+    void testGetUsersWithPets_WithIdenticalConcurrentRequests_ShouldShareOneUpstreamFetch() throws Exception {
+        // Given
+        int callers = 8;
+        CountDownLatch release = new CountDownLatch(1);
+        when(randomUserService.fetchRandomUsers(3, "FI")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return mockUsers;
+        });
+        when(dogImageService.fetchRandomDogImages(3)).thenReturn(mockImages);
+        ExecutorService clients = Executors.newFixedThreadPool(callers);
+
+        // When
+        List<Future<List<UserWithPet>>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(clients.submit(() -> aggregatorService.getUsersWithPets(3, "FI")));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (aggregatorService.getSingleFlight().getCoalescedCount() < callers - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        // Then
+        for (Future<List<UserWithPet>> result : results) {
+            assertEquals(3, result.get(5, TimeUnit.SECONDS).size(), "Every caller should get the full result");
+        }
+        clients.shutdownNow();
+        verify(randomUserService, times(1)).fetchRandomUsers(3, "FI");
+        verify(dogImageService, times(1)).fetchRandomDogImages(3);
+        assertEquals(callers - 1, aggregatorService.getSingleFlight().getCoalescedCount(),
+            "All but the first caller should be coalesced");
+    }
+
+    @Test
+    void testGetUsersWithPets_WithCoalescingDisabled_ShouldFetchPerRequest() {
+        // Given
+        properties.setCoalesce(false);
+        when(randomUserService.fetchRandomUsers(3, null)).thenReturn(mockUsers);
+        when(dogImageService.fetchRandomDogImages(3)).thenReturn(mockImages);
+
+        // When
+        aggregatorService.getUsersWithPets(3);
+        aggregatorService.getUsersWithPets(3);
+
+        // Then
+        verify(randomUserService, times(2)).fetchRandomUsers(3, null);
+        assertEquals(0, aggregatorService.getSingleFlight().getExecutionCount(), "Single-flight should be bypassed");
+    }
+
+    @Test
+    void testGetUsersWithPets_WhenUpstreamBreakerIsOpen_ShouldFailFastWithUnavailable() {
+        // Given
+        when(randomUserService.fetchRandomUsers(3, null)).thenReturn(mockUsers);
+        when(dogImageService.fetchRandomDogImages(3))
+            .thenThrow(new UpstreamUnavailableException("dog-ceo", Duration.ofSeconds(7)));
+
+        // When & Then
+        UpstreamUnavailableException error = assertThrows(UpstreamUnavailableException.class,
+            () -> aggregatorService.getUsersWithPets(3));
+        assertEquals("dog-ceo", error.getUpstream(), "Should name the unavailable upstream");
+    }
+
+    @Test
+    void testGetUsersWithPets_WithImageCatalog_ShouldAssignImagesByUserWithoutDogCeo() {
+        // Given
+        when(randomUserService.fetchRandomUsers(3, "FI")).thenReturn(mockUsers);
+        when(dogImageService.isCatalogReady()).thenReturn(true);
+        when(dogImageService.catalogImageFor(anyString()))
+            .thenAnswer(invocation -> "https://images.dog.ceo/breeds/pug/" + invocation.getArgument(0) + ".jpg");
+
+        // When
+        List<UserWithPet> first = aggregatorService.getUsersWithPets(3, "FI");
+        List<UserWithPet> second = aggregatorService.getUsersWithPets(3, "FI");
+
+        // Then
+        assertEquals(3, first.size(), "Every user should get a catalog image");
+        assertEquals("https://images.dog.ceo/breeds/pug/jane@example.com.jpg", first.get(1).getPetImage(),
+            "Image should be chosen by the user's email");
+        assertEquals(first, second, "Identical requests should give identical results");
+        verify(dogImageService, never()).fetchRandomDogImages(anyInt());
+    }
+
+    @Test
+    void testGetUsersWithPets_WithImageCatalogAndNullIds_ShouldGiveEachUserItsOwnImage() {
+        // Given - RandomUser sends "id": {"value": null} for every NZ, UA, TR and IR user
+        List<UserWithPet> users = Arrays.asList(
+            createMockUser("null", "Aroha Ngata", "aroha.ngata@example.com", "NZ"),
+            createMockUser("null", "Liam Wilson", "liam.wilson@example.com", "NZ"),
+            createMockUser("null", "Mia Brown", "mia.brown@example.com", "NZ"));
+        when(randomUserService.fetchRandomUsers(3, "NZ")).thenReturn(users);
+        when(dogImageService.isCatalogReady()).thenReturn(true);
+        when(dogImageService.catalogImageFor(anyString()))
+            .thenAnswer(invocation -> "https://images.dog.ceo/breeds/pug/" + invocation.getArgument(0) + ".jpg");
+
+        // When
+        List<UserWithPet> result = aggregatorService.getUsersWithPets(3, "NZ");
+
+        // Then
+        assertEquals(3, result.stream().map(UserWithPet::getPetImage).distinct().count(),
+            "Users without an id should not all share one dog");
+        verify(dogImageService, never()).catalogImageFor("null");
+    }
+
+    @Test
+    void testStreamUsersWithPets_WithImageCatalog_ShouldStreamCatalogImages() {
+        // Given
+        when(randomUserService.fetchRandomUsers(3, null)).thenReturn(mockUsers);
+        when(dogImageService.isCatalogReady()).thenReturn(true);
+        when(dogImageService.catalogImageFor(anyString())).thenReturn("https://images.dog.ceo/breeds/pug/1.jpg");
+        List<UserWithPet> streamed = new ArrayList<>();
+
+        // When
+        int count = aggregatorService.streamUsersWithPets(3, null, streamed::add);
+
+        // Then
+        assertEquals(3, count, "All users should be streamed");
+        assertTrue(streamed.stream().allMatch(user -> user.getPetImage() != null), "Streamed users should have images");
+        verify(dogImageService, never()).fetchRandomDogImages(anyInt());
+    }
+
+    @Test
+    void testGetUsersWithPets_WithQuery_ShouldFilterAndSortKeepingEachUsersImage() {
+        // Given
+        when(randomUserService.fetchRandomUsers(3, null)).thenReturn(mockUsers);
+        when(dogImageService.fetchRandomDogImages(3)).thenReturn(mockImages);
+        UserQuery query = UserQuery.builder().country("US").build();
+        UserQuery sorted = UserQuery.builder().sort(UserQuery.Sort.NAME_DESC).build();
+
+        // When
+        List<UserWithPet> filtered = aggregatorService.getUsersWithPets(3, null, query);
+        List<UserWithPet> reordered = aggregatorService.getUsersWithPets(3, null, sorted);
+
+        // Then
+        assertEquals(1, filtered.size(), "Only the US user should match");
+        assertEquals("John Doe", filtered.get(0).getName(), "Matching user should be returned");
+        assertEquals(mockImages.get(0), filtered.get(0).getPetImage(), "User should keep the image paired with it");
+        assertEquals(Arrays.asList("John Doe", "Jane Smith", "Bob Johnson"),
+            reordered.stream().map(UserWithPet::getName).toList(), "Users should be sorted by name, descending");
+        assertEquals(mockImages.get(2), reordered.get(2).getPetImage(), "Sorting should not reshuffle images");
+    }
+
+    @Test
+    void testGetUsersWithPetsBatch_ShouldFetchLargestCountPerNationalityAndServePrefixes() {
+        // Given
+        when(randomUserService.fetchRandomUsers(3, "FI")).thenReturn(mockUsers);
+        when(randomUserService.fetchRandomUsers(2, null)).thenReturn(mockUsers.subList(0, 2));
+        when(dogImageService.fetchRandomDogImages(3)).thenReturn(mockImages);
+        List<BatchQuery> queries = List.of(
+            new BatchQuery(2, "FI", null),
+            new BatchQuery(3, "fi", UserQuery.NONE),
+            new BatchQuery(2, null, null),
+            new BatchQuery(3, "FI", UserQuery.builder().country("GB").build()));
+
+        // When
+        List<List<UserWithPet>> results = aggregatorService.getUsersWithPetsBatch(queries);
+
+        // Then
+        assertEquals(4, results.size(), "Every query should get a result");
+        assertEquals(results.get(1).subList(0, 2), results.get(0), "Smaller query should be a prefix of the larger one");
+        assertEquals(3, results.get(1).size(), "Largest query should get all users");
+        assertEquals(2, results.get(2).size(), "Other nationality should be fetched on its own");
+        assertEquals(1, results.get(3).size(), "Filters should apply to the shared fetch");
+        assertEquals(mockImages.get(2), results.get(3).get(0).getPetImage(), "Filtered user should keep its image");
+        verify(randomUserService, times(1)).fetchRandomUsers(3, "FI");
+        verify(randomUserService, times(1)).fetchRandomUsers(2, null);
+        verify(dogImageService, times(1)).fetchRandomDogImages(3);
+        verifyNoMoreInteractions(randomUserService);
+    }
+
+    @Test
+    void testGetUsersWithPetsBatch_WithSeveralNationalities_ShouldOnlyShareFetchesOfTheSameCount() {
+        // Given - interleaving quotas depend on the count, so 2 users are not a prefix of 3
+        when(randomUserService.fetchRandomUsers(anyInt(), eq("FI,US"))).thenReturn(mockUsers);
+        when(dogImageService.fetchRandomDogImages(3)).thenReturn(mockImages);
+        List<BatchQuery> queries = List.of(
+            new BatchQuery(2, "FI,US", null),
+            new BatchQuery(3, "FI,US", null),
+            new BatchQuery(3, "fi,us", null));
+
+        // When
+        List<List<UserWithPet>> results = aggregatorService.getUsersWithPetsBatch(queries);
+
+        // Then
+        assertSame(results.get(1), results.get(2), "Equal queries should be answered once");
+        verify(randomUserService, times(1)).fetchRandomUsers(2, "FI,US");
+        verify(randomUserService, times(1)).fetchRandomUsers(3, "FI,US");
+    }
+
+    @Test
+    void testGetUsersWithPetsBatch_WhenAnyFetchFails_ShouldFailTheBatch() {
+        // Given
+        when(dogImageService.fetchRandomDogImages(5))
+            .thenThrow(new UpstreamUnavailableException("dog-ceo", Duration.ofSeconds(7)));
+
+        // When & Then
+        assertThrows(UpstreamUnavailableException.class,
+            () -> aggregatorService.getUsersWithPetsBatch(List.of(new BatchQuery(5, "FI", null))));
+    }
+
+    @Test
+    void testClampCount_ShouldAgreeWithNormalizeCount() {
+        for (int count : new int[] {-1, 0, 1, 50, 1000, 1001, Integer.MAX_VALUE}) {
+            assertEquals(UserWithPetAggregatorService.normalizeCount(count),
+                UserWithPetAggregatorService.clampCount(count),
+                "Cache keys and aggregation should clamp " + count + " the same way");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstreamExecutor.shutdownNow();
+    }
+
     // Helper method to create mock users
     private UserWithPet createMockUser(String id, String name, String email, String country) {
         return UserWithPet.builder()
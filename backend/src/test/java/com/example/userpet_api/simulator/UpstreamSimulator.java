@@ -0,0 +1,348 @@
+package com.example.userpet_api.simulator;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for randomuser.me and dog.ceo, for load tests that must not touch the real
+ * APIs. Both APIs are served from one port, so the service only needs both base URLs pointed at
+ * {@link #getBaseUrl()}.
+ *
+ * <p>Users are generated from the seed, nationality and position, so like the real API a larger
+ * request starts with the users of a smaller one. Each API gets its own {@link Behaviour}: a
+ * log-normal latency given by its median and 99th percentile, a share of 503 responses and, for
+ * users, extra bytes per user to model larger payloads.
+ *
+ * <p>Run standalone with {@code mvn -Ploadtest test-compile exec:exec
+ * -Dloadtest.main=com.example.userpet_api.simulator.UpstreamSimulator}.
+ */
+@Slf4j
+public final class UpstreamSimulator implements AutoCloseable {
+
+    public static final String RANDOM_USER_PATH = "/api/";
+    public static final String DOG_IMAGE_PATH = "/api/breeds/image/random/";
+
+    // dog.ceo returns at most this many images per call, whatever was asked for
+    static final int MAX_DOG_IMAGES = 50;
+
+    private static final String[] NATIONALITIES = {
+        "AU", "BR", "CA", "CH", "DE", "DK", "ES", "FI", "FR", "GB", "IE",
+        "IN", "IR", "MX", "NL", "NO", "NZ", "RS", "TR", "UA", "US"};
+    private static final String[] FIRST_NAMES_FEMALE = {
+        "Aino", "Emma", "Olivia", "Sofia", "Lea", "Mia", "Nora", "Ella", "Ida", "Alice", "Julia", "Clara"};
+    private static final String[] FIRST_NAMES_MALE = {
+        "Eino", "Noah", "Liam", "Leo", "Oliver", "Elias", "Hugo", "Lucas", "Oscar", "Adam", "Max", "Theo"};
+    private static final String[] LAST_NAMES = {
+        "Virtanen", "Smith", "Wilson", "Martin", "Garcia", "Jensen", "Muller", "Silva", "Brown", "Novak",
+        "Korhonen", "Taylor", "Moreau", "Rossi", "Larsen", "Kaya"};
+    private static final String[] BREEDS = {
+        "husky", "pug", "terrier-australian", "retriever-golden", "hound-afghan", "bulldog-french",
+        "beagle", "collie-border", "poodle-standard", "shiba"};
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Behaviour randomUser;
+    private final Behaviour dogCeo;
+    private final AtomicLong randomUserRequests = new AtomicLong();
+    private final AtomicLong dogCeoRequests = new AtomicLong();
+    // Client ports seen so far; a new port is a new TCP connection
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    /**
+     * How one simulated API responds. The defaults answer at once, never fail and add no padding.
+     */
+    @Value
+    @Builder
+    public static class Behaviour {
+        @Builder.Default
+        Duration medianLatency = Duration.ZERO;
+        // Equal to the median, or unset, for a fixed latency
+        @Builder.Default
+        Duration p99Latency = Duration.ZERO;
+        // Share of requests, 0 to 1, answered with 503
+        @Builder.Default
+        double errorRate = 0;
+        // Extra bytes added to every generated user
+        @Builder.Default
+        int userPaddingBytes = 0;
+
+        public static Behaviour instant() {
+            return Behaviour.builder().build();
+        }
+
+        long sampleLatencyNanos() {
+            long median = medianLatency.toNanos();
+            long p99 = p99Latency.toNanos();
+            if (median <= 0 || p99 <= median) {
+                return Math.max(0, median);
+            }
+            // Log-normal: the median is exp(mu) and the 99th percentile exp(mu + 2.326 sigma)
+            double sigma = Math.log((double) p99 / median) / 2.326;
+            return (long) (median * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+        }
+    }
+
+    private UpstreamSimulator(HttpServer server, ExecutorService executor, Behaviour randomUser, Behaviour dogCeo) {
+        this.server = server;
+        this.executor = executor;
+        this.randomUser = randomUser;
+        this.dogCeo = dogCeo;
+    }
+
+    /**
+     * Starts a simulator on {@code port} (0 for any free port) on the loopback interface.
+     */
+    public static UpstreamSimulator start(int port, Behaviour randomUser, Behaviour dogCeo) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        // Simulated latency sleeps on the handling thread, so threads are not pooled to a fixed size
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "upstream-simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        UpstreamSimulator simulator = new UpstreamSimulator(server, executor, randomUser, dogCeo);
+        server.createContext(RANDOM_USER_PATH, simulator::handleRandomUser);
+        server.createContext(DOG_IMAGE_PATH, simulator::handleDogImages);
+        server.setExecutor(executor);
+        server.start();
+        log.info("Upstream simulator listening on {}", simulator.getBaseUrl());
+        return simulator;
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public long getRandomUserRequests() {
+        return randomUserRequests.get();
+    }
+
+    public long getDogCeoRequests() {
+        return dogCeoRequests.get();
+    }
+
+    /**
+     * Connections clients have opened, counted as distinct client ports. A client that keeps
+     * opening connections can eventually reuse a port, so this is a lower bound for long runs.
+     */
+    public int getConnections() {
+        return clientPorts.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handleRandomUser(HttpExchange exchange) throws IOException {
+        randomUserRequests.incrementAndGet();
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        try (exchange) {
+            if (!RANDOM_USER_PATH.equals(exchange.getRequestURI().getPath())) {
+                respond(exchange, 404, "{\"error\":\"Not found\"}");
+                return;
+            }
+            if (delayAndMaybeFail(exchange, randomUser)) {
+                return;
+            }
+            Map<String, String> query = query(exchange.getRequestURI());
+            int results = Math.max(1, Math.min(5000, parseInt(query.get("results"), 1)));
+            String seed = query.getOrDefault("seed", "");
+            String[] nationalities = query.containsKey("nat")
+                ? query.get("nat").toUpperCase(Locale.ROOT).split(",")
+                : NATIONALITIES;
+            respond(exchange, 200, users(results, seed, nationalities, randomUser.getUserPaddingBytes()));
+        }
+    }
+
+    private void handleDogImages(HttpExchange exchange) throws IOException {
+        dogCeoRequests.incrementAndGet();
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        try (exchange) {
+            if (delayAndMaybeFail(exchange, dogCeo)) {
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            int count = Math.max(1, Math.min(MAX_DOG_IMAGES, parseInt(path.substring(DOG_IMAGE_PATH.length()), 1)));
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            StringBuilder json = new StringBuilder(count * 80).append("{\"message\":[");
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append("\"https://images.dog.ceo/breeds/").append(BREEDS[random.nextInt(BREEDS.length)])
+                    .append("/n0").append(2085000 + random.nextInt(30000)).append('_')
+                    .append(random.nextInt(10000)).append(".jpg\"");
+            }
+            respond(exchange, 200, json.append("],\"status\":\"success\"}").toString());
+        }
+    }
+
+    // Returns true when the request was answered with an error
+    private static boolean delayAndMaybeFail(HttpExchange exchange, Behaviour behaviour) throws IOException {
+        long latency = behaviour.sampleLatencyNanos();
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency / 1_000_000, (int) (latency % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return true;
+            }
+        }
+        if (behaviour.getErrorRate() > 0 && ThreadLocalRandom.current().nextDouble() < behaviour.getErrorRate()) {
+            respond(exchange, 503, "{\"error\":\"Simulated upstream failure\"}");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * The {@code results} document the simulated RandomUser API returns. Position {@code i} always
+     * holds the same user for the same seed and nationalities.
+     */
+    static String users(int results, String seed, String[] nationalities, int paddingBytes) {
+        StringBuilder json = new StringBuilder(results * (900 + paddingBytes)).append("{\"results\":[");
+        for (int i = 0; i < results; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendUser(json, i, seed, nationalities, paddingBytes);
+        }
+        return json.append("],\"info\":{\"seed\":\"").append(seed).append("\",\"results\":").append(results)
+            .append(",\"page\":1,\"version\":\"1.4\"}}").toString();
+    }
+
+    private static void appendUser(StringBuilder json, int position, String seed, String[] nationalities,
+                                   int paddingBytes) {
+        SplittableRandom random = new SplittableRandom(seed.hashCode() * 1_000_003L + position);
+        String nat = nationalities[random.nextInt(nationalities.length)].trim();
+        boolean female = random.nextBoolean();
+        String first = (female ? FIRST_NAMES_FEMALE : FIRST_NAMES_MALE)[random.nextInt(FIRST_NAMES_FEMALE.length)];
+        String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        int year = 1950 + random.nextInt(55);
+        int month = 1 + random.nextInt(12);
+        int day = 1 + random.nextInt(28);
+        String id = String.format(Locale.ROOT, "%07d%c", random.nextInt(10_000_000), (char) ('A' + random.nextInt(26)));
+        String login = Long.toHexString(random.nextLong());
+
+        json.append("{\"gender\":\"").append(female ? "female" : "male")
+            .append("\",\"name\":{\"title\":\"").append(female ? "Ms" : "Mr")
+            .append("\",\"first\":\"").append(first).append("\",\"last\":\"").append(last)
+            .append("\"},\"location\":{\"street\":{\"number\":").append(1 + random.nextInt(9999))
+            .append(",\"name\":\"Main Street\"},\"city\":\"Springfield\",\"state\":\"Region\",\"country\":\"")
+            .append(nat).append("\",\"postcode\":").append(10000 + random.nextInt(89999))
+            .append(",\"coordinates\":{\"latitude\":\"60.1699\",\"longitude\":\"24.9384\"}")
+            .append(",\"timezone\":{\"offset\":\"+2:00\",\"description\":\"Helsinki\"}}")
+            .append(",\"email\":\"").append(first.toLowerCase(Locale.ROOT)).append('.')
+            .append(last.toLowerCase(Locale.ROOT)).append('.').append(position).append("@example.com\"")
+            .append(",\"login\":{\"uuid\":\"").append(login).append("\",\"username\":\"user").append(position)
+            .append("\",\"password\":\"secret\",\"salt\":\"").append(login, 0, Math.min(8, login.length()))
+            .append("\"},\"dob\":{\"date\":\"").append(String.format(Locale.ROOT, "%d-%02d-%02dT08:30:00.000Z", year, month, day))
+            .append("\",\"age\":").append(2025 - year)
+            .append("},\"registered\":{\"date\":\"2020-03-15T10:20:30.400Z\",\"age\":5}")
+            .append(",\"phone\":\"040-").append(1000000 + random.nextInt(8999999))
+            .append("\",\"cell\":\"050-").append(1000000 + random.nextInt(8999999))
+            .append("\",\"id\":{\"name\":\"SID\",\"value\":\"").append(id)
+            .append("\"},\"picture\":{\"thumbnail\":\"https://randomuser.me/api/portraits/thumb/")
+            .append(female ? "women/" : "men/").append(position % 100).append(".jpg\"}");
+        if (paddingBytes > 0) {
+            json.append(",\"padding\":\"").append("x".repeat(paddingBytes)).append('"');
+        }
+        json.append(",\"nat\":\"").append(nat).append("\"}");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> parameters = new HashMap<>();
+        String raw = uri.getQuery();
+        if (raw != null) {
+            for (String pair : raw.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    parameters.put(pair.substring(0, equals), pair.substring(equals + 1));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    private static int parseInt(String value, int fallback) {
+        try {
+            return value == null ? fallback : Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Runs the simulator until the JVM exits. Options: {@code --port=9090},
+     * {@code --latency=80ms}, {@code --p99=400ms}, {@code --error-rate=0.01},
+     * {@code --padding=0}; each applies to both APIs.
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        Behaviour behaviour = Behaviour.builder()
+            .medianLatency(parseDuration(options.getOrDefault("latency", "0ms")))
+            .p99Latency(parseDuration(options.getOrDefault("p99", "0ms")))
+            .errorRate(Double.parseDouble(options.getOrDefault("error-rate", "0")))
+            .userPaddingBytes(Integer.parseInt(options.getOrDefault("padding", "0")))
+            .build();
+        UpstreamSimulator simulator = start(Integer.parseInt(options.getOrDefault("port", "9090")), behaviour, behaviour);
+        Runtime.getRuntime().addShutdownHook(new Thread(simulator::close));
+        System.out.println("Point the service at the simulator with:");
+        System.out.println("  --userpet.random-user.base-url=" + simulator.getBaseUrl()
+            + " --userpet.dog-images.fetch.base-url=" + simulator.getBaseUrl());
+        Thread.currentThread().join();
+    }
+
+    /**
+     * Parses durations such as {@code 250ms}, {@code 2s} or {@code 1m}.
+     */
+    public static Duration parseDuration(String value) {
+        String trimmed = value.trim().toLowerCase(Locale.ROOT);
+        if (trimmed.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+        }
+        if (trimmed.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        }
+        if (trimmed.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        }
+        return Duration.ofMillis(Long.parseLong(trimmed));
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.userpet_api.simulator;
+
+import com.example.userpet_api.cache.RandomUserCache;
+import com.example.userpet_api.cache.RandomUserSnapshot;
+import com.example.userpet_api.config.DogImageCatalogProperties;
+import com.example.userpet_api.config.DogImageFetchProperties;
+import com.example.userpet_api.config.DogImagePoolProperties;
+import com.example.userpet_api.config.RandomUserProperties;
+import com.example.userpet_api.config.UpstreamExecutorConfig;
+import com.example.userpet_api.config.UpstreamHttpClientConfig;
+import com.example.userpet_api.config.UserCacheProperties;
+import com.example.userpet_api.metrics.UserPetMetrics;
+import com.example.userpet_api.model.UserWithPet;
+import com.example.userpet_api.resilience.UpstreamGuards;
+import com.example.userpet_api.service.DogImageService;
+import com.example.userpet_api.service.DogImageServiceImpl;
+import com.example.userpet_api.service.RandomUserService;
+import com.example.userpet_api.service.RandomUserServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamSimulatorTest {
+
+    private UpstreamSimulator simulator;
+
+    @AfterEach
+    void tearDown() {
+        if (simulator != null) {
+            simulator.close();
+        }
+    }
+
+    @Test
+    void testFetchRandomUsers_WithSimulatorBaseUrl_ShouldParseSimulatedUsers() throws IOException {
+        // Given
+        simulator = UpstreamSimulator.start(0, UpstreamSimulator.Behaviour.instant(),
+            UpstreamSimulator.Behaviour.instant());
+        RandomUserService service = randomUserService(simulator.getBaseUrl());
+
+        // When
+        List<UserWithPet> users = service.fetchRandomUsers(25, "FI");
+
+        // Then
+        assertEquals(25, users.size(), "Every simulated user should pass validation");
+        assertTrue(users.stream().allMatch(user -> "FI".equals(user.getCountry())), "Nationality filter should apply");
+        assertEquals(1, simulator.getRandomUserRequests(), "Service should call the simulator, not randomuser.me");
+    }
+
+    @Test
+    void testUsers_WithSameSeed_ShouldStartWithUsersOfSmallerRequest() {
+        // When
+        String small = UpstreamSimulator.users(3, "seed", new String[]{"FI", "US"}, 0);
+        String large = UpstreamSimulator.users(10, "seed", new String[]{"FI", "US"}, 0);
+        String otherSeed = UpstreamSimulator.users(3, "other", new String[]{"FI", "US"}, 0);
+
+        // Then
+        String smallUsers = small.substring(0, small.indexOf("],\"info\""));
+        assertTrue(large.startsWith(smallUsers), "A larger request should begin with the smaller one's users");
+        assertNotEquals(small, otherSeed, "Another seed should give other users");
+    }
+
+    @Test
+    void testFetchDogImages_WithLargeCount_ShouldCapEachCallLikeDogCeo() throws IOException {
+        // Given
+        simulator = UpstreamSimulator.start(0, UpstreamSimulator.Behaviour.instant(),
+            UpstreamSimulator.Behaviour.instant());
+        DogImageFetchProperties fetchProperties = new DogImageFetchProperties();
+        fetchProperties.setBaseUrl(simulator.getBaseUrl() + "/");
+        DogImageService service = new DogImageServiceImpl(UpstreamHttpClientConfig.createRestTemplate(),
+            new DogImagePoolProperties(), new DogImageCatalogProperties(), fetchProperties, new UpstreamGuards(),
+            UpstreamExecutorConfig.standaloneNestedExecutor());
+
+        // When
+        List<String> images = service.fetchRandomDogImages(120);
+
+        // Then
+        assertEquals(120, images.size(), "Chunks should add up to the requested count");
+        assertTrue(images.stream().allMatch(url -> url.startsWith("https://images.dog.ceo/breeds/")),
+            "Images should look like dog.ceo URLs");
+        assertEquals(3, simulator.getDogCeoRequests(), "120 images need three calls of at most 50");
+    }
+
+    @Test
+    void testFetchRandomUsers_WhenSimulatorAlwaysFails_ShouldReturnEmptyList() throws IOException {
+        // Given
+        UpstreamSimulator.Behaviour failing = UpstreamSimulator.Behaviour.builder().errorRate(1).build();
+        simulator = UpstreamSimulator.start(0, failing, UpstreamSimulator.Behaviour.instant());
+        RandomUserService service = randomUserService(simulator.getBaseUrl());
+
+        // When
+        List<UserWithPet> users = service.fetchRandomUsers(5);
+
+        // Then
+        assertTrue(users.isEmpty(), "Failed upstream call should give no users");
+        assertTrue(simulator.getRandomUserRequests() >= 1, "Simulator should have been called");
+    }
+
+    @Test
+    void testSampleLatency_WithMedianAndP99_ShouldFollowDistribution() {
+        // Given
+        UpstreamSimulator.Behaviour behaviour = UpstreamSimulator.Behaviour.builder()
+            .medianLatency(Duration.ofMillis(50)).p99Latency(Duration.ofMillis(400)).build();
+        long[] samples = new long[20_000];
+
+        // When
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = behaviour.sampleLatencyNanos();
+        }
+        Arrays.sort(samples);
+
+        // Then
+        double median = samples[samples.length / 2] / 1e6;
+        double p99 = samples[(int) (samples.length * 0.99)] / 1e6;
+        assertEquals(50, median, 5, "Median should match the configured one");
+        assertEquals(400, p99, 80, "99th percentile should match the configured one");
+    }
+
+    private static RandomUserService randomUserService(String baseUrl) {
+        RandomUserProperties properties = new RandomUserProperties();
+        properties.setBaseUrl(baseUrl);
+        RandomUserCache cache = new RandomUserCache(new UserCacheProperties());
+        return new RandomUserServiceImpl(UpstreamHttpClientConfig.createRestTemplate(), cache,
+            new RandomUserSnapshot(cache, new UserCacheProperties()), properties,
+            new UpstreamGuards(), UserPetMetrics.standalone(), UpstreamExecutorConfig.standaloneNestedExecutor());
+    }
+}
@@ -20,6 +20,7 @@ interface BackendUserResponse {
   };
   phone: string;
   petImage: string;
+  petThumbnail?: string;
 }
 
 // Transform backend response to frontend User format
@@ -40,6 +41,9 @@ const transformUser = (backendUser: BackendUserResponse, index: number): User =>
   const year = date.getFullYear();
   const birthDate = `${day}/${month}/${year}`;
 
+  // Prefer the thumbnail, a fraction of the size of the original photo, when the backend provides one
+  const petImage = backendUser.petThumbnail || backendUser.petImage;
+
   return {
     id: index + 1,
     name: backendUser.name,
@@ -49,7 +53,8 @@ const transformUser = (backendUser: BackendUserResponse, index: number): User =>
     email: backendUser.email,
     phone: backendUser.phone,
     birthDate,
-    petImageUrl: backendUser.petImage,
+    // Proxied images and thumbnails come back as a path on the backend (/api/images/..., /api/thumbnails/...)
+    petImageUrl: petImage && new URL(petImage, API_BASE_URL).toString(),
     petAltText: `A dog belonging to ${backendUser.name}`,
   };
 };